@@ -0,0 +1,206 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+
+import java.io.Serializable;
+
+/**
+ * An axis-aligned bounding box (AABB) in 3D space, defined by its minimal and maximal corners.
+ * Bounding boxes are used by the acceleration structures to discard rays that cannot hit an object.
+ */
+public class BoundingBox implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The marker box of unbounded geometries (e.g. planes): it spans all of space and every ray hits it.
+     */
+    public static final BoundingBox UNBOUNDED = new BoundingBox(
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    /**
+     * The box of an empty collection: it contains nothing and no ray hits it.
+     */
+    public static final BoundingBox EMPTY = new BoundingBox(
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+    private final double minX; // The minimal x coordinate of the box
+    private final double minY; // The minimal y coordinate of the box
+    private final double minZ; // The minimal z coordinate of the box
+    private final double maxX; // The maximal x coordinate of the box
+    private final double maxY; // The maximal y coordinate of the box
+    private final double maxZ; // The maximal z coordinate of the box
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX The minimal x coordinate.
+     * @param minY The minimal y coordinate.
+     * @param minZ The minimal z coordinate.
+     * @param maxX The maximal x coordinate.
+     * @param maxY The maximal y coordinate.
+     * @param maxZ The maximal z coordinate.
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest bounding box that contains all the given points.
+     *
+     * @param points The points to enclose.
+     * @return The bounding box of the points.
+     */
+    public static BoundingBox of(Point... points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            Double3 xyz = p.getXyz();
+            minX = Math.min(minX, xyz.getD1());
+            minY = Math.min(minY, xyz.getD2());
+            minZ = Math.min(minZ, xyz.getD3());
+            maxX = Math.max(maxX, xyz.getD1());
+            maxY = Math.max(maxY, xyz.getD2());
+            maxZ = Math.max(maxZ, xyz.getD3());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Checks whether the box is infinite along any axis, i.e. it cannot be placed in a spatial index.
+     *
+     * @return {@code true} if the box is unbounded, {@code false} otherwise.
+     */
+    public boolean isUnbounded() {
+        return Double.isInfinite(minX) || Double.isInfinite(minY) || Double.isInfinite(minZ)
+                || Double.isInfinite(maxX) || Double.isInfinite(maxY) || Double.isInfinite(maxZ);
+    }
+
+    /**
+     * Checks whether the box contains no point at all.
+     *
+     * @return {@code true} if the box is empty, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return minX > maxX || minY > maxY || minZ > maxZ;
+    }
+
+    /**
+     * Gets the minimal coordinate of the box along an axis.
+     *
+     * @param axis The axis index: 0 for x, 1 for y and 2 for z.
+     * @return The minimal coordinate along the axis.
+     */
+    public double getMin(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Gets the maximal coordinate of the box along an axis.
+     *
+     * @param axis The axis index: 0 for x, 1 for y and 2 for z.
+     * @return The maximal coordinate along the axis.
+     */
+    public double getMax(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Calculates the smallest box containing both this box and another one.
+     * An empty box leaves the other box unchanged, and an unbounded box absorbs any other box.
+     *
+     * @param other The other box.
+     * @return The union of the two boxes.
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculates the surface area of the box, the measure used by the surface area heuristic.
+     *
+     * @return The surface area of the box.
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX;
+        double dy = maxY - minY;
+        double dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Checks whether a ray hits the box closer than a given distance, using the slab method.
+     *
+     * @param ray         The ray to test.
+     * @param maxDistance The distance along the ray beyond which hits are ignored.
+     * @return {@code true} if the ray enters the box before {@code maxDistance}, {@code false} otherwise.
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        if (isEmpty()) return false;
+        Double3 o = ray.getHead().getXyz();
+        Double3 inv = ray.getInverseDirection();
+        return intersects(minX, minY, minZ, maxX, maxY, maxZ, o.getD1(), o.getD2(), o.getD3(),
+                inv.getD1(), inv.getD2(), inv.getD3(), maxDistance);
+    }
+
+    /**
+     * Slab test of a ray against a box given by its raw coordinates.
+     * Used directly by the acceleration structures, which keep their boxes in flat arrays.
+     * A {@code NaN} slab distance (ray origin on a slab plane, parallel to it) never shrinks the interval.
+     *
+     * @param minX        The minimal x coordinate of the box.
+     * @param minY        The minimal y coordinate of the box.
+     * @param minZ        The minimal z coordinate of the box.
+     * @param maxX        The maximal x coordinate of the box.
+     * @param maxY        The maximal y coordinate of the box.
+     * @param maxZ        The maximal z coordinate of the box.
+     * @param ox          The x coordinate of the ray head.
+     * @param oy          The y coordinate of the ray head.
+     * @param oz          The z coordinate of the ray head.
+     * @param invX        The reciprocal of the x component of the ray direction.
+     * @param invY        The reciprocal of the y component of the ray direction.
+     * @param invZ        The reciprocal of the z component of the ray direction.
+     * @param maxDistance The distance along the ray beyond which hits are ignored.
+     * @return {@code true} if the ray enters the box before {@code maxDistance}, {@code false} otherwise.
+     */
+    static boolean intersects(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                              double ox, double oy, double oz, double invX, double invY, double invZ,
+                              double maxDistance) {
+        double tNear = 0;
+        double tFar = maxDistance;
+
+        double t1 = (minX - ox) * invX;
+        double t2 = (maxX - ox) * invX;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+
+        t1 = (minY - oy) * invY;
+        t2 = (maxY - oy) * invY;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+
+        t1 = (minZ - oz) * invZ;
+        t2 = (maxZ - oz) * invZ;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+
+        return tNear <= tFar;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{(" + minX + "," + minY + "," + minZ + ")-(" + maxX + "," + maxY + "," + maxZ + ")}";
+    }
+}
@@ -0,0 +1,593 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Double3;
+import primitives.Ray;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A bounding volume hierarchy (BVH) over a set of bounded primitives, built with the binned
+ * surface area heuristic (SAH).
+ * The tree is kept in flat arrays in depth-first order: the left child of an interior node is the
+ * node right after it, and the node stores the index of its right child.
+ * A leaf stores a range of the primitive order array instead.
+ * The hierarchy only knows the primitives by index; the owner answers the per-primitive queries.
+ */
+final class BoundingVolumeHierarchy implements SpatialIndex {
+
+    /**
+     * The number of centroid bins evaluated per axis when choosing a split.
+     */
+    private static final int BINS = 16;
+    /**
+     * Nodes with at most this many primitives are never split.
+     */
+    private static final int MIN_SPLIT_SIZE = 4;
+    /**
+     * Nodes with more primitives than this are always split, even if the heuristic prefers a leaf.
+     */
+    private static final int MAX_LEAF_SIZE = 16;
+    /**
+     * The maximal depth of the tree, which bounds the recursion of the traversal.
+     */
+    private static final int MAX_DEPTH = 48;
+    /**
+     * The cost of visiting a node, relative to the cost of intersecting one primitive.
+     */
+    private static final double TRAVERSAL_COST = 1d;
+    /**
+     * A refit that makes the tree this many times costlier than when it was built triggers a rebuild.
+     */
+    private static final double REBUILD_RATIO = 1.5;
+
+    private final double[] primitiveBounds; // 6 coordinates per primitive: min x,y,z then max x,y,z
+    private double[] centroids;             // 3 coordinates per primitive, only kept once the tree was built here
+    private final int[] order;              // primitive indices, grouped by leaf
+
+    private final double[] bounds;          // 6 coordinates per node
+    private final int[] offsets;            // interior: index of right child, leaf: first position in order
+    private final int[] counts;             // interior: 0, leaf: amount of primitives
+    private final byte[] axes;              // interior: the split axis, used to visit the nearer child first
+    private int nodeCount = 0;
+    private double builtCost;               // The cost of the tree when it was built, to measure refit decay
+
+    /**
+     * Builds a hierarchy over primitive boxes given as a flat array, without a box object per primitive.
+     *
+     * @param primitiveBounds 6 coordinates per primitive: min x,y,z then max x,y,z.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    BoundingVolumeHierarchy(double[] primitiveBounds) {
+        int n = primitiveBounds.length / 6;
+        if (n == 0)
+            throw new IllegalArgumentException("A bounding volume hierarchy needs at least one primitive");
+
+        this.primitiveBounds = primitiveBounds;
+        order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+
+        int maxNodes = 2 * n - 1;
+        bounds = new double[6 * maxNodes];
+        offsets = new int[maxNodes];
+        counts = new int[maxNodes];
+        axes = new byte[maxNodes];
+        rebuild();
+    }
+
+    /**
+     * Restores a hierarchy from its flat arrays, as read back from {@link #write(ByteBuffer)}.
+     *
+     * @param primitiveBounds 6 coordinates per primitive: min x,y,z then max x,y,z.
+     * @param order           The primitive indices, grouped by leaf.
+     * @param bounds          6 coordinates per node.
+     * @param offsets         Per node, the index of the right child or the first position in the order.
+     * @param counts          Per node, 0 for an interior node or the amount of primitives of a leaf.
+     * @param axes            Per node, the split axis.
+     * @param nodeCount       The amount of nodes in use; the node arrays have room for a rebuild.
+     */
+    private BoundingVolumeHierarchy(double[] primitiveBounds, int[] order,
+                                    double[] bounds, int[] offsets, int[] counts, byte[] axes, int nodeCount) {
+        this.primitiveBounds = primitiveBounds;
+        this.centroids = null;
+        this.order = order;
+        this.bounds = bounds;
+        this.offsets = offsets;
+        this.counts = counts;
+        this.axes = axes;
+        this.nodeCount = nodeCount;
+        this.builtCost = cost();
+    }
+
+    /**
+     * Gets the amount of primitives in the hierarchy.
+     *
+     * @return The amount of primitives.
+     */
+    int getPrimitiveCount() {
+        return order.length;
+    }
+
+    /**
+     * Gets the amount of nodes in the hierarchy.
+     *
+     * @return The amount of nodes.
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Calculates the amount of bytes {@link #write(ByteBuffer)} takes.
+     *
+     * @return The size of the written hierarchy in bytes.
+     */
+    int getByteSize() {
+        return Integer.BYTES * order.length + nodeCount * (6 * Double.BYTES + 2 * Integer.BYTES + 1);
+    }
+
+    /**
+     * Writes the nodes and the primitive order of the hierarchy to a buffer.
+     * The primitive boxes are not written, since the owner always has them.
+     *
+     * @param buffer The buffer to write to.
+     */
+    void write(ByteBuffer buffer) {
+        for (int p : order) buffer.putInt(p);
+        for (int i = 0; i < 6 * nodeCount; i++) buffer.putDouble(bounds[i]);
+        for (int node = 0; node < nodeCount; node++) buffer.putInt(offsets[node]);
+        for (int node = 0; node < nodeCount; node++) buffer.putInt(counts[node]);
+        buffer.put(axes, 0, nodeCount);
+    }
+
+    /**
+     * Reads back a hierarchy written by {@link #write(ByteBuffer)}, checking that its structure is sound.
+     *
+     * @param buffer          The buffer to read from.
+     * @param primitiveBounds The boxes of the primitives the hierarchy was built over.
+     * @param nodeCount       The amount of nodes written.
+     * @return The hierarchy.
+     * @throws IllegalArgumentException if the data does not make a valid hierarchy over the primitives.
+     */
+    static BoundingVolumeHierarchy read(ByteBuffer buffer, double[] primitiveBounds, int nodeCount) {
+        int n = primitiveBounds.length / 6;
+        if (n == 0 || nodeCount < 1 || nodeCount > 2 * n - 1)
+            throw new IllegalArgumentException("Bad node count " + nodeCount + " for " + n + " primitives");
+
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int p = buffer.getInt();
+            if (p < 0 || p >= n || seen[p])
+                throw new IllegalArgumentException("The primitive order is not a permutation");
+            seen[p] = true;
+            order[i] = p;
+        }
+        int maxNodes = 2 * n - 1;
+        double[] bounds = new double[6 * maxNodes];
+        for (int i = 0; i < 6 * nodeCount; i++) bounds[i] = buffer.getDouble();
+        int[] offsets = new int[maxNodes];
+        for (int node = 0; node < nodeCount; node++) offsets[node] = buffer.getInt();
+        int[] counts = new int[maxNodes];
+        for (int node = 0; node < nodeCount; node++) counts[node] = buffer.getInt();
+        byte[] axes = new byte[maxNodes];
+        buffer.get(axes, 0, nodeCount);
+
+        for (int node = 0; node < nodeCount; node++) {
+            boolean valid = counts[node] == 0
+                    ? node + 1 < nodeCount && offsets[node] > node + 1 && offsets[node] < nodeCount
+                    && axes[node] >= 0 && axes[node] < 3
+                    : counts[node] > 0 && offsets[node] >= 0 && offsets[node] <= n - counts[node];
+            if (!valid) throw new IllegalArgumentException("Bad node " + node);
+        }
+        return new BoundingVolumeHierarchy(primitiveBounds, order, bounds, offsets, counts, axes, nodeCount);
+    }
+
+    /**
+     * Gets the bounding box of the whole hierarchy.
+     *
+     * @return The bounding box of the root node.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(bounds[0], bounds[1], bounds[2], bounds[3], bounds[4], bounds[5]);
+    }
+
+    /**
+     * Builds the tree again from the current primitive boxes.
+     */
+    private void rebuild() {
+        int n = order.length;
+        if (centroids == null) centroids = new double[3 * n];
+        for (int i = 0; i < n; i++)
+            for (int axis = 0; axis < 3; axis++)
+                centroids[3 * i + axis] = (primitiveBounds[6 * i + axis] + primitiveBounds[6 * i + 3 + axis]) / 2;
+        nodeCount = 0;
+        build(0, n, 0);
+        builtCost = cost();
+    }
+
+    /**
+     * Updates the tree after primitives moved, keeping its structure and only growing or shrinking the node
+     * boxes around the new primitive boxes (written by the owner into the array the tree was built over).
+     * A refit is much cheaper than a build, but the tree degrades as primitives drift away from their
+     * neighbours; when its cost grows past {@link #REBUILD_RATIO} times the cost it was built with,
+     * it is rebuilt instead.
+     * The tree must not be queried while it is refitted.
+     *
+     * @return {@code true} if the tree was rebuilt, {@code false} if refitting was enough.
+     */
+    boolean refit() {
+        // children always come after their parent, so a backward pass sees them first
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            setEmpty(bounds, 6 * node);
+            int count = counts[node];
+            if (count == 0) {
+                grow(bounds, 6 * node, bounds, 6 * (node + 1));
+                grow(bounds, 6 * node, bounds, 6 * offsets[node]);
+            } else {
+                for (int i = offsets[node], end = offsets[node] + count; i < end; i++)
+                    grow(bounds, 6 * node, primitiveBounds, 6 * order[i]);
+            }
+        }
+        if (cost() <= REBUILD_RATIO * builtCost) return false;
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Calculates the surface area heuristic cost of the tree: the expected work of a random ray
+     * that hits the root, counting node visits and primitive tests.
+     *
+     * @return The cost of the tree.
+     */
+    double cost() {
+        double rootArea = surfaceArea(bounds, 0);
+        if (rootArea <= 0) rootArea = 1;
+        double cost = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            double area = surfaceArea(bounds, 6 * node) / rootArea;
+            cost += counts[node] == 0 ? TRAVERSAL_COST * area : counts[node] * area;
+        }
+        return cost;
+    }
+
+    /**
+     * Recursively builds the subtree over a range of the primitive order array.
+     *
+     * @param start The first position of the range.
+     * @param end   The position after the last one of the range.
+     * @param depth The depth of the new node.
+     * @return The index of the new node.
+     */
+    private int build(int start, int end, int depth) {
+        int node = nodeCount++;
+        int count = end - start;
+
+        // node bounds and centroid bounds
+        double[] centroidBounds = {
+                Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        setEmpty(bounds, 6 * node);
+        for (int i = start; i < end; i++) {
+            int p = order[i];
+            grow(bounds, 6 * node, primitiveBounds, 6 * p);
+            for (int axis = 0; axis < 3; axis++) {
+                double c = centroids[3 * p + axis];
+                if (c < centroidBounds[axis]) centroidBounds[axis] = c;
+                if (c > centroidBounds[3 + axis]) centroidBounds[3 + axis] = c;
+            }
+        }
+
+        if (count <= MIN_SPLIT_SIZE || depth >= MAX_DEPTH)
+            return makeLeaf(node, start, count);
+
+        // evaluate the binned SAH on every axis
+        double nodeArea = surfaceArea(bounds, 6 * node);
+        if (nodeArea <= 0) nodeArea = 1; // degenerate node: compare the primitive counts only
+        double bestCost = Double.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestBin = -1;
+        int[] binCounts = new int[BINS];
+        double[] binBounds = new double[6 * BINS];
+        double[] rightAreas = new double[BINS];
+        double[] box = new double[6];
+        for (int axis = 0; axis < 3; axis++) {
+            double cMin = centroidBounds[axis];
+            double extent = centroidBounds[3 + axis] - cMin;
+            if (extent <= 0) continue;
+
+            Arrays.fill(binCounts, 0);
+            for (int b = 0; b < BINS; b++) setEmpty(binBounds, 6 * b);
+            for (int i = start; i < end; i++) {
+                int p = order[i];
+                int b = bin(centroids[3 * p + axis], cMin, extent);
+                binCounts[b]++;
+                grow(binBounds, 6 * b, primitiveBounds, 6 * p);
+            }
+
+            // sweep from the right to get the area of every right side
+            setEmpty(box, 0);
+            for (int b = BINS - 1; b > 0; b--) {
+                grow(box, 0, binBounds, 6 * b);
+                rightAreas[b] = surfaceArea(box, 0);
+            }
+            // sweep from the left, the split is after bin b
+            setEmpty(box, 0);
+            int leftCount = 0;
+            for (int b = 0; b < BINS - 1; b++) {
+                grow(box, 0, binBounds, 6 * b);
+                leftCount += binCounts[b];
+                int rightCount = count - leftCount;
+                if (leftCount == 0 || rightCount == 0) continue;
+                double cost = TRAVERSAL_COST
+                        + (surfaceArea(box, 0) * leftCount + rightAreas[b + 1] * rightCount) / nodeArea;
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = b;
+                }
+            }
+        }
+
+        // all centroids coincide, or a leaf is cheaper than the best split
+        if (bestAxis < 0 || (bestCost >= count && count <= MAX_LEAF_SIZE))
+            return makeLeaf(node, start, count);
+
+        // partition the range by the chosen bin
+        double cMin = centroidBounds[bestAxis];
+        double extent = centroidBounds[3 + bestAxis] - cMin;
+        int mid = start;
+        for (int i = start; i < end; i++) {
+            int p = order[i];
+            if (bin(centroids[3 * p + bestAxis], cMin, extent) <= bestBin) {
+                order[i] = order[mid];
+                order[mid++] = p;
+            }
+        }
+
+        counts[node] = 0;
+        axes[node] = (byte) bestAxis;
+        build(start, mid, depth + 1);
+        offsets[node] = build(mid, end, depth + 1);
+        return node;
+    }
+
+    /**
+     * Turns a node into a leaf over a range of the primitive order array.
+     *
+     * @param node  The node index.
+     * @param start The first position of the range.
+     * @param count The amount of primitives in the range.
+     * @return The node index.
+     */
+    private int makeLeaf(int node, int start, int count) {
+        offsets[node] = start;
+        counts[node] = count;
+        return node;
+    }
+
+    /**
+     * Finds the centroid bin of a coordinate along the split axis.
+     *
+     * @param c      The centroid coordinate.
+     * @param cMin   The minimal centroid coordinate of the node.
+     * @param extent The extent of the centroids of the node.
+     * @return The bin index.
+     */
+    private static int bin(double c, double cMin, double extent) {
+        int b = (int) ((c - cMin) / extent * BINS);
+        return b >= BINS ? BINS - 1 : b;
+    }
+
+    /**
+     * Gets one component of a triad.
+     *
+     * @param d    The triad.
+     * @param axis The axis index: 0 for x, 1 for y and 2 for z.
+     * @return The component along the axis.
+     */
+    private static double component(Double3 d, int axis) {
+        return axis == 0 ? d.getD1() : axis == 1 ? d.getD2() : d.getD3();
+    }
+
+    /**
+     * Resets a box in a flat array to the empty box.
+     *
+     * @param box    The array of boxes.
+     * @param offset The offset of the box in the array.
+     */
+    private static void setEmpty(double[] box, int offset) {
+        for (int axis = 0; axis < 3; axis++) {
+            box[offset + axis] = Double.POSITIVE_INFINITY;
+            box[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Grows a box in a flat array to contain another one.
+     *
+     * @param box         The array of the box to grow.
+     * @param offset      The offset of the box to grow.
+     * @param other       The array of the box to contain.
+     * @param otherOffset The offset of the box to contain.
+     */
+    private static void grow(double[] box, int offset, double[] other, int otherOffset) {
+        for (int axis = 0; axis < 3; axis++) {
+            if (other[otherOffset + axis] < box[offset + axis]) box[offset + axis] = other[otherOffset + axis];
+            if (other[otherOffset + 3 + axis] > box[offset + 3 + axis])
+                box[offset + 3 + axis] = other[otherOffset + 3 + axis];
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box in a flat array.
+     *
+     * @param box    The array of boxes.
+     * @param offset The offset of the box in the array.
+     * @return The surface area of the box.
+     */
+    private static double surfaceArea(double[] box, int offset) {
+        double dx = box[offset + 3] - box[offset];
+        double dy = box[offset + 4] - box[offset + 1];
+        double dz = box[offset + 5] - box[offset + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Checks whether a ray enters the box of a node closer than a given distance.
+     *
+     * @param node        The node index.
+     * @param ray         The ray to test.
+     * @param maxDistance The distance along the ray beyond which hits are ignored.
+     * @return {@code true} if the ray enters the node's box, {@code false} otherwise.
+     */
+    private boolean hits(int node, Ray ray, double maxDistance) {
+        Double3 o = ray.getHead().getXyz();
+        Double3 inv = ray.getInverseDirection();
+        int b = 6 * node;
+        return BoundingBox.intersects(bounds[b], bounds[b + 1], bounds[b + 2], bounds[b + 3], bounds[b + 4], bounds[b + 5],
+                o.getD1(), o.getD2(), o.getD3(), inv.getD1(), inv.getD2(), inv.getD3(), maxDistance);
+    }
+
+    /**
+     * Finds all the intersections of a ray with the indexed primitives.
+     *
+     * @param ray        The ray to intersect.
+     * @param primitives The primitives the hierarchy was built over.
+     * @param res        A list to add the intersections to, or {@code null} to create one when needed.
+     * @return The list of intersections, or {@code null} if there are none and no list was given.
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, Primitives primitives, List<GeoPoint> res) {
+        return findGeoIntersections(0, ray, primitives, res);
+    }
+
+    /**
+     * Finds all the intersections of a ray with the primitives of a subtree.
+     *
+     * @param node       The root of the subtree.
+     * @param ray        The ray to intersect.
+     * @param primitives The primitives the hierarchy was built over.
+     * @param res        A list to add the intersections to, or {@code null} to create one when needed.
+     * @return The list of intersections, or {@code null} if there are none and no list was given.
+     */
+    private List<GeoPoint> findGeoIntersections(int node, Ray ray, Primitives primitives, List<GeoPoint> res) {
+        if (!hits(node, ray, Double.POSITIVE_INFINITY)) return res;
+
+        int count = counts[node];
+        if (count == 0) {
+            res = findGeoIntersections(node + 1, ray, primitives, res);
+            return findGeoIntersections(offsets[node], ray, primitives, res);
+        }
+
+        for (int i = offsets[node], end = offsets[node] + count; i < end; i++) {
+            List<GeoPoint> geoPoints = primitives.findGeoIntersections(order[i], ray);
+            if (geoPoints != null) {
+                if (res == null) res = new LinkedList<>();
+                res.addAll(geoPoints);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the indexed primitives, nearer than a given distance.
+     * Children are visited front to back and the search distance shrinks with every hit found,
+     * so most of the tree behind the first hit is never entered.
+     *
+     * @param ray         The ray to intersect.
+     * @param primitives  The primitives the hierarchy was built over.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, Primitives primitives, double maxDistance) {
+        return findClosestGeoIntersection(0, ray, primitives, maxDistance);
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the primitives of a subtree.
+     *
+     * @param node        The root of the subtree.
+     * @param ray         The ray to intersect.
+     * @param primitives  The primitives the hierarchy was built over.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    private GeoPoint findClosestGeoIntersection(int node, Ray ray, Primitives primitives, double maxDistance) {
+        if (!hits(node, ray, maxDistance)) return null;
+
+        GeoPoint closest = null;
+        int count = counts[node];
+        if (count == 0) {
+            // the left child holds the lower coordinates along the split axis
+            int near = node + 1;
+            int far = offsets[node];
+            if (component(ray.getInverseDirection(), axes[node]) < 0) {
+                near = far;
+                far = node + 1;
+            }
+            closest = findClosestGeoIntersection(near, ray, primitives, maxDistance);
+            if (closest != null) maxDistance = ray.getHead().distance(closest.point);
+            GeoPoint farHit = findClosestGeoIntersection(far, ray, primitives, maxDistance);
+            return farHit != null ? farHit : closest;
+        }
+
+        for (int i = offsets[node], end = offsets[node] + count; i < end; i++) {
+            GeoPoint hit = primitives.findClosestGeoIntersection(order[i], ray, maxDistance);
+            if (hit != null) {
+                closest = hit;
+                maxDistance = ray.getHead().distance(hit.point);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the transparency along a shadow ray through the indexed primitives, up to the light.
+     * The traversal stops as soon as an opaque primitive blocks the ray.
+     *
+     * @param ray         The shadow ray.
+     * @param primitives  The primitives the hierarchy was built over.
+     * @param maxDistance The distance from the ray head to the light.
+     * @param ktr         The transparency accumulated so far.
+     * @return The accumulated transparency, {@link Double3#ZERO} if the ray is blocked.
+     */
+    @Override
+    public Double3 findTransparency(Ray ray, Primitives primitives, double maxDistance, Double3 ktr) {
+        return findTransparency(0, ray, primitives, maxDistance, ktr);
+    }
+
+    /**
+     * Finds the transparency along a shadow ray through the primitives of a subtree.
+     *
+     * @param node        The root of the subtree.
+     * @param ray         The shadow ray.
+     * @param primitives  The primitives the hierarchy was built over.
+     * @param maxDistance The distance from the ray head to the light.
+     * @param ktr         The transparency accumulated so far.
+     * @return The accumulated transparency, {@link Double3#ZERO} if the ray is blocked.
+     */
+    private Double3 findTransparency(int node, Ray ray, Primitives primitives, double maxDistance, Double3 ktr) {
+        if (!hits(node, ray, maxDistance)) return ktr;
+
+        int count = counts[node];
+        if (count == 0) {
+            ktr = findTransparency(node + 1, ray, primitives, maxDistance, ktr);
+            return ktr == Double3.ZERO ? ktr : findTransparency(offsets[node], ray, primitives, maxDistance, ktr);
+        }
+
+        for (int i = offsets[node], end = offsets[node] + count; i < end; i++) {
+            Double3 kT = primitives.findTransparency(order[i], ray, maxDistance);
+            if (kT != Double3.ONE) {
+                ktr = ktr == Double3.ONE ? kT : ktr.product(kT);
+                if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+            }
+        }
+        return ktr;
+    }
+}
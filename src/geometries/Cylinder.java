@@ -7,6 +7,8 @@ import primitives.*;
  * The cylinder is defined by its radius, axis, and height.
  */
 public class Cylinder extends Tube {
+    private static final long serialVersionUID = 1L;
+
     private final double height; // The height of the cylinder
 
     public Cylinder(double radius, Ray axis, double height) {
@@ -23,4 +25,25 @@ public class Cylinder extends Tube {
 
         return null; // Currently returns null as the normal calculation is not implemented for a cylinder
     }
+
+    /**
+     * The box of a cylinder encloses its two base discs.
+     * A disc of radius r around an axis with unit direction d reaches r * sqrt(1 - d_i^2) along axis i.
+     *
+     * @return The bounding box of the cylinder.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        Double3 base = axis.getHead().getXyz();
+        Double3 top = axis.getPoint(height).getXyz();
+        Double3 d = axis.getDirection().getXyz();
+        double ex = radius * Math.sqrt(Math.max(0, 1 - d.getD1() * d.getD1()));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - d.getD2() * d.getD2()));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - d.getD3() * d.getD3()));
+        return new BoundingBox(
+                Math.min(base.getD1(), top.getD1()) - ex, Math.min(base.getD2(), top.getD2()) - ey,
+                Math.min(base.getD3(), top.getD3()) - ez,
+                Math.max(base.getD1(), top.getD1()) + ex, Math.max(base.getD2(), top.getD2()) + ey,
+                Math.max(base.getD3(), top.getD3()) + ez);
+    }
 }
@@ -1,19 +1,69 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Ray;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The {@code Geometries} class represents a collection of intersectable geometries.
  * It implements the {@code Intersectable} interface, allowing it to find intersections
  * with a given ray.
+ * By default the ray queries go through a spatial index (a bounding volume hierarchy) that is built once,
+ * on the first query after the collection changes.
+ * A serialized collection leaves its index and cache directory behind, and builds the index again where it is read.
+ * A collection nested in others, or copied by {@link Instance}s, tells them whenever it changes,
+ * so their boxes and indexes are updated as well.
  */
 public class Geometries extends Intersectable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The ways a collection can answer its ray queries.
+     */
+    public enum Acceleration {
+        /** Test every ray against every geometry, in insertion order */
+        NONE,
+        /** Use a surface area heuristic bounding volume hierarchy over the bounded geometries */
+        BVH,
+        /** Use a uniform grid over the bounded geometries, for dense and evenly spread scenes */
+        GRID
+    }
 
     // List to store intersectable geometries
-    private final List<Intersectable> lst = new LinkedList<>();
+    @SuppressWarnings("serial") // an ArrayList of serializable geometries
+    private final List<Intersectable> lst = new ArrayList<>();
+
+    // The way ray queries are answered
+    private Acceleration acceleration = Acceleration.BVH;
+
+    // The spatial index over the geometries, built on demand and dropped whenever the collection changes
+    private transient volatile Index index = null;
+
+    // Where to keep the built hierarchy between runs, or null to always build it
+    private transient Path cacheDirectory = null;
+
+    // The box around all the geometries, calculated on demand and dropped whenever the collection changes
+    private transient volatile BoundingBox boundingBox = null;
+
+    // The geometries that moved since the index was built or last refitted
+    private transient Set<Intersectable> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Whether geometries moved, so the index must be refitted before the next query
+    private transient volatile boolean stale = false;
+
+    // The collections this collection was added to and the instances copying it, told whenever it changes
+    private transient Set<Intersectable> parents = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**
      * Default constructor for the Geometries class.
@@ -36,16 +86,175 @@ public class Geometries extends Intersectable {
      */
     public void add(Intersectable... geometries) {
         Collections.addAll(lst, geometries);
+        for (Intersectable in : geometries) in.addedTo(this);
+        index = null;
+        boundingBox = null;
+        parentsChanged();
+    }
+
+    @Override
+    void addedTo(Geometries parent) {
+        addParent(parent);
+    }
+
+    /**
+     * Remembers a collection this collection was added to, or an instance copying it.
+     *
+     * @param parent The collection holding this one, or the instance copying it.
+     */
+    void addParent(Intersectable parent) {
+        synchronized (parents) {
+            parents.add(parent);
+        }
+    }
+
+    /**
+     * Tells the collections holding this one, and the instances copying it, that it changed.
+     */
+    private void parentsChanged() {
+        List<Intersectable> holders;
+        synchronized (parents) {
+            holders = new ArrayList<>(parents);
+        }
+        for (Intersectable parent : holders) parent.childChanged(this);
+    }
+
+    /**
+     * Updates the collection after a nested collection or an instance in it changed: its box is calculated again,
+     * and its index is refitted around the new box of the changed geometry on the next query.
+     *
+     * @param child The nested collection or instance that changed.
+     */
+    @Override
+    void childChanged(Intersectable child) {
+        synchronized (this) {
+            if (index != null) moved.add(child);
+            boundingBox = null;
+            stale = !moved.isEmpty();
+        }
+        parentsChanged();
+    }
+
+    /**
+     * Marks a geometry of the collection, or of a collection nested in it, as moved.
+     * Instead of being built again, the index is refitted around the new boxes on the next query,
+     * and only rebuilt if refitting degraded it too much. Geometries must not move while rendering.
+     *
+     * @param geometry The geometry that moved.
+     * @return {@code true} if the geometry is in the collection, {@code false} otherwise.
+     */
+    public boolean markMoved(Intersectable geometry) {
+        boolean found = false;
+        synchronized (this) {
+            for (Intersectable in : lst) {
+                if (in == geometry || in instanceof Geometries nested && nested.markMoved(geometry)) {
+                    if (index != null) moved.add(in);
+                    found = true;
+                }
+            }
+            if (found) {
+                boundingBox = null;
+                stale = !moved.isEmpty();
+            }
+        }
+        if (found) parentsChanged();
+        return found;
+    }
+
+    /**
+     * Reads a serialized collection, without moved geometries since it has no index yet,
+     * and links its nested collections and instances back to it.
+     *
+     * @param in The stream to read from.
+     * @throws IOException            if the stream cannot be read.
+     * @throws ClassNotFoundException if a class of the collection is not found.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        parents = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Intersectable geometry : lst) geometry.addedTo(this);
+    }
+
+    /**
+     * Sets the way the collection answers ray queries.
+     * {@link Acceleration#NONE} falls back to testing every geometry, for comparison.
+     *
+     * @param acceleration The acceleration to use.
+     * @return The geometries collection itself.
+     */
+    public Geometries setAcceleration(Acceleration acceleration) {
+        this.acceleration = acceleration;
+        index = null;
+        return this;
+    }
+
+    /**
+     * Sets a directory to keep the bounding volume hierarchy in, so a static scene is not indexed again
+     * on every run. The file of a collection is named after a hash of the boxes of its geometries,
+     * and a stale or corrupt file is rebuilt.
+     *
+     * @param cacheDirectory The cache directory, or {@code null} to always build the hierarchy.
+     * @return The geometries collection itself.
+     */
+    public Geometries setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        index = null;
+        return this;
+    }
+
+    /**
+     * Gets the way the collection answers ray queries.
+     *
+     * @return The acceleration in use.
+     */
+    public Acceleration getAcceleration() {
+        return acceleration;
+    }
+
+    /**
+     * The bounding box of a collection is the union of the boxes of all its geometries.
+     * It is calculated once and kept until the collection changes.
+     *
+     * @return The box around all the geometries, {@link BoundingBox#UNBOUNDED} if any of them is infinite,
+     * or {@link BoundingBox#EMPTY} if the collection is empty.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = boundingBox;
+        if (box == null) {
+            box = BoundingBox.EMPTY;
+            for (Intersectable in : lst)
+                box = box.union(in.getBoundingBox());
+            boundingBox = box;
+        }
+        return box;
+    }
+
+    /**
+     * Prepares the geometries of the collection, and builds its spatial index unless it is not used.
+     */
+    @Override
+    public void prepare() {
+        for (Intersectable in : lst) in.prepare();
+        if (acceleration != Acceleration.NONE) getIndex();
     }
 
     /**
      * Finds intersections of a given ray with the collection of geometries.
+     * A ray that misses the box of the whole collection is rejected before any geometry is tested.
      *
      * @param ray The ray for which intersections are to be found.
      * @return A list of intersection points, or {@code null} if no intersections occur.
      */
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        BoundingBox box = getBoundingBox();
+        if (!box.isUnbounded() && !box.intersects(ray, Double.POSITIVE_INFINITY)) return null;
+
+        if (acceleration != Acceleration.NONE)
+            return getIndex().findGeoIntersections(ray);
+
         List<GeoPoint> res = null;
 
         for (Intersectable in : lst) {
@@ -57,4 +266,241 @@ public class Geometries extends Intersectable {
         }
         return res;
     }
+
+    /**
+     * Finds the closest intersection of a given ray with the collection, nearer than a given distance.
+     * The search distance shrinks with every hit found, and no list of intersections is built.
+     *
+     * @param ray         The ray for which the closest intersection is to be found.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        BoundingBox box = getBoundingBox();
+        if (!box.isUnbounded() && !box.intersects(ray, maxDistance)) return null;
+
+        if (acceleration != Acceleration.NONE)
+            return getIndex().findClosestGeoIntersection(ray, maxDistance);
+
+        GeoPoint closest = null;
+        for (int i = 0; i < lst.size(); i++) {
+            GeoPoint hit = lst.get(i).findClosestGeoIntersection(ray, maxDistance);
+            if (hit != null) {
+                closest = hit;
+                maxDistance = ray.getHead().distance(hit.point);
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the transparency along a shadow ray through the collection, up to the light.
+     * The search stops at the first opaque geometry found.
+     *
+     * @param ray         The shadow ray.
+     * @param maxDistance The distance from the ray head to the light.
+     * @return The transparency along the ray, {@link Double3#ZERO} if the ray is blocked.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        BoundingBox box = getBoundingBox();
+        if (!box.isUnbounded() && !box.intersects(ray, maxDistance)) return Double3.ONE;
+
+        if (acceleration != Acceleration.NONE)
+            return getIndex().findTransparency(ray, maxDistance);
+
+        Double3 ktr = Double3.ONE;
+        for (int i = 0; i < lst.size(); i++) {
+            ktr = multiply(ktr, lst.get(i).findTransparency(ray, maxDistance));
+            if (ktr == Double3.ZERO) return ktr;
+        }
+        return ktr;
+    }
+
+    /**
+     * Multiplies two transparencies, without allocating when either of them lets all the light through.
+     *
+     * @param ktr The transparency accumulated so far.
+     * @param kT  The transparency to add.
+     * @return The product, exactly {@link Double3#ZERO} if the light is fully blocked.
+     */
+    private static Double3 multiply(Double3 ktr, Double3 kT) {
+        if (kT == Double3.ONE) return ktr;
+        if (ktr == Double3.ONE) ktr = kT;
+        else ktr = ktr.product(kT);
+        return ktr.equals(Double3.ZERO) ? Double3.ZERO : ktr;
+    }
+
+    /**
+     * Gets the spatial index over the geometries, building it if the collection changed since the last query.
+     * Rendering threads share the collection, so the build runs once under a lock.
+     *
+     * @return The spatial index.
+     */
+    private Index getIndex() {
+        Index i = index;
+        if (i == null || stale) {
+            synchronized (this) {
+                i = index;
+                if (stale) {
+                    if (i != null && !i.refit(moved)) index = i = null;
+                    moved.clear();
+                    stale = false;
+                }
+                if (i == null) index = i = new Index(lst, acceleration, cacheDirectory);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * A spatial index over the bounded geometries of a collection.
+     * Unbounded geometries (e.g. planes) cannot be placed in the index and are tested on every query,
+     * and empty ones can never be hit, so they are left out.
+     */
+    private static final class Index implements SpatialIndex.Primitives {
+        private final Intersectable[] unbounded; // Geometries with an unbounded box
+        private final Intersectable[] bounded;   // Geometries in the index
+        private final double[] boxes;            // The boxes of the bounded geometries, as the index sees them
+        private final SpatialIndex accelerator;  // The index, or null if there are no bounded geometries
+        private Map<Intersectable, Integer> positions = null; // Where every bounded geometry is, made on the first refit
+
+        /**
+         * Builds the index over the given geometries.
+         *
+         * @param geometries     The geometries to index.
+         * @param acceleration   The kind of index to build.
+         * @param cacheDirectory Where to keep a built hierarchy between runs, or null.
+         */
+        Index(List<Intersectable> geometries, Acceleration acceleration, Path cacheDirectory) {
+            List<Intersectable> unboundedList = new ArrayList<>();
+            List<Intersectable> boundedList = new ArrayList<>();
+            for (Intersectable in : geometries) {
+                BoundingBox box = in.getBoundingBox();
+                if (box.isUnbounded()) unboundedList.add(in);
+                else if (!box.isEmpty()) boundedList.add(in);
+            }
+            unbounded = unboundedList.toArray(new Intersectable[0]);
+            bounded = boundedList.toArray(new Intersectable[0]);
+
+            boxes = new double[6 * bounded.length];
+            for (int i = 0; i < bounded.length; i++) setBox(i, bounded[i].getBoundingBox());
+            if (bounded.length == 0) accelerator = null;
+            else if (acceleration == Acceleration.GRID) accelerator = new UniformGrid(boxes);
+            else if (cacheDirectory != null) accelerator = HierarchyCache.load(cacheDirectory, boxes);
+            else accelerator = new BoundingVolumeHierarchy(boxes);
+        }
+
+        /**
+         * Writes the box of a bounded geometry into the flat boxes the index sees.
+         *
+         * @param i   The position of the geometry.
+         * @param box The box of the geometry.
+         */
+        private void setBox(int i, BoundingBox box) {
+            for (int axis = 0; axis < 3; axis++) {
+                boxes[6 * i + axis] = box.getMin(axis);
+                boxes[6 * i + 3 + axis] = box.getMax(axis);
+            }
+        }
+
+        /**
+         * Updates the index after some geometries moved, refitting the hierarchy around their new boxes.
+         *
+         * @param moved The geometries that moved.
+         * @return {@code true} if the index is up to date, {@code false} if it must be built again
+         * (a grid, or a geometry that became unbounded, empty or bounded).
+         */
+        boolean refit(Set<Intersectable> moved) {
+            if (!(accelerator instanceof BoundingVolumeHierarchy bvh)) return false;
+            if (positions == null) {
+                positions = new IdentityHashMap<>();
+                for (int i = 0; i < bounded.length; i++) positions.put(bounded[i], i);
+            }
+            for (Intersectable in : moved) {
+                BoundingBox box = in.getBoundingBox();
+                Integer i = positions.get(in);
+                if (i == null) {
+                    // an unbounded geometry that stays unbounded is tested on every query anyway
+                    if (!box.isUnbounded() || !Arrays.asList(unbounded).contains(in)) return false;
+                } else {
+                    if (box.isUnbounded() || box.isEmpty()) return false;
+                    setBox(i, box);
+                }
+            }
+            bvh.refit();
+            return true;
+        }
+
+        @Override
+        public List<GeoPoint> findGeoIntersections(int index, Ray ray) {
+            return bounded[index].findGeoIntersections(ray);
+        }
+
+        @Override
+        public GeoPoint findClosestGeoIntersection(int index, Ray ray, double maxDistance) {
+            return bounded[index].findClosestGeoIntersection(ray, maxDistance);
+        }
+
+        @Override
+        public Double3 findTransparency(int index, Ray ray, double maxDistance) {
+            return bounded[index].findTransparency(ray, maxDistance);
+        }
+
+        /**
+         * Finds the intersections of a ray with all the indexed geometries.
+         *
+         * @param ray The ray to intersect.
+         * @return A list of intersection points, or {@code null} if no intersections occur.
+         */
+        List<GeoPoint> findGeoIntersections(Ray ray) {
+            List<GeoPoint> res = null;
+            for (Intersectable in : unbounded) {
+                var geoPoints = in.findGeoIntersections(ray);
+                if (geoPoints != null) {
+                    if (res == null) res = new LinkedList<>();
+                    res.addAll(geoPoints);
+                }
+            }
+            return accelerator == null ? res : accelerator.findGeoIntersections(ray, this, res);
+        }
+
+        /**
+         * Finds the closest intersection of a ray with the indexed geometries, nearer than a given distance.
+         *
+         * @param ray         The ray to intersect.
+         * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+         * @return The closest intersection point, or {@code null} if there is none.
+         */
+        GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+            GeoPoint closest = null;
+            for (Intersectable in : unbounded) {
+                GeoPoint hit = in.findClosestGeoIntersection(ray, maxDistance);
+                if (hit != null) {
+                    closest = hit;
+                    maxDistance = ray.getHead().distance(hit.point);
+                }
+            }
+            if (accelerator == null) return closest;
+            GeoPoint hit = accelerator.findClosestGeoIntersection(ray, this, maxDistance);
+            return hit != null ? hit : closest;
+        }
+
+        /**
+         * Finds the transparency along a shadow ray through the indexed geometries, up to the light.
+         *
+         * @param ray         The shadow ray.
+         * @param maxDistance The distance from the ray head to the light.
+         * @return The transparency along the ray, {@link Double3#ZERO} if the ray is blocked.
+         */
+        Double3 findTransparency(Ray ray, double maxDistance) {
+            Double3 ktr = Double3.ONE;
+            for (Intersectable in : unbounded) {
+                ktr = multiply(ktr, in.findTransparency(ray, maxDistance));
+                if (ktr == Double3.ZERO) return ktr;
+            }
+            return accelerator == null ? ktr : accelerator.findTransparency(ray, this, maxDistance, ktr);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import primitives.*;
  * at a specified point on the shape.
  */
 public abstract class Geometry extends Intersectable {
+    private static final long serialVersionUID = 1L;
 
     /**
      * The color of the geometry
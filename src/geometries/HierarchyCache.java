@@ -0,0 +1,170 @@
+package geometries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An on-disk cache of built bounding volume hierarchies, so static scenes are not indexed again on every run.
+ * A hierarchy is saved as a flat binary file named after a hash of the primitive boxes it was built over,
+ * and read back through a memory mapped file.
+ * A file that does not match its boxes, or fails its checksum or structure checks, is rebuilt and replaced.
+ * <p>
+ * File layout: magic, format version, the 32 byte hash, the primitive and node counts,
+ * the hierarchy arrays, and a CRC32 of everything before it.
+ */
+final class HierarchyCache {
+    /**
+     * The first bytes of every cache file ("BVHC").
+     */
+    private static final int MAGIC = 0x42564843;
+    /**
+     * The version of the file layout and of the hierarchy build; files of other versions are rebuilt.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the header: magic, version, hash, primitive count and node count.
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 32 + 2 * Integer.BYTES;
+
+    private static final Logger logger = Logger.getLogger("HierarchyCache");
+
+    /**
+     * No instances, only static methods.
+     */
+    private HierarchyCache() { }
+
+    /**
+     * Gets the hierarchy over the given primitive boxes from the cache directory,
+     * building it and saving it there if there is no valid cache file for these boxes.
+     * Failing to save is logged and otherwise ignored, since the cache is only an optimization.
+     *
+     * @param directory       The cache directory.
+     * @param primitiveBounds 6 coordinates per primitive: min x,y,z then max x,y,z.
+     * @return The hierarchy.
+     */
+    static BoundingVolumeHierarchy load(Path directory, double[] primitiveBounds) {
+        byte[] key = hash(primitiveBounds);
+        Path file = directory.resolve(HexFormat.of().formatHex(key) + ".bvh");
+        if (Files.isRegularFile(file)) {
+            try {
+                return read(file, key, primitiveBounds);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Rebuilding stale or corrupt hierarchy cache " + file + ": " + e);
+            }
+        }
+
+        BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(primitiveBounds);
+        try {
+            write(file, key, bvh);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not save hierarchy cache " + file, e);
+        }
+        return bvh;
+    }
+
+    /**
+     * Calculates the cache key of a set of primitive boxes.
+     *
+     * @param primitiveBounds The flat primitive boxes.
+     * @return The SHA-256 hash of the boxes.
+     */
+    static byte[] hash(double[] primitiveBounds) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer chunk = ByteBuffer.allocate(8 * 1024);
+            for (double d : primitiveBounds) {
+                if (!chunk.hasRemaining()) {
+                    digest.update(chunk.flip());
+                    chunk.clear();
+                }
+                chunk.putDouble(d);
+            }
+            digest.update(chunk.flip());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Reads a hierarchy from a cache file.
+     *
+     * @param file            The cache file.
+     * @param key             The hash of the primitive boxes.
+     * @param primitiveBounds The flat primitive boxes.
+     * @return The hierarchy.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not hold a valid hierarchy over the boxes.
+     */
+    private static BoundingVolumeHierarchy read(Path file, byte[] key, double[] primitiveBounds) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Long.BYTES || size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Bad file size " + size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - Long.BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES))
+                throw new IllegalArgumentException("Checksum mismatch");
+
+            if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not a hierarchy cache file");
+            if (buffer.getInt() != VERSION) throw new IllegalArgumentException("Other format version");
+            byte[] fileKey = new byte[key.length];
+            buffer.get(fileKey);
+            if (!Arrays.equals(key, fileKey)) throw new IllegalArgumentException("Built over other geometry");
+            if (buffer.getInt() != primitiveBounds.length / 6)
+                throw new IllegalArgumentException("Other primitive count");
+            int nodeCount = buffer.getInt();
+
+            BoundingVolumeHierarchy bvh = BoundingVolumeHierarchy.read(buffer, primitiveBounds, nodeCount);
+            if (buffer.position() != size - Long.BYTES) throw new IllegalArgumentException("Bad file size " + size);
+            return bvh;
+        }
+    }
+
+    /**
+     * Writes a hierarchy to a cache file.
+     * The file is written aside and then moved into place, so readers never see a partial file.
+     *
+     * @param file The cache file.
+     * @param key  The hash of the primitive boxes.
+     * @param bvh  The hierarchy.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void write(Path file, byte[] key, BoundingVolumeHierarchy bvh) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bvh.getByteSize() + Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).put(key);
+        buffer.putInt(bvh.getPrimitiveCount()).putInt(bvh.getNodeCount());
+        bvh.write(buffer);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "bvh", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
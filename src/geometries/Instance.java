@@ -0,0 +1,336 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static primitives.Util.alignZero;
+
+/**
+ * A placed copy of a shared geometry (e.g. a {@link Geometries} sub-scene or a {@link TriangleMesh}),
+ * moved into the scene by an affine transformation.
+ * Rays are brought into the object space of the shared geometry, so any number of instances share
+ * one copy of it and of its spatial index; an instance only costs its transformation.
+ * Instances placed in a {@link Geometries} collection are indexed by their world boxes,
+ * which makes a two level index: the collection over the instances, and each shared geometry over its parts.
+ * The world box follows the shared geometry; when a shared {@link Geometries} changes,
+ * the collections holding its instances are told, so their indexes are refitted.
+ * <p>
+ * By default hits keep the material and emission of the shared geometry; setting either on the instance
+ * overrides it for all the parts of this copy.
+ */
+public class Instance extends Geometry {
+    private static final long serialVersionUID = 1L;
+
+    private final Intersectable prototype;  // The shared geometry, in its own object space
+    private Transform transform;            // From object space to world space
+    private transient BoundingBox objectBox;   // The box of the shared geometry the world box was calculated from
+    private transient BoundingBox boundingBox; // The world box of the copy
+    private boolean materialOverride = false; // Whether the instance material replaces the shared one
+    private boolean emissionOverride = false; // Whether the instance emission replaces the shared one
+    // The collections holding the instance, told whenever the shared geometry changes
+    private transient Set<Geometries> holders = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Constructs an instance of a shared geometry.
+     *
+     * @param prototype The shared geometry, in its own object space.
+     * @param transform The transformation from object space to world space.
+     */
+    public Instance(Intersectable prototype, Transform transform) {
+        this.prototype = prototype;
+        this.transform = transform;
+    }
+
+    /**
+     * Calculates the world box around a box in object space.
+     *
+     * @param box       The box in object space.
+     * @param transform The transformation from object space to world space.
+     * @return The box around the 8 transformed corners.
+     */
+    private static BoundingBox transformBox(BoundingBox box, Transform transform) {
+        if (box.isUnbounded() || box.isEmpty()) return box;
+        Point[] corners = new Point[8];
+        for (int i = 0; i < 8; i++) {
+            corners[i] = transform.transform(new Point(
+                    (i & 1) == 0 ? box.getMin(0) : box.getMax(0),
+                    (i & 2) == 0 ? box.getMin(1) : box.getMax(1),
+                    (i & 4) == 0 ? box.getMin(2) : box.getMax(2)));
+        }
+        return BoundingBox.of(corners);
+    }
+
+    /**
+     * Gets the shared geometry of the instance.
+     *
+     * @return The shared geometry.
+     */
+    public Intersectable getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Gets the placement of the instance.
+     *
+     * @return The transformation from object space to world space.
+     */
+    public Transform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Moves the copy to a new placement.
+     * A collection holding the instance must be told with {@link Geometries#markMoved(Intersectable)}
+     * (or {@link scene.Scene#move(Instance, Transform)}) so its index follows.
+     *
+     * @param transform The new transformation from object space to world space.
+     * @return The instance itself.
+     */
+    public Instance setTransform(Transform transform) {
+        synchronized (this) {
+            this.transform = transform;
+            objectBox = null;
+        }
+        return this;
+    }
+
+    /**
+     * Sets a material for all the parts of this copy, instead of their own materials.
+     *
+     * @param material the material of the copy
+     * @return the instance itself
+     */
+    @Override
+    public Instance setMaterial(Material material) {
+        super.setMaterial(material);
+        materialOverride = true;
+        return this;
+    }
+
+    /**
+     * Sets an emission for all the parts of this copy, instead of their own emissions.
+     *
+     * @param emission the color of the copy
+     * @return the instance itself
+     */
+    @Override
+    public Instance setEmission(Color emission) {
+        super.setEmission(emission);
+        emissionOverride = true;
+        return this;
+    }
+
+    /**
+     * Finds the normal at a point of the copy, when the shared geometry is a single geometry.
+     * Hits on a copy of a collection carry the part they hit, and shade with its normal.
+     *
+     * @param p A point on the copy.
+     * @return The world normal at the point.
+     * @throws IllegalArgumentException if the shared geometry is a collection.
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        if (!(prototype instanceof Geometry geometry))
+            throw new IllegalArgumentException("The normal of a collection instance is carried by its intersections");
+        return transform.transformNormal(geometry.getNormal(transform.inverseTransform(p)));
+    }
+
+    /**
+     * The box of a copy is the box around the transformed box of the shared geometry.
+     * It is calculated again whenever the shared geometry has another box, or the copy moved.
+     *
+     * @return The world box of the copy.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = prototype.getBoundingBox();
+        synchronized (this) {
+            if (box != objectBox) {
+                boundingBox = transformBox(box, transform);
+                objectBox = box;
+            }
+            return boundingBox;
+        }
+    }
+
+    @Override
+    void addedTo(Geometries parent) {
+        synchronized (holders) {
+            holders.add(parent);
+        }
+        if (prototype instanceof Geometries shared) shared.addParent(this);
+    }
+
+    /**
+     * Tells the collections holding the instance that its shared geometry changed,
+     * so they refit their indexes around its new box.
+     *
+     * @param child The shared geometry.
+     */
+    @Override
+    void childChanged(Intersectable child) {
+        List<Geometries> parents;
+        synchronized (holders) {
+            parents = new ArrayList<>(holders);
+        }
+        for (Geometries parent : parents) parent.childChanged(this);
+    }
+
+    /**
+     * Reads a serialized instance, whose holders link themselves back to it as they are read.
+     *
+     * @param in The stream to read from.
+     * @throws IOException            if the stream cannot be read.
+     * @throws ClassNotFoundException if a class of the instance is not found.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        holders = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    @Override
+    public void prepare() {
+        prototype.prepare();
+    }
+
+    /**
+     * Brings a world ray into the object space of the shared geometry.
+     *
+     * @param ray The ray in world space.
+     * @return The ray in object space.
+     */
+    private Ray toObject(Ray ray) {
+        return new Ray(transform.inverseTransform(ray.getHead()), transform.inverseTransformDirection(ray.getDirection()));
+    }
+
+    /**
+     * Converts a distance along a world ray to the matching distance along the ray in object space.
+     *
+     * @param ray      The ray in world space.
+     * @param distance The distance in world space.
+     * @return The distance in object space.
+     */
+    private double toObjectDistance(Ray ray, double distance) {
+        return Double.isInfinite(distance) ? distance
+                : distance * transform.inverseTransformDirection(ray.getDirection()).length();
+    }
+
+    /**
+     * Brings a hit in object space back to world space.
+     *
+     * @param gp The hit in object space.
+     * @return The hit in world space, carrying the part of the shared geometry that was hit.
+     */
+    private GeoPoint toWorld(GeoPoint gp) {
+        return new GeoPoint(new Part(gp.geometry), transform.transform(gp.point));
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        List<GeoPoint> intersections = prototype.findGeoIntersections(toObject(ray));
+        if (intersections == null) return null;
+        List<GeoPoint> res = new LinkedList<>();
+        for (GeoPoint gp : intersections) res.add(toWorld(gp));
+        return res;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        GeoPoint gp = prototype.findClosestGeoIntersection(toObject(ray), toObjectDistance(ray, maxDistance));
+        return gp == null ? null : toWorld(gp);
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        Ray objectRay = toObject(ray);
+        double objectDistance = toObjectDistance(ray, maxDistance);
+        if (!materialOverride) return prototype.findTransparency(objectRay, objectDistance);
+
+        // every crossing of the copy lets through the transparency of the instance material
+        Double3 kT = getMaterial().kT;
+        if (kT.equals(Double3.ZERO))
+            return prototype.findClosestGeoIntersection(objectRay, objectDistance) == null ? Double3.ONE : Double3.ZERO;
+        List<GeoPoint> intersections = prototype.findGeoIntersections(objectRay);
+        if (intersections == null) return Double3.ONE;
+        Double3 ktr = Double3.ONE;
+        for (GeoPoint gp : intersections)
+            if (alignZero(gp.point.distance(objectRay.getHead()) - objectDistance) <= 0)
+                ktr = ktr.product(kT);
+        return ktr;
+    }
+
+    /**
+     * A part of the shared geometry as hit on this copy, created only for a hit.
+     * It shades with the world normal of the part, and with the material and emission of the part
+     * unless the instance overrides them.
+     */
+    private final class Part extends Geometry {
+        private static final long serialVersionUID = 1L;
+
+        private final Geometry geometry; // The part of the shared geometry, in object space
+
+        /**
+         * Constructs a hit part of the copy.
+         *
+         * @param geometry The part of the shared geometry that was hit.
+         */
+        Part(Geometry geometry) {
+            this.geometry = geometry;
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return transform.transformNormal(geometry.getNormal(transform.inverseTransform(p)));
+        }
+
+        @Override
+        public Color getEmission() {
+            return emissionOverride ? Instance.this.getEmission() : geometry.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return materialOverride ? Instance.this.getMaterial() : geometry.getMaterial();
+        }
+
+        @Override
+        public BoundingBox getBoundingBox() {
+            return transformBox(geometry.getBoundingBox(), transform);
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            List<GeoPoint> intersections = geometry.findGeoIntersections(toObject(ray));
+            if (intersections == null) return null;
+            List<GeoPoint> res = new LinkedList<>();
+            for (GeoPoint gp : intersections) res.add(new GeoPoint(this, transform.transform(gp.point)));
+            return res;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Part other && other.instance() == Instance.this && other.geometry.equals(geometry);
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(Instance.this) * 31 + geometry.hashCode();
+        }
+
+        /**
+         * @return the instance of this part
+         */
+        private Instance instance() {
+            return Instance.this;
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 
+import static primitives.Util.alignZero;
+
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * The {@code Intersectable} interface represents an object that can be intersected by a ray.
  * Implementing classes must provide a method to find intersections with a given ray.
  */
-public abstract class Intersectable {
+public abstract class Intersectable implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /**
      * Finds intersections of the object with a given ray.
@@ -34,6 +39,123 @@ public abstract class Intersectable {
 
     protected abstract List<GeoPoint> findGeoIntersectionsHelper(Ray ray);
 
+    /**
+     * Finds the closest intersection of the object with a ray.
+     *
+     * @param ray The ray for which the closest intersection is to be found.
+     * @return The closest intersection point, or {@code null} if no intersection occurs.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersectionHelper(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the closest intersection of the object with a ray, nearer to the ray head than a given distance.
+     * Unlike {@link #findGeoIntersections(Ray)} it returns a single point and builds no list.
+     *
+     * @param ray         The ray for which the closest intersection is to be found.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point nearer than {@code maxDistance}, or {@code null} if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * Finds the closest intersection nearer than a given distance.
+     * The default picks it from the full list of intersections; geometries override it with a direct
+     * calculation that allocates nothing when the ray misses.
+     *
+     * @param ray         The ray for which the closest intersection is to be found.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point nearer than {@code maxDistance}, or {@code null} if there is none.
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray);
+        if (intersections == null) return null;
+
+        GeoPoint closest = null;
+        double closestDistance = maxDistance * maxDistance;
+        for (GeoPoint gp : intersections) {
+            double distance = ray.getHead().distanceSquared(gp.point);
+            if (distance < closestDistance) {
+                closest = gp;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Finds how much light passes along a ray through the object, up to a given distance.
+     * This is the occlusion query of shadow rays: the result is the product of the transparency
+     * coefficients (kT) of every intersection up to the distance, and the search stops at the first opaque one.
+     *
+     * @param ray         The shadow ray, from the shaded point towards the light.
+     * @param maxDistance The distance from the ray head to the light; intersections beyond it do not block.
+     * @return The transparency along the ray: {@link Double3#ONE} if nothing blocks it,
+     * {@link Double3#ZERO} if an opaque geometry does.
+     */
+    public final Double3 findTransparency(Ray ray, double maxDistance) {
+        return findTransparencyHelper(ray, maxDistance);
+    }
+
+    /**
+     * Finds the transparency along a ray up to a given distance.
+     * The default multiplies the coefficients over the full list of intersections; geometries override it
+     * with a direct calculation that allocates nothing when the ray misses.
+     *
+     * @param ray         The shadow ray, from the shaded point towards the light.
+     * @param maxDistance The distance from the ray head to the light; intersections beyond it do not block.
+     * @return The transparency along the ray.
+     */
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> intersections = findGeoIntersectionsHelper(ray);
+        if (intersections == null) return Double3.ONE;
+
+        Double3 ktr = Double3.ONE;
+        for (GeoPoint gp : intersections) {
+            if (alignZero(gp.point.distance(ray.getHead()) - maxDistance) <= 0) {
+                ktr = ktr.product(gp.geometry.getMaterial().kT);
+                if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+            }
+        }
+        return ktr;
+    }
+
+    /**
+     * Gets the axis-aligned box that encloses the object, used to place it in a spatial index
+     * and to reject rays that pass far away from it.
+     *
+     * @return The bounding box of the object, {@link BoundingBox#UNBOUNDED} if the object is infinite,
+     * or {@link BoundingBox#EMPTY} if it contains nothing.
+     */
+    public abstract BoundingBox getBoundingBox();
+
+    /**
+     * Builds the data the object answers ray queries with, such as a spatial index, ahead of the first query,
+     * so rendering threads do not wait for it. Objects without such data do nothing.
+     */
+    public void prepare() {
+    }
+
+    /**
+     * Called when the object is added to a collection. Objects that may change after that, such as nested
+     * collections and copies of them, remember the collection to tell it; other objects do nothing.
+     *
+     * @param parent The collection the object was added to.
+     */
+    void addedTo(Geometries parent) {
+    }
+
+    /**
+     * Updates the object after a geometry it holds or copies changed. Objects holding no geometries do nothing.
+     *
+     * @param child The geometry that changed.
+     */
+    void childChanged(Intersectable child) {
+    }
+
     /**
      * A class to represent a point in a 3D space.
      * It contains a {@code Geometry} object and a {@code Point} object.
@@ -12,6 +12,8 @@ import static primitives.Util.alignZero;
  * The plane implements the Geometry interface.
  */
 public class Plane extends Geometry {
+    private static final long serialVersionUID = 1L;
+
     private final Point q; // A point on the plane
     private final Vector normal; // The normal vector to the plane
 
@@ -69,6 +71,64 @@ public class Plane extends Geometry {
         return this.normal;
     }
 
+    /**
+     * A plane is infinite, so it is marked as unbounded.
+     *
+     * @return {@link BoundingBox#UNBOUNDED}
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return BoundingBox.UNBOUNDED;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the plane without building a list.
+     *
+     * @param ray         The ray for which the intersection point is to be found.
+     * @param maxDistance The distance from the ray head beyond which the intersection is ignored.
+     * @return The intersection point, or {@code null} if there is none nearer than {@code maxDistance}.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && t < maxDistance ? new GeoPoint(this, ray.getPoint(t)) : null;
+    }
+
+    /**
+     * Finds the transparency of the plane along a shadow ray without building a list.
+     *
+     * @param ray         The shadow ray.
+     * @param maxDistance The distance from the ray head to the light.
+     * @return The transparency coefficient of the plane if the ray crosses it before the light, {@link Double3#ONE} otherwise.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        double t = findIntersectionDistance(ray);
+        return t > 0 && alignZero(t - maxDistance) <= 0 ? getMaterial().kT : Double3.ONE;
+    }
+
+    /**
+     * Calculates the distance along a ray to the plane, straight from the coordinates and without allocating.
+     * It follows the same rules as {@link #findGeoIntersectionsHelper(Ray)}.
+     *
+     * @param ray The ray to intersect.
+     * @return The distance from the ray head to the plane, or 0 if the ray does not hit the plane.
+     */
+    double findIntersectionDistance(Ray ray) {
+        Double3 n = normal.getXyz();
+        Double3 p0 = ray.getHead().getXyz();
+        Double3 v = ray.getDirection().getXyz();
+
+        double nv = n.getD1() * v.getD1() + n.getD2() * v.getD2() + n.getD3() * v.getD3();
+        //if the ray is parallel or orthogonal
+        if (nv == 0 || nv == 1) return 0;
+
+        Double3 p = q.getXyz();
+        double t = alignZero((n.getD1() * (p.getD1() - p0.getD1()) + n.getD2() * (p.getD2() - p0.getD2())
+                + n.getD3() * (p.getD3() - p0.getD3())) / nv);
+        return t > 0 ? t : 0;
+    }
+
     /**
      * Finds the intersection point of a ray with a plane using the parametric equation.
      *
@@ -2,8 +2,10 @@ package geometries;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -14,7 +16,10 @@ import primitives.Vector;
  * @author Dan
  */
 public class Polygon extends Geometry {
+   private static final long serialVersionUID = 1L;
+
    /** List of polygon's vertices */
+   @SuppressWarnings("serial") // a list of serializable points
    protected List<Point> vertices;
    /** Associated plane in which the polygon lays */
    protected final Plane       plane;
@@ -82,6 +87,40 @@ public class Polygon extends Geometry {
 
    public Vector getNormal(Point point) { return plane.getNormal(); }
 
+   @Override
+   public BoundingBox getBoundingBox() { return BoundingBox.of(vertices.toArray(new Point[0])); }
+
+   /**
+    * Finds the closest intersection of a ray with the polygon.
+    * The distance to the plane is checked first, so rays that miss the plane or
+    * hit it too far away are rejected without allocating.
+    * @param  ray         the ray to intersect
+    * @param  maxDistance the distance from the ray head beyond which the intersection is ignored
+    * @return             the intersection point, or {@code null} if there is none nearer than {@code maxDistance}
+    */
+   @Override
+   protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+      double t = plane.findIntersectionDistance(ray);
+      if (t <= 0 || t >= maxDistance) return null;
+      List<GeoPoint> intersections = findGeoIntersectionsHelper(ray);
+      return intersections == null ? null : intersections.getFirst();
+   }
+
+   /**
+    * Finds the transparency of the polygon along a shadow ray.
+    * Rays that miss the plane, or cross it beyond the light, are rejected without allocating.
+    * @param  ray         the shadow ray
+    * @param  maxDistance the distance from the ray head to the light
+    * @return             the transparency coefficient of the polygon if the ray crosses it before the light,
+    *                     {@link Double3#ONE} otherwise
+    */
+   @Override
+   protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+      double t = plane.findIntersectionDistance(ray);
+      if (t <= 0 || alignZero(t - maxDistance) > 0) return Double3.ONE;
+      return findGeoIntersectionsHelper(ray) == null ? Double3.ONE : getMaterial().kT;
+   }
+
    @Override
    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray){
       List<Point> intersections = plane.findIntersections(ray);
@@ -5,6 +5,8 @@ package geometries;
  * This class serves as a base for geometrical shapes that have radial properties, such as circles or spheres.
  */
 abstract class RadialGeometry extends Geometry {
+    private static final long serialVersionUID = 1L;
+
     protected double radius; // The radius of the radial geometry
 
     public RadialGeometry(double radius) {
@@ -0,0 +1,88 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.List;
+
+/**
+ * A spatial index over a set of bounded primitives, which answers the ray queries of its owner
+ * without testing every primitive.
+ * The index only knows the primitives by index; the owner answers the per-primitive queries.
+ */
+interface SpatialIndex {
+
+    /**
+     * The primitives of an index, as seen by its traversal.
+     */
+    interface Primitives {
+        /**
+         * Finds the intersections of a ray with one primitive.
+         *
+         * @param index The index of the primitive, as numbered at build time.
+         * @param ray   The ray to intersect.
+         * @return A list of intersection points, or {@code null} if there are none.
+         */
+        List<GeoPoint> findGeoIntersections(int index, Ray ray);
+
+        /**
+         * Finds the closest intersection of a ray with one primitive, nearer than a given distance.
+         *
+         * @param index       The index of the primitive, as numbered at build time.
+         * @param ray         The ray to intersect.
+         * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+         * @return The closest intersection point, or {@code null} if there is none.
+         */
+        GeoPoint findClosestGeoIntersection(int index, Ray ray, double maxDistance);
+
+        /**
+         * Finds the transparency of one primitive along a shadow ray.
+         *
+         * @param index       The index of the primitive, as numbered at build time.
+         * @param ray         The shadow ray.
+         * @param maxDistance The distance from the ray head to the light.
+         * @return The transparency of the primitive along the ray.
+         */
+        Double3 findTransparency(int index, Ray ray, double maxDistance);
+    }
+
+    /**
+     * Gets the bounding box of all the indexed primitives.
+     *
+     * @return The box around the primitives.
+     */
+    BoundingBox getBoundingBox();
+
+    /**
+     * Finds all the intersections of a ray with the indexed primitives.
+     *
+     * @param ray        The ray to intersect.
+     * @param primitives The primitives the index was built over.
+     * @param res        A list to add the intersections to, or {@code null} to create one when needed.
+     * @return The list of intersections, or {@code null} if there are none and no list was given.
+     */
+    List<GeoPoint> findGeoIntersections(Ray ray, Primitives primitives, List<GeoPoint> res);
+
+    /**
+     * Finds the closest intersection of a ray with the indexed primitives, nearer than a given distance.
+     *
+     * @param ray         The ray to intersect.
+     * @param primitives  The primitives the index was built over.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point, or {@code null} if there is none.
+     */
+    GeoPoint findClosestGeoIntersection(Ray ray, Primitives primitives, double maxDistance);
+
+    /**
+     * Finds the transparency along a shadow ray through the indexed primitives, up to the light.
+     * The search stops as soon as an opaque primitive blocks the ray.
+     *
+     * @param ray         The shadow ray.
+     * @param primitives  The primitives the index was built over.
+     * @param maxDistance The distance from the ray head to the light.
+     * @param ktr         The transparency accumulated so far.
+     * @return The accumulated transparency, {@link Double3#ZERO} if the ray is blocked.
+     */
+    Double3 findTransparency(Ray ray, Primitives primitives, double maxDistance, Double3 ktr);
+}
@@ -5,11 +5,15 @@ import primitives.*;
 import java.util.LinkedList;
 import java.util.List;
 
+import static primitives.Util.alignZero;
+
 /**
  * Represents a sphere in a three-dimensional (3D) space, a type of radial geometry defined by a radius and a center point.
  * The sphere extends the RadialGeometry abstract class.
  */
 public class Sphere extends RadialGeometry {
+    private static final long serialVersionUID = 1L;
+
     private final Point center; // The center point of the sphere
 
     public Sphere(double radius, Point center) {
@@ -24,6 +28,71 @@ public class Sphere extends RadialGeometry {
         return p.subtract(center).normalize();
     }
 
+    @Override
+    public BoundingBox getBoundingBox() {
+        Double3 c = center.getXyz();
+        return new BoundingBox(c.getD1() - radius, c.getD2() - radius, c.getD3() - radius,
+                c.getD1() + radius, c.getD2() + radius, c.getD3() + radius);
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the sphere straight from the coordinates,
+     * so that a ray that misses the sphere allocates nothing.
+     *
+     * @param ray         The ray for which the closest intersection is to be found.
+     * @param maxDistance The distance from the ray head beyond which intersections are ignored.
+     * @return The closest intersection point, or {@code null} if there is none nearer than {@code maxDistance}.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Double3 c = center.getXyz();
+        Double3 p0 = ray.getHead().getXyz();
+        Double3 v = ray.getDirection().getXyz();
+
+        double lx = c.getD1() - p0.getD1();
+        double ly = c.getD2() - p0.getD2();
+        double lz = c.getD3() - p0.getD3();
+        double tm = v.getD1() * lx + v.getD2() * ly + v.getD3() * lz;
+        double d2 = lx * lx + ly * ly + lz * lz - tm * tm;
+        double r2 = radius * radius;
+        if (d2 >= r2) return null;
+
+        double th = Math.sqrt(r2 - Math.max(0, d2));
+        double t = tm - th > 0 ? tm - th : tm + th;
+        if (t <= 0 || t >= maxDistance) return null;
+        return new GeoPoint(this, ray.getPoint(t));
+    }
+
+    /**
+     * Finds the transparency of the sphere along a shadow ray straight from the coordinates.
+     * The coefficient is applied once for every crossing of the surface before the light.
+     *
+     * @param ray         The shadow ray.
+     * @param maxDistance The distance from the ray head to the light.
+     * @return The transparency of the sphere along the ray, {@link Double3#ONE} if the ray misses it.
+     */
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        Double3 c = center.getXyz();
+        Double3 p0 = ray.getHead().getXyz();
+        Double3 v = ray.getDirection().getXyz();
+
+        double lx = c.getD1() - p0.getD1();
+        double ly = c.getD2() - p0.getD2();
+        double lz = c.getD3() - p0.getD3();
+        double tm = v.getD1() * lx + v.getD2() * ly + v.getD3() * lz;
+        double d2 = lx * lx + ly * ly + lz * lz - tm * tm;
+        double r2 = radius * radius;
+        if (d2 >= r2) return Double3.ONE;
+
+        double th = Math.sqrt(r2 - Math.max(0, d2));
+        Double3 ktr = Double3.ONE;
+        Double3 kT = getMaterial().kT;
+        if (tm - th > 0 && alignZero(tm - th - maxDistance) <= 0) ktr = kT;
+        if (tm + th > 0 && alignZero(tm + th - maxDistance) <= 0) ktr = ktr == Double3.ONE ? kT : ktr.product(kT);
+        return ktr;
+    }
+
     /**
      * Finds intersections of a ray with a sphere using the formulas provided from the slides.
      *
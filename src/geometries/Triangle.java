@@ -4,10 +4,18 @@ import primitives.*;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
 /**
  * Represents a Triangle, a type of Polygon, defined by three points.
  */
 public class Triangle extends Polygon {
+    private static final long serialVersionUID = 1L;
+
+    private final double ax, ay, az;    // The first vertex
+    private final double e1x, e1y, e1z; // The edge from the first vertex to the second
+    private final double e2x, e2y, e2z; // The edge from the first vertex to the third
 
     /**
      * Constructs a Triangle object with three specified points.
@@ -18,6 +26,16 @@ public class Triangle extends Polygon {
      */
     public Triangle(Point a, Point b, Point c) {
         super(a, b, c);
+        Double3 p = a.getXyz(), q = b.getXyz(), r = c.getXyz();
+        ax = p.getD1();
+        ay = p.getD2();
+        az = p.getD3();
+        e1x = q.getD1() - p.getD1();
+        e1y = q.getD2() - p.getD2();
+        e1z = q.getD3() - p.getD3();
+        e2x = r.getD1() - p.getD1();
+        e2y = r.getD2() - p.getD2();
+        e2z = r.getD3() - p.getD3();
     }
 
     /**
@@ -38,36 +56,108 @@ public class Triangle extends Polygon {
      * @return A list of GeoPoints representing the intersections of the ray with the triangle
      */
     @Override
-    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray){
-        List<Point> intersections = plane.findIntersections(ray);
-        // If there are no intersections with the plane, return null
-        if (intersections == null) return null;
-
-        // Extracting vectors for vertices and calculating normal vectors
-        Vector rayDirection = ray.getDirection();
-        Vector v1 = vertices.get(0).subtract(ray.getHead());
-        Vector v2 = vertices.get(1).subtract(ray.getHead());
-        Vector v3 = vertices.get(2).subtract(ray.getHead());
-
-        Vector n1 = (v1.crossProduct(v2)).normalize();
-        Vector n2 = (v2.crossProduct(v3)).normalize();
-        Vector n3 = (v3.crossProduct(v1)).normalize();
-
-        // Dot products to determine if the intersection point is inside the triangle
-        double res1 = rayDirection.dotProduct(n1);
-        double res2 = rayDirection.dotProduct(n2);
-        double res3 = rayDirection.dotProduct(n3);
-
-        // If any dot product is zero, return null
-        if (res1 == 0 || res2 == 0 || res3 == 0)
-            return null;
-
-        // If all dot products have the same sign, the point is inside the triangle
-        if ((res1 > 0 && res2 > 0 && res3 > 0) || (res1 < 0 && res2 < 0 && res3 < 0))
-            return List.of(new GeoPoint(this, intersections.getFirst()));
-        else
-            return null;
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        Hit hit = findHit(ray);
+        return hit == null ? null : List.of(new GeoPoint(this, ray.getPoint(hit.distance)));
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Hit hit = findHit(ray);
+        return hit == null || hit.distance >= maxDistance ? null : new GeoPoint(this, ray.getPoint(hit.distance));
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        Hit hit = findHit(ray);
+        return hit == null || alignZero(hit.distance - maxDistance) > 0 ? Double3.ONE : getMaterial().kT;
+    }
+
+    /**
+     * Finds where a ray hits the triangle, as a distance along the ray and barycentric coordinates.
+     * A hit on an edge or a vertex does not count.
+     *
+     * @param ray The ray to intersect.
+     * @return The hit, or {@code null} if the ray misses the triangle.
+     */
+    public Hit findHit(Ray ray) {
+        return intersect(ax, ay, az, e1x, e1y, e1z, e2x, e2y, e2z, ray);
+    }
+
+    /**
+     * Intersects a ray with a triangle given by a vertex and its two edges from that vertex,
+     * using the Möller–Trumbore algorithm. Nothing is allocated unless the ray hits the triangle.
+     * A hit on an edge or a vertex does not count.
+     *
+     * @param ax  The x coordinate of the first vertex.
+     * @param ay  The y coordinate of the first vertex.
+     * @param az  The z coordinate of the first vertex.
+     * @param e1x The x component of the edge from the first vertex to the second.
+     * @param e1y The y component of the edge from the first vertex to the second.
+     * @param e1z The z component of the edge from the first vertex to the second.
+     * @param e2x The x component of the edge from the first vertex to the third.
+     * @param e2y The y component of the edge from the first vertex to the third.
+     * @param e2z The z component of the edge from the first vertex to the third.
+     * @param ray The ray to intersect.
+     * @return The hit, or {@code null} if the ray misses the triangle.
+     */
+    static Hit intersect(double ax, double ay, double az,
+                         double e1x, double e1y, double e1z,
+                         double e2x, double e2y, double e2z, Ray ray) {
+        Double3 o = ray.getHead().getXyz();
+        Double3 d = ray.getDirection().getXyz();
+
+        // p = d x e2
+        double px = d.getD2() * e2z - d.getD3() * e2y;
+        double py = d.getD3() * e2x - d.getD1() * e2z;
+        double pz = d.getD1() * e2y - d.getD2() * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return null; // the ray is parallel to the triangle
+        double inv = 1 / det;
+
+        double sx = o.getD1() - ax, sy = o.getD2() - ay, sz = o.getD3() - az;
+        double u = (sx * px + sy * py + sz * pz) * inv;
+        if (u <= 0 || u >= 1) return null;
+
+        // q = s x e1
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (d.getD1() * qx + d.getD2() * qy + d.getD3() * qz) * inv;
+        if (v <= 0 || u + v >= 1) return null;
+
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+        return t > 0 ? new Hit(t, u, v) : null;
+    }
+
+    /**
+     * A hit of a ray on a triangle.
+     * The barycentric coordinates {@code u} and {@code v} are the weights of the second and third vertices,
+     * and {@code 1 - u - v} is the weight of the first one.
+     */
+    public static class Hit {
+        /** The distance from the ray head to the hit */
+        public final double distance;
+        /** The weight of the second vertex */
+        public final double u;
+        /** The weight of the third vertex */
+        public final double v;
+
+        /**
+         * Constructs a hit.
+         *
+         * @param distance The distance from the ray head to the hit.
+         * @param u        The weight of the second vertex.
+         * @param v        The weight of the third vertex.
+         */
+        public Hit(double distance, double u, double v) {
+            this.distance = distance;
+            this.u = u;
+            this.v = v;
+        }
 
+        @Override
+        public String toString() {
+            return "Hit{" + distance + ", u=" + u + ", v=" + v + "}";
+        }
     }
 
 }
@@ -0,0 +1,334 @@
+package geometries;
+
+import primitives.*;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * Represents a mesh of triangles that share their vertices, with one material and emission for the whole mesh.
+ * The vertex positions are kept in a flat array of coordinates and the triangles in an index buffer,
+ * so a triangle costs three indices instead of a {@link Triangle} object graph.
+ * Ray queries run directly on these arrays through a bounding volume hierarchy over the triangles,
+ * built on the first query.
+ */
+public class TriangleMesh extends Geometry {
+    private static final long serialVersionUID = 1L;
+
+    private final double[] positions; // 3 coordinates per vertex
+    private final int[] indices;      // 3 vertex indices per triangle
+    private final double[] triangleBounds; // 6 coordinates per triangle: min x,y,z then max x,y,z
+    private final BoundingBox boundingBox; // The box around all the triangles
+    private transient Path cacheDirectory = null; // Where to keep the built hierarchy between runs, or null
+    private transient volatile BoundingVolumeHierarchy bvh = null; // The hierarchy over the triangles, built on the first query
+    private final Triangles triangles = new Triangles(); // The triangles as seen by the hierarchy
+
+    /**
+     * Constructs a mesh from vertex coordinates and a triangle index buffer.
+     *
+     * @param positions The vertex coordinates, 3 per vertex (x, y, z).
+     * @param indices   The vertex indices of the triangles, 3 per triangle.
+     * @throws IllegalArgumentException if the arrays are not made of triads, or an index is out of range.
+     */
+    public TriangleMesh(double[] positions, int[] indices) {
+        if (positions.length % 3 != 0)
+            throw new IllegalArgumentException("Vertex positions must come in triads of coordinates");
+        if (indices.length % 3 != 0)
+            throw new IllegalArgumentException("Triangle indices must come in triads of vertices");
+        int vertices = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertices)
+                throw new IllegalArgumentException("Triangle index " + index + " is not a vertex of the mesh");
+
+        this.positions = positions;
+        this.indices = indices;
+
+        int count = indices.length / 3;
+        double[] boxes = new double[6 * count];
+        BoundingBox box = BoundingBox.EMPTY;
+        for (int tri = 0; tri < count; tri++) {
+            for (int axis = 0; axis < 3; axis++) {
+                double a = positions[3 * indices[3 * tri] + axis];
+                double b = positions[3 * indices[3 * tri + 1] + axis];
+                double c = positions[3 * indices[3 * tri + 2] + axis];
+                boxes[6 * tri + axis] = Math.min(a, Math.min(b, c));
+                boxes[6 * tri + 3 + axis] = Math.max(a, Math.max(b, c));
+            }
+            box = box.union(new BoundingBox(boxes[6 * tri], boxes[6 * tri + 1], boxes[6 * tri + 2],
+                    boxes[6 * tri + 3], boxes[6 * tri + 4], boxes[6 * tri + 5]));
+        }
+        triangleBounds = boxes;
+        boundingBox = box;
+    }
+
+    /**
+     * Constructs a mesh from single precision vertex coordinates and a triangle index buffer.
+     *
+     * @param positions The vertex coordinates, 3 per vertex (x, y, z).
+     * @param indices   The vertex indices of the triangles, 3 per triangle.
+     * @throws IllegalArgumentException if the arrays are not made of triads, or an index is out of range.
+     */
+    public TriangleMesh(float[] positions, int[] indices) {
+        this(widen(positions), indices);
+    }
+
+    /**
+     * Constructs a mesh from vertex points and a triangle index buffer.
+     *
+     * @param vertices The vertices of the mesh.
+     * @param indices  The vertex indices of the triangles, 3 per triangle.
+     * @throws IllegalArgumentException if the indices are not made of triads, or an index is out of range.
+     */
+    public TriangleMesh(Point[] vertices, int[] indices) {
+        this(flatten(vertices), indices);
+    }
+
+    /**
+     * Converts single precision coordinates to double precision.
+     *
+     * @param values The single precision coordinates.
+     * @return The same coordinates in double precision.
+     */
+    private static double[] widen(float[] values) {
+        double[] res = new double[values.length];
+        for (int i = 0; i < values.length; i++) res[i] = values[i];
+        return res;
+    }
+
+    /**
+     * Copies the coordinates of points into a flat array.
+     *
+     * @param points The points.
+     * @return 3 coordinates per point.
+     */
+    private static double[] flatten(Point[] points) {
+        double[] res = new double[3 * points.length];
+        for (int i = 0; i < points.length; i++) {
+            Double3 xyz = points[i].getXyz();
+            res[3 * i] = xyz.getD1();
+            res[3 * i + 1] = xyz.getD2();
+            res[3 * i + 2] = xyz.getD3();
+        }
+        return res;
+    }
+
+    /**
+     * Gets the amount of triangles in the mesh.
+     *
+     * @return The amount of triangles.
+     */
+    public int getTriangleCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Calculates the unit normal of one triangle of the mesh, by the order of its vertices.
+     *
+     * @param tri The index of the triangle.
+     * @return The normal of the triangle.
+     */
+    public Vector getNormal(int tri) {
+        int a = 3 * indices[3 * tri], b = 3 * indices[3 * tri + 1], c = 3 * indices[3 * tri + 2];
+        Vector e1 = new Vector(positions[b] - positions[a], positions[b + 1] - positions[a + 1], positions[b + 2] - positions[a + 2]);
+        Vector e2 = new Vector(positions[c] - positions[a], positions[c + 1] - positions[a + 1], positions[c + 2] - positions[a + 2]);
+        return e1.crossProduct(e2).normalize();
+    }
+
+    /**
+     * Finds the normal at a point of the mesh by searching for the triangle that contains it.
+     * Ray hits carry their triangle, so the shading never goes through this search.
+     *
+     * @param p A point on the mesh.
+     * @return The normal of the triangle that contains the point.
+     * @throws IllegalArgumentException if the point is not on the mesh.
+     */
+    @Override
+    public Vector getNormal(Point p) {
+        Double3 xyz = p.getXyz();
+        for (int tri = 0; tri < getTriangleCount(); tri++) {
+            Vector n = getNormal(tri);
+            int a = 3 * indices[3 * tri];
+            Double3 nXyz = n.getXyz();
+            double d = (xyz.getD1() - positions[a]) * nXyz.getD1() + (xyz.getD2() - positions[a + 1]) * nXyz.getD2()
+                    + (xyz.getD3() - positions[a + 2]) * nXyz.getD3();
+            if (isZero(d) && intersect(tri, new Ray(p.add(n), n.scale(-1))) > 0)
+                return n;
+        }
+        throw new IllegalArgumentException("The point is not on the mesh");
+    }
+
+    /**
+     * Sets a directory to keep the hierarchy over the triangles in, so it is read back instead of
+     * being built again when the same mesh is loaded on a later run.
+     *
+     * @param cacheDirectory The cache directory, or {@code null} to always build the hierarchy.
+     * @return The mesh itself.
+     */
+    public TriangleMesh setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        return this;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    @Override
+    protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+        BoundingVolumeHierarchy h = getHierarchy();
+        return h == null ? null : h.findGeoIntersections(ray, triangles, null);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        BoundingVolumeHierarchy h = getHierarchy();
+        return h == null ? null : h.findClosestGeoIntersection(ray, triangles, maxDistance);
+    }
+
+    @Override
+    protected Double3 findTransparencyHelper(Ray ray, double maxDistance) {
+        BoundingVolumeHierarchy h = getHierarchy();
+        return h == null ? Double3.ONE : h.findTransparency(ray, triangles, maxDistance, Double3.ONE);
+    }
+
+    @Override
+    public void prepare() {
+        getHierarchy();
+    }
+
+    /**
+     * Gets the hierarchy over the triangles, building it (or reading it from the cache) on the first query.
+     *
+     * @return The hierarchy, or {@code null} for an empty mesh.
+     */
+    private BoundingVolumeHierarchy getHierarchy() {
+        BoundingVolumeHierarchy h = bvh;
+        if (h == null && triangleBounds.length > 0) {
+            synchronized (this) {
+                h = bvh;
+                if (h == null)
+                    bvh = h = cacheDirectory == null
+                            ? new BoundingVolumeHierarchy(triangleBounds)
+                            : HierarchyCache.load(cacheDirectory, triangleBounds);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Intersects a ray with one triangle of the mesh, straight from the vertex buffer.
+     * Like {@link Triangle}, a hit on an edge or a vertex does not count.
+     *
+     * @param tri The index of the triangle.
+     * @param ray The ray to intersect.
+     * @return The distance from the ray head to the hit, or 0 if the ray misses the triangle.
+     */
+    private double intersect(int tri, Ray ray) {
+        int a = 3 * indices[3 * tri], b = 3 * indices[3 * tri + 1], c = 3 * indices[3 * tri + 2];
+        Triangle.Hit hit = Triangle.intersect(positions[a], positions[a + 1], positions[a + 2],
+                positions[b] - positions[a], positions[b + 1] - positions[a + 1], positions[b + 2] - positions[a + 2],
+                positions[c] - positions[a], positions[c + 1] - positions[a + 1], positions[c + 2] - positions[a + 2],
+                ray);
+        return hit == null ? 0 : hit.distance;
+    }
+
+    /**
+     * The triangles of the mesh, as indexed by its bounding volume hierarchy.
+     */
+    private final class Triangles implements SpatialIndex.Primitives, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public List<GeoPoint> findGeoIntersections(int index, Ray ray) {
+            double t = intersect(index, ray);
+            if (t == 0) return null;
+            List<GeoPoint> res = new LinkedList<>();
+            res.add(new GeoPoint(new Face(index), ray.getPoint(t)));
+            return res;
+        }
+
+        @Override
+        public GeoPoint findClosestGeoIntersection(int index, Ray ray, double maxDistance) {
+            double t = intersect(index, ray);
+            return t == 0 || t >= maxDistance ? null : new GeoPoint(new Face(index), ray.getPoint(t));
+        }
+
+        @Override
+        public Double3 findTransparency(int index, Ray ray, double maxDistance) {
+            double t = intersect(index, ray);
+            return t > 0 && alignZero(t - maxDistance) <= 0 ? getMaterial().kT : Double3.ONE;
+        }
+    }
+
+    /**
+     * One triangle of the mesh, created only when a ray hits it.
+     * It shades with the material and emission of the mesh and the normal of its own triangle.
+     */
+    private final class Face extends Geometry {
+        private static final long serialVersionUID = 1L;
+
+        private final int index; // The index of the triangle in the mesh
+
+        /**
+         * Constructs the face of a triangle of the mesh.
+         *
+         * @param index The index of the triangle.
+         */
+        Face(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Vector getNormal(Point p) {
+            return TriangleMesh.this.getNormal(index);
+        }
+
+        @Override
+        public Color getEmission() {
+            return TriangleMesh.this.getEmission();
+        }
+
+        @Override
+        public Material getMaterial() {
+            return TriangleMesh.this.getMaterial();
+        }
+
+        @Override
+        public BoundingBox getBoundingBox() {
+            int a = 3 * indices[3 * index], b = 3 * indices[3 * index + 1], c = 3 * indices[3 * index + 2];
+            return BoundingBox.of(new Point(positions[a], positions[a + 1], positions[a + 2]),
+                    new Point(positions[b], positions[b + 1], positions[b + 2]),
+                    new Point(positions[c], positions[c + 1], positions[c + 2]));
+        }
+
+        @Override
+        protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
+            double t = intersect(index, ray);
+            return t == 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            return obj instanceof Face other && other.mesh() == TriangleMesh.this && other.index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(TriangleMesh.this) * 31 + index;
+        }
+
+        /**
+         * @return the mesh of this face
+         */
+        private TriangleMesh mesh() {
+            return TriangleMesh.this;
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.util.List;
  * The tube extends the RadialGeometry abstract class.
  */
 public class Tube extends RadialGeometry {
+    private static final long serialVersionUID = 1L;
+
     protected Ray axis; // The axis of the tube
 
     public Tube(double radius, Ray axis) {
@@ -31,6 +33,16 @@ public class Tube extends RadialGeometry {
         return p.subtract(axis.getPoint(t)).normalize();
     }
 
+    /**
+     * A tube is infinite along its axis, so it is marked as unbounded.
+     *
+     * @return {@link BoundingBox#UNBOUNDED}
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return BoundingBox.UNBOUNDED;
+    }
+
     @Override
     protected List<GeoPoint> findGeoIntersectionsHelper(Ray ray) {
         return null;
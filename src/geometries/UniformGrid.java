@@ -0,0 +1,376 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A uniform grid over a set of bounded primitives.
+ * Space is split into equal cells, and every primitive is listed in every cell its box overlaps.
+ * Rays walk the cells they cross in order with a 3D digital differential analyzer (3D-DDA),
+ * and a per-thread mailbox makes sure a primitive that spans several cells is tested once per ray.
+ * Grids suit dense scenes of evenly spread primitives, where they build faster than a hierarchy.
+ */
+final class UniformGrid implements SpatialIndex {
+    /**
+     * The wanted ratio of cells to primitives.
+     */
+    private static final double CELLS_PER_PRIMITIVE = 3d;
+    /**
+     * The maximal amount of cells along an axis.
+     */
+    private static final int MAX_RESOLUTION = 128;
+
+    private final double[] min = new double[3];      // The minimal corner of the grid
+    private final double[] max = new double[3];      // The maximal corner of the grid
+    private final double[] cellSize = new double[3]; // The size of a cell along every axis
+    private final int[] resolution = new int[3];     // The amount of cells along every axis
+
+    private final int[] cellStart; // Per cell, the first position of its primitives in cellItems; one extra at the end
+    private final int[] cellItems; // The primitive indices of all the cells, cell after cell
+    private final int primitiveCount;
+
+    /**
+     * Per thread mailboxes, stamping every primitive with the last ray that tested it.
+     */
+    private final ThreadLocal<Mailbox> mailboxes;
+
+    /**
+     * Builds a grid over primitive boxes given as a flat array.
+     *
+     * @param primitiveBounds 6 coordinates per primitive: min x,y,z then max x,y,z.
+     * @throws IllegalArgumentException if there are no primitives.
+     */
+    UniformGrid(double[] primitiveBounds) {
+        int n = primitiveBounds.length / 6;
+        if (n == 0)
+            throw new IllegalArgumentException("A uniform grid needs at least one primitive");
+        primitiveCount = n;
+        mailboxes = ThreadLocal.withInitial(() -> new Mailbox(primitiveCount));
+
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], primitiveBounds[6 * i + axis]);
+                max[axis] = Math.max(max[axis], primitiveBounds[6 * i + 3 + axis]);
+            }
+        }
+
+        // choose cubic cells, about CELLS_PER_PRIMITIVE per primitive, over the axes that have an extent
+        double volume = 1;
+        int dimensions = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = max[axis] - min[axis];
+            if (extent > 0) {
+                volume *= extent;
+                dimensions++;
+            }
+        }
+        double density = dimensions == 0 ? 0 : Math.pow(CELLS_PER_PRIMITIVE * n / volume, 1d / dimensions);
+        for (int axis = 0; axis < 3; axis++) {
+            double extent = max[axis] - min[axis];
+            int res = (int) Math.round(extent * density);
+            resolution[axis] = Math.max(1, Math.min(MAX_RESOLUTION, res));
+            cellSize[axis] = extent / resolution[axis];
+        }
+
+        // count the primitives of every cell, then list them
+        int cells = resolution[0] * resolution[1] * resolution[2];
+        cellStart = new int[cells + 1];
+        int[] range = new int[6];
+        for (int i = 0; i < n; i++) {
+            cellRange(primitiveBounds, i, range);
+            for (int z = range[2]; z <= range[5]; z++)
+                for (int y = range[1]; y <= range[4]; y++)
+                    for (int x = range[0]; x <= range[3]; x++)
+                        cellStart[cell(x, y, z) + 1]++;
+        }
+        for (int c = 0; c < cells; c++) cellStart[c + 1] += cellStart[c];
+        cellItems = new int[cellStart[cells]];
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < n; i++) {
+            cellRange(primitiveBounds, i, range);
+            for (int z = range[2]; z <= range[5]; z++)
+                for (int y = range[1]; y <= range[4]; y++)
+                    for (int x = range[0]; x <= range[3]; x++)
+                        cellItems[fill[cell(x, y, z)]++] = i;
+        }
+    }
+
+    /**
+     * Finds the range of cells a primitive box overlaps.
+     *
+     * @param primitiveBounds The flat primitive boxes.
+     * @param i               The index of the primitive.
+     * @param range           Receives the minimal cell coordinates, then the maximal ones.
+     */
+    private void cellRange(double[] primitiveBounds, int i, int[] range) {
+        for (int axis = 0; axis < 3; axis++) {
+            range[axis] = cellCoordinate(primitiveBounds[6 * i + axis], axis);
+            range[3 + axis] = cellCoordinate(primitiveBounds[6 * i + 3 + axis], axis);
+        }
+    }
+
+    /**
+     * Finds the cell coordinate of a position along an axis, clamped into the grid.
+     *
+     * @param position The position along the axis.
+     * @param axis     The axis index: 0 for x, 1 for y and 2 for z.
+     * @return The cell coordinate.
+     */
+    private int cellCoordinate(double position, int axis) {
+        if (cellSize[axis] <= 0) return 0;
+        int c = (int) Math.floor((position - min[axis]) / cellSize[axis]);
+        return c < 0 ? 0 : Math.min(c, resolution[axis] - 1);
+    }
+
+    /**
+     * Gets the linear index of a cell.
+     *
+     * @param x The cell coordinate along x.
+     * @param y The cell coordinate along y.
+     * @param z The cell coordinate along z.
+     * @return The cell index.
+     */
+    private int cell(int x, int y, int z) {
+        return (z * resolution[1] + y) * resolution[0] + x;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(min[0], min[1], min[2], max[0], max[1], max[2]);
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, Primitives primitives, List<GeoPoint> res) {
+        Walk walk = new Walk(ray, Double.POSITIVE_INFINITY);
+        if (walk.done) return res;
+        Mailbox mailbox = mailboxes.get();
+        int stamp = mailbox.next();
+        do {
+            for (int i = cellStart[walk.cell], end = cellStart[walk.cell + 1]; i < end; i++) {
+                int p = cellItems[i];
+                if (!mailbox.check(p, stamp)) continue;
+                List<GeoPoint> geoPoints = primitives.findGeoIntersections(p, ray);
+                if (geoPoints != null) {
+                    if (res == null) res = new LinkedList<>();
+                    res.addAll(geoPoints);
+                }
+            }
+        } while (walk.step());
+        return res;
+    }
+
+    /**
+     * Finds the closest intersection of a ray with the indexed primitives, nearer than a given distance.
+     * A hit found in a cell may lie in a later cell, so the walk only stops once the closest hit so far
+     * is inside the cell being left.
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, Primitives primitives, double maxDistance) {
+        Walk walk = new Walk(ray, maxDistance);
+        if (walk.done) return null;
+        Mailbox mailbox = mailboxes.get();
+        int stamp = mailbox.next();
+        GeoPoint closest = null;
+        do {
+            for (int i = cellStart[walk.cell], end = cellStart[walk.cell + 1]; i < end; i++) {
+                int p = cellItems[i];
+                if (!mailbox.check(p, stamp)) continue;
+                GeoPoint hit = primitives.findClosestGeoIntersection(p, ray, maxDistance);
+                if (hit != null) {
+                    closest = hit;
+                    maxDistance = ray.getHead().distance(hit.point);
+                }
+            }
+            if (closest != null && maxDistance <= walk.exit()) return closest;
+        } while (walk.step(maxDistance));
+        return closest;
+    }
+
+    @Override
+    public Double3 findTransparency(Ray ray, Primitives primitives, double maxDistance, Double3 ktr) {
+        Walk walk = new Walk(ray, maxDistance);
+        if (walk.done) return ktr;
+        Mailbox mailbox = mailboxes.get();
+        int stamp = mailbox.next();
+        do {
+            for (int i = cellStart[walk.cell], end = cellStart[walk.cell + 1]; i < end; i++) {
+                int p = cellItems[i];
+                if (!mailbox.check(p, stamp)) continue;
+                Double3 kT = primitives.findTransparency(p, ray, maxDistance);
+                if (kT != Double3.ONE) {
+                    ktr = ktr == Double3.ONE ? kT : ktr.product(kT);
+                    if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+                }
+            }
+        } while (walk.step());
+        return ktr;
+    }
+
+    /**
+     * The walk of one ray through the cells of the grid, in the order the ray crosses them.
+     */
+    private final class Walk {
+        /** Whether the ray misses the grid */
+        final boolean done;
+        /** The index of the current cell */
+        int cell;
+
+        private int x, y, z;                   // The coordinates of the current cell
+        private final int stepX, stepY, stepZ; // The direction of the walk along every axis
+        private double tMaxX, tMaxY, tMaxZ;    // The distance along the ray to the next cell border on every axis
+        private final double tDeltaX, tDeltaY, tDeltaZ; // The distance along the ray across one cell on every axis
+        private final double tEnd;             // The distance along the ray where it leaves the grid
+
+        /**
+         * Starts the walk of a ray at the first cell it enters.
+         *
+         * @param ray         The ray.
+         * @param maxDistance The distance along the ray beyond which the walk stops.
+         */
+        Walk(Ray ray, double maxDistance) {
+            Double3 o = ray.getHead().getXyz();
+            Double3 d = ray.getDirection().getXyz();
+            Double3 inv = ray.getInverseDirection();
+
+            // clip the ray to the grid box
+            double tNear = 0;
+            double tFar = maxDistance;
+            for (int axis = 0; axis < 3; axis++) {
+                double origin = axis == 0 ? o.getD1() : axis == 1 ? o.getD2() : o.getD3();
+                double invDir = axis == 0 ? inv.getD1() : axis == 1 ? inv.getD2() : inv.getD3();
+                double t1 = (min[axis] - origin) * invDir;
+                double t2 = (max[axis] - origin) * invDir;
+                if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+                if (t1 > tNear) tNear = t1;
+                if (t2 < tFar) tFar = t2;
+            }
+            tEnd = tFar;
+            done = !(tNear <= tFar);
+
+            x = cellCoordinate(o.getD1() + d.getD1() * tNear, 0);
+            y = cellCoordinate(o.getD2() + d.getD2() * tNear, 1);
+            z = cellCoordinate(o.getD3() + d.getD3() * tNear, 2);
+            cell = cell(x, y, z);
+
+            stepX = d.getD1() > 0 ? 1 : d.getD1() < 0 ? -1 : 0;
+            stepY = d.getD2() > 0 ? 1 : d.getD2() < 0 ? -1 : 0;
+            stepZ = d.getD3() > 0 ? 1 : d.getD3() < 0 ? -1 : 0;
+            tMaxX = border(x, stepX, 0, o.getD1(), inv.getD1());
+            tMaxY = border(y, stepY, 1, o.getD2(), inv.getD2());
+            tMaxZ = border(z, stepZ, 2, o.getD3(), inv.getD3());
+            tDeltaX = stepX == 0 || resolution[0] == 1 ? Double.POSITIVE_INFINITY : cellSize[0] * Math.abs(inv.getD1());
+            tDeltaY = stepY == 0 || resolution[1] == 1 ? Double.POSITIVE_INFINITY : cellSize[1] * Math.abs(inv.getD2());
+            tDeltaZ = stepZ == 0 || resolution[2] == 1 ? Double.POSITIVE_INFINITY : cellSize[2] * Math.abs(inv.getD3());
+        }
+
+        /**
+         * Calculates the distance along the ray to the border of the current cell along an axis.
+         *
+         * @param c      The cell coordinate along the axis.
+         * @param step   The direction of the walk along the axis.
+         * @param axis   The axis index.
+         * @param origin The coordinate of the ray head along the axis.
+         * @param inv    The reciprocal of the ray direction along the axis.
+         * @return The distance to the border, infinite if the walk never crosses one along the axis.
+         */
+        private double border(int c, int step, int axis, double origin, double inv) {
+            if (step == 0 || resolution[axis] == 1) return Double.POSITIVE_INFINITY;
+            double border = min[axis] + (step > 0 ? c + 1 : c) * cellSize[axis];
+            return (border - origin) * inv;
+        }
+
+        /**
+         * Gets the distance along the ray where it leaves the current cell.
+         *
+         * @return The exit distance of the current cell.
+         */
+        double exit() {
+            return Math.min(Math.min(tMaxX, tMaxY), Math.min(tMaxZ, tEnd));
+        }
+
+        /**
+         * Moves to the next cell along the ray.
+         *
+         * @return {@code true} if there is a next cell, {@code false} if the ray has left the grid.
+         */
+        boolean step() {
+            return step(tEnd);
+        }
+
+        /**
+         * Moves to the next cell along the ray, unless it starts beyond a given distance.
+         *
+         * @param maxDistance The distance along the ray beyond which the walk stops.
+         * @return {@code true} if there is a next cell, {@code false} if the walk is over.
+         */
+        boolean step(double maxDistance) {
+            double next = exit();
+            if (next >= tEnd || next > maxDistance) return false;
+            if (tMaxX <= tMaxY && tMaxX <= tMaxZ) {
+                x += stepX;
+                if (x < 0 || x >= resolution[0]) return false;
+                tMaxX += tDeltaX;
+            } else if (tMaxY <= tMaxZ) {
+                y += stepY;
+                if (y < 0 || y >= resolution[1]) return false;
+                tMaxY += tDeltaY;
+            } else {
+                z += stepZ;
+                if (z < 0 || z >= resolution[2]) return false;
+                tMaxZ += tDeltaZ;
+            }
+            cell = cell(x, y, z);
+            return true;
+        }
+    }
+
+    /**
+     * The stamps of the last ray that tested every primitive, for the rays of one thread.
+     */
+    private static final class Mailbox {
+        private final int[] stamps; // Per primitive, the stamp of the last ray that tested it
+        private int ray = 0;        // The stamp of the current ray
+
+        /**
+         * Constructs a mailbox with no primitive tested.
+         *
+         * @param primitives The amount of primitives.
+         */
+        Mailbox(int primitives) {
+            stamps = new int[primitives];
+        }
+
+        /**
+         * Starts a new ray.
+         *
+         * @return The stamp of the new ray.
+         */
+        int next() {
+            if (++ray == 0) { // the stamps wrapped around, forget all the old rays
+                Arrays.fill(stamps, 0);
+                ray = 1;
+            }
+            return ray;
+        }
+
+        /**
+         * Marks a primitive as tested by a ray.
+         *
+         * @param primitive The index of the primitive.
+         * @param stamp     The stamp of the ray.
+         * @return {@code true} if the ray has not tested the primitive before, {@code false} otherwise.
+         */
+        boolean check(int primitive, int stamp) {
+            if (stamps[primitive] == stamp) return false;
+            stamps[primitive] = stamp;
+            return true;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import primitives.Double3;
  * Represents ambient light in a scene, which provides overall illumination regardless of direction.
  */
 public class AmbientLight extends Light {
+    private static final long serialVersionUID = 1L;
 
     /**
      * A constant representing no ambient light.
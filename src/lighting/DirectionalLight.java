@@ -8,6 +8,8 @@ import primitives.Point;
  * Represents a directional light in a scene, which provides illumination from a single direction.
  */
 public class DirectionalLight extends Light implements LightSource {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The direction of the light.
      */
@@ -2,10 +2,14 @@ package lighting;
 
 import primitives.Color;
 
+import java.io.Serializable;
+
 /**
  * Represents a light in a scene.
  */
-abstract class Light {
+abstract class Light implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     protected Color intensity;
 
     /**
@@ -8,6 +8,8 @@ import primitives.Vector;
  * Represents a point light in a scene, which provides illumination from a single point.
  */
 public class PointLight extends Light implements LightSource {
+    private static final long serialVersionUID = 1L;
+
     /**
      * The position of the light.
      */
@@ -8,6 +8,7 @@ import primitives.Vector;
  *  Represents a spotlight in a scene, which provides illumination from a single point in a specific direction.
  */
 public class SpotLight extends PointLight {
+    private static final long serialVersionUID = 1L;
 
     /**
      * The direction of the spotlight.
@@ -1,5 +1,7 @@
 package primitives;
 
+import java.io.Serializable;
+
 /**
  * Wrapper class for java.jwt.Color The constructors operate with any
  * non-negative RGB values. The colors are maintained without upper limit of
@@ -7,7 +9,9 @@ package primitives;
  * light's colors
  * @author Dan Zilberstein
  */
-public class Color {
+public class Color implements Serializable {
+   private static final long serialVersionUID = 1L;
+
    /**
     * The internal fields maintain RGB components as double numbers from 0 to
     * whatever...
@@ -51,6 +55,12 @@ public class Color {
     */
    public Color(java.awt.Color other) { rgb = new Double3(other.getRed(), other.getGreen(), other.getBlue()); }
 
+   /**
+    * RGB getter - returns the components without any limit
+    * @return triad of Red/Green/Blue components
+    */
+   public Double3 getRgb() { return rgb; }
+
    /**
     * Color getter - returns the color after converting it into java.awt.Color
     * object During the conversion any component bigger than 255 is set to 255
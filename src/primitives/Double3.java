@@ -3,13 +3,17 @@
  */
 package primitives;
 
+import java.io.Serializable;
+
 import static primitives.Util.isZero;
 
 /**
  * This class will serve all primitive classes based on three numbers
  * @author Dan Zilberstein
  */
-public class Double3 {
+public class Double3 implements Serializable {
+   private static final long serialVersionUID = 1L;
+
    /** First number */
    final double                d1;
    /** Second number */
@@ -60,6 +64,35 @@ public class Double3 {
    @Override
    public String toString() { return "(" + d1 + "," + d2 + "," + d3 + ")"; }
 
+   /**
+    * Getter for the first number
+    * @return the first number
+    */
+   public double getD1() { return d1; }
+
+   /**
+    * Getter for the second number
+    * @return the second number
+    */
+   public double getD2() { return d2; }
+
+   /**
+    * Getter for the third number
+    * @return the third number
+    */
+   public double getD3() { return d3; }
+
+   /**
+    * Replaces a deserialized zero or one triad by the shared constant,
+    * since the ray queries check for them by reference to skip work
+    * @return the shared constant, or this triad
+    */
+   private Object readResolve() {
+      if (d1 == 0 && d2 == 0 && d3 == 0) return ZERO;
+      if (d1 == 1 && d2 == 1 && d3 == 1) return ONE;
+      return this;
+   }
+
    /**
     * Sum two floating point triads into a new triad where each couple of numbers
     * is summarized
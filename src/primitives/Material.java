@@ -1,9 +1,13 @@
 package primitives;
 
+import java.io.Serializable;
+
 /**
  * Represents material properties for shading.
  */
-public class Material {
+public class Material implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     /** The diffuse reflection coefficient. */
     public Double3 kD = Double3.ZERO;
 
@@ -27,6 +31,9 @@ public class Material {
 
     public int diff = 0;
 
+    /** Places the rays of glossy reflection and diffuse transparency. */
+    public Sampler sampler = StandardSampler.GRID;
+
     public Material setGloss(int gloss) {
         this.gloss = gloss;
         return this;
@@ -37,6 +44,17 @@ public class Material {
         return this;
     }
 
+    /**
+     * Sets the sampler of the glossy reflection and diffuse transparency rays.
+     *
+     * @param sampler The new sampler
+     * @return This Material instance
+     */
+    public Material setSampler(Sampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
     /**
      * Sets the diffuse reflection coefficient.
      *
@@ -1,9 +1,12 @@
 package primitives;
 
+import java.io.Serializable;
+
 /**
  * Represents a three-dimensional point in space with x, y, and z coordinates.
  */
-public class Point {
+public class Point implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /**
      * The zero point, which represents the origin (0, 0, 0) in three-dimensional space.
@@ -2,15 +2,19 @@ package primitives;
 
 import geometries.Intersectable.GeoPoint;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
  * Represents a ray in a three-dimensional (3D) space defined by a starting point and a direction vector.
  * This class models the behavior and attributes of a ray used in 3D graphics and geometry.
  */
-public class Ray {
+public class Ray implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final Point head; // The starting point of the ray
     private final Vector direction; // The direction vector of the ray
+    private final Double3 inverseDirection; // Reciprocals of the direction components, for slab tests
 
     /**
      * The offset value used to avoid self-intersection.
@@ -26,6 +30,7 @@ public class Ray {
     public Ray(Point startingPoint, Vector directionVector) {
         this.head = startingPoint;
         this.direction = directionVector.normalize(); // Normalizes the direction vector
+        this.inverseDirection = invert(this.direction);
     }
 
     /**
@@ -38,11 +43,23 @@ public class Ray {
      */
     public Ray(Point head, Vector direction, Vector normal) {
         this.direction = direction.normalize();
+        this.inverseDirection = invert(this.direction);
         double nv = normal.dotProduct(direction);
         Vector normalDelta = normal.scale(nv > 0 ? DELTA : -DELTA);
         this.head = head.add(normalDelta);
     }
 
+    /**
+     * Calculates the component-wise reciprocal of a direction vector.
+     * A zero component yields an infinity of the matching sign, as the slab test expects.
+     *
+     * @param v The direction vector.
+     * @return The reciprocal of each component of the vector.
+     */
+    private static Double3 invert(Vector v) {
+        return new Double3(1 / v.xyz.d1, 1 / v.xyz.d2, 1 / v.xyz.d3);
+    }
+
     /**
      * Finds the closest intersection point of the ray with a list of intersection points.
      *
@@ -54,11 +71,15 @@ public class Ray {
         if (intersections.isEmpty())
             return null;
 
-        GeoPoint closestPoint = intersections.getFirst();
-        for (GeoPoint p : intersections)
-            if (p.point.distance(getHead()) < closestPoint.point.distance(getHead())) {
+        GeoPoint closestPoint = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (GeoPoint p : intersections) {
+            double distance = p.point.distanceSquared(getHead());
+            if (distance < closestDistance) {
                 closestPoint = p;
+                closestDistance = distance;
             }
+        }
 
         return closestPoint;
     }
@@ -93,6 +114,16 @@ public class Ray {
         return this.direction;
     }
 
+    /**
+     * Gets the reciprocals of the direction components of this ray.
+     * Used by bounding box tests to avoid a division per box.
+     *
+     * @return The component-wise inverse of the direction vector.
+     */
+    public Double3 getInverseDirection() {
+        return this.inverseDirection;
+    }
+
     /**
      * Indicates whether some other object is "equal to" this one.
      *
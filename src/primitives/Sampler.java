@@ -0,0 +1,20 @@
+package primitives;
+
+import java.io.Serializable;
+
+/**
+ * Places the samples of a set, e.g. the rays through a pixel or the rays of a glossy bounce, in the unit square.
+ * Sets with different identifiers may place their samples differently, so neighbouring pixels and bounces
+ * do not repeat one pattern; the same set always gets the same samples, so images are reproducible.
+ */
+public interface Sampler extends Serializable {
+    /**
+     * Places the samples of a set in the unit square.
+     *
+     * @param count The amount of samples asked for; a sampler may round it to a count it can stratify.
+     * @param set   The identifier of the set.
+     * @return The samples as pairs of coordinates between 0 and 1: the first to the right and the second downwards,
+     * from the top left corner. The array may be shared and must not be changed.
+     */
+    double[] generate(int count, long set);
+}
@@ -0,0 +1,151 @@
+package primitives;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The samplers of the renderer.
+ * <ul>
+ *     <li>{@link #GRID}: the regular grid, the same in every set. Cheap, but it aliases on edges and patterns.</li>
+ *     <li>{@link #JITTERED}: one random sample in every cell of the grid.</li>
+ *     <li>{@link #HALTON}: the Halton sequence in bases 2 and 3, shifted randomly in every set.</li>
+ *     <li>{@link #SOBOL}: the first two dimensions of the Sobol sequence, scrambled randomly in every set;
+ *     best with a power of 2 samples.</li>
+ * </ul>
+ * The grid and jittered samplers round the amount of samples down to a square number.
+ * The randomness of every set is derived from its identifier.
+ */
+public enum StandardSampler implements Sampler {
+    /**
+     * The regular grid, from the top left corner to the bottom right one.
+     */
+    GRID {
+        @Override
+        public double[] generate(int count, long set) {
+            return GRIDS.computeIfAbsent(count, n -> {
+                int sqrt = (int) Math.sqrt(n);
+                double offset = sqrt == 1 ? 0 : 1d / (sqrt - 1d);
+                double[] samples = new double[2 * sqrt * sqrt];
+                for (int i = 0; i < sqrt; i++) {
+                    for (int j = 0; j < sqrt; j++) {
+                        samples[2 * (i * sqrt + j)] = j * offset;
+                        samples[2 * (i * sqrt + j) + 1] = i * offset;
+                    }
+                }
+                return samples;
+            });
+        }
+    },
+    /**
+     * One sample at a random place in every cell of the grid.
+     */
+    JITTERED {
+        @Override
+        public double[] generate(int count, long set) {
+            int sqrt = (int) Math.sqrt(count);
+            SplittableRandom random = new SplittableRandom(mix(set));
+            double[] samples = new double[2 * sqrt * sqrt];
+            for (int i = 0; i < sqrt; i++) {
+                for (int j = 0; j < sqrt; j++) {
+                    samples[2 * (i * sqrt + j)] = (j + random.nextDouble()) / sqrt;
+                    samples[2 * (i * sqrt + j) + 1] = (i + random.nextDouble()) / sqrt;
+                }
+            }
+            return samples;
+        }
+    },
+    /**
+     * The Halton sequence in bases 2 and 3, shifted around the square by a random offset in every set.
+     */
+    HALTON {
+        @Override
+        public double[] generate(int count, long set) {
+            double[] base = HALTONS.computeIfAbsent(count, n -> {
+                double[] samples = new double[2 * n];
+                for (int k = 0; k < n; k++) {
+                    samples[2 * k] = radicalInverse(2, k);
+                    samples[2 * k + 1] = radicalInverse(3, k);
+                }
+                return samples;
+            });
+            long seed = mix(set);
+            double shiftX = (seed >>> 11) * 0x1.0p-53;
+            double shiftY = (mix(seed) >>> 11) * 0x1.0p-53;
+            double[] samples = new double[base.length];
+            for (int k = 0; k < base.length; k += 2) {
+                samples[k] = wrap(base[k] + shiftX);
+                samples[k + 1] = wrap(base[k + 1] + shiftY);
+            }
+            return samples;
+        }
+    },
+    /**
+     * The Sobol sequence, with its bits flipped by a random mask in every set, which keeps it stratified.
+     */
+    SOBOL {
+        @Override
+        public double[] generate(int count, long set) {
+            long seed = mix(set);
+            int maskX = (int) seed;
+            int maskY = (int) (seed >>> 32);
+            double[] samples = new double[2 * count];
+            for (int k = 0; k < count; k++) {
+                int x = Integer.reverse(k);
+                int y = 0;
+                for (int bit = 0, v = 1 << 31; bit < 32 && k >>> bit != 0; bit++, v ^= v >>> 1)
+                    if ((k >>> bit & 1) != 0) y ^= v;
+                samples[2 * k] = Integer.toUnsignedLong(x ^ maskX) * 0x1.0p-32;
+                samples[2 * k + 1] = Integer.toUnsignedLong(y ^ maskY) * 0x1.0p-32;
+            }
+            return samples;
+        }
+    };
+
+    /**
+     * The grid samples by their amount, generated once
+     */
+    private static final Map<Integer, double[]> GRIDS = new ConcurrentHashMap<>();
+    /**
+     * The Halton samples by their amount before shifting, generated once
+     */
+    private static final Map<Integer, double[]> HALTONS = new ConcurrentHashMap<>();
+
+    /**
+     * Calculates the radical inverse of a number: its digits in a base, mirrored around the point.
+     *
+     * @param base  The base.
+     * @param index The number.
+     * @return The radical inverse, between 0 and 1.
+     */
+    public static double radicalInverse(int base, int index) {
+        double result = 0;
+        double digit = 1d / base;
+        for (int n = index; n > 0; n /= base, digit /= base)
+            result += (n % base) * digit;
+        return result;
+    }
+
+    /**
+     * Scrambles the bits of a number (the SplitMix64 finalizer), so close set identifiers get unrelated seeds.
+     *
+     * @param value The number.
+     * @return The scrambled number.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Wraps a coordinate shifted out of the unit interval back into it.
+     *
+     * @param value The coordinate, between 0 and 2.
+     * @return The coordinate, between 0 and 1.
+     */
+    private static double wrap(double value) {
+        return value >= 1 ? value - 1 : value;
+    }
+}
@@ -0,0 +1,251 @@
+package primitives;
+
+import java.io.Serializable;
+
+import static primitives.Util.isZero;
+
+/**
+ * An affine transformation of 3D space: a linear map (rotation, scaling, shearing) followed by a translation.
+ * It is kept as a 3x4 matrix together with its inverse, so points and vectors can be moved both ways.
+ * Transformations are immutable; composing them creates a new one.
+ */
+public final class Transform implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The identity transformation, which leaves every point in place.
+     */
+    public static final Transform IDENTITY = new Transform(
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0},
+            new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+    private final double[] m;   // The matrix, row by row: 3 linear coefficients then the translation
+    private final double[] inv; // The inverse matrix, in the same layout
+
+    /**
+     * Constructs a transformation from a matrix and its inverse.
+     *
+     * @param m   The matrix, 12 coefficients row by row.
+     * @param inv The inverse matrix, in the same layout.
+     */
+    private Transform(double[] m, double[] inv) {
+        this.m = m;
+        this.inv = inv;
+    }
+
+    /**
+     * Constructs a transformation from its matrix, calculating the inverse.
+     *
+     * @param m The matrix, 12 coefficients row by row.
+     * @return The transformation.
+     * @throws IllegalArgumentException if the matrix is singular (it flattens space).
+     */
+    private static Transform of(double[] m) {
+        // inverse of the linear part by cofactors
+        double c00 = m[5] * m[10] - m[6] * m[9];
+        double c01 = m[6] * m[8] - m[4] * m[10];
+        double c02 = m[4] * m[9] - m[5] * m[8];
+        double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (isZero(det))
+            throw new IllegalArgumentException("A transformation must not flatten space");
+        double d = 1 / det;
+
+        double[] inv = new double[12];
+        inv[0] = c00 * d;
+        inv[1] = (m[2] * m[9] - m[1] * m[10]) * d;
+        inv[2] = (m[1] * m[6] - m[2] * m[5]) * d;
+        inv[4] = c01 * d;
+        inv[5] = (m[0] * m[10] - m[2] * m[8]) * d;
+        inv[6] = (m[2] * m[4] - m[0] * m[6]) * d;
+        inv[8] = c02 * d;
+        inv[9] = (m[1] * m[8] - m[0] * m[9]) * d;
+        inv[10] = (m[0] * m[5] - m[1] * m[4]) * d;
+        // the inverse translation takes the translated origin back to the origin
+        for (int row = 0; row < 3; row++)
+            inv[4 * row + 3] = -(inv[4 * row] * m[3] + inv[4 * row + 1] * m[7] + inv[4 * row + 2] * m[11]);
+        return new Transform(m, inv);
+    }
+
+    /**
+     * Creates a translation.
+     *
+     * @param offset The offset to move by.
+     * @return The translation.
+     */
+    public static Transform translation(Vector offset) {
+        Double3 o = offset.xyz;
+        return new Transform(
+                new double[]{1, 0, 0, o.d1, 0, 1, 0, o.d2, 0, 0, 1, o.d3},
+                new double[]{1, 0, 0, -o.d1, 0, 1, 0, -o.d2, 0, 0, 1, -o.d3});
+    }
+
+    /**
+     * Creates a uniform scaling around the origin.
+     *
+     * @param factor The scaling factor.
+     * @return The scaling.
+     * @throws IllegalArgumentException if the factor is zero.
+     */
+    public static Transform scaling(double factor) {
+        return scaling(factor, factor, factor);
+    }
+
+    /**
+     * Creates a scaling around the origin with a factor per axis.
+     *
+     * @param sx The scaling factor along x.
+     * @param sy The scaling factor along y.
+     * @param sz The scaling factor along z.
+     * @return The scaling.
+     * @throws IllegalArgumentException if any factor is zero.
+     */
+    public static Transform scaling(double sx, double sy, double sz) {
+        return of(new double[]{sx, 0, 0, 0, 0, sy, 0, 0, 0, 0, sz, 0});
+    }
+
+    /**
+     * Creates a rotation around an axis through the origin, by the right-hand rule.
+     *
+     * @param axis    The axis of rotation.
+     * @param degrees The angle of rotation in degrees.
+     * @return The rotation.
+     */
+    public static Transform rotation(Vector axis, double degrees) {
+        Double3 a = axis.normalize().xyz;
+        double rad = Math.toRadians(degrees);
+        double c = Math.cos(rad), s = Math.sin(rad), t = 1 - c;
+        double x = a.d1, y = a.d2, z = a.d3;
+        double[] m = {
+                t * x * x + c, t * x * y - s * z, t * x * z + s * y, 0,
+                t * x * y + s * z, t * y * y + c, t * y * z - s * x, 0,
+                t * x * z - s * y, t * y * z + s * x, t * z * z + c, 0};
+        // the inverse of a rotation is its transpose
+        double[] inv = {m[0], m[4], m[8], 0, m[1], m[5], m[9], 0, m[2], m[6], m[10], 0};
+        return new Transform(m, inv);
+    }
+
+    /**
+     * Composes this transformation with one applied after it.
+     *
+     * @param next The transformation to apply after this one.
+     * @return The transformation that applies this one and then {@code next}.
+     */
+    public Transform then(Transform next) {
+        return new Transform(multiply(next.m, m), multiply(inv, next.inv));
+    }
+
+    /**
+     * Multiplies two affine matrices.
+     *
+     * @param a The left matrix.
+     * @param b The right matrix.
+     * @return The product {@code a * b}, which applies {@code b} first.
+     */
+    private static double[] multiply(double[] a, double[] b) {
+        double[] res = new double[12];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 4; col++) {
+                res[4 * row + col] = a[4 * row] * b[col] + a[4 * row + 1] * b[4 + col] + a[4 * row + 2] * b[8 + col];
+            }
+            res[4 * row + 3] += a[4 * row + 3];
+        }
+        return res;
+    }
+
+    /**
+     * Gets the inverse transformation.
+     *
+     * @return The transformation that undoes this one.
+     */
+    public Transform inverse() {
+        return new Transform(inv, m);
+    }
+
+    /**
+     * Moves a point by the transformation.
+     *
+     * @param p The point.
+     * @return The transformed point.
+     */
+    public Point transform(Point p) {
+        return apply(m, p.xyz);
+    }
+
+    /**
+     * Moves a point by the inverse transformation.
+     *
+     * @param p The point.
+     * @return The point that the transformation moves to {@code p}.
+     */
+    public Point inverseTransform(Point p) {
+        return apply(inv, p.xyz);
+    }
+
+    /**
+     * Transforms a direction, which only the linear part of the transformation affects.
+     *
+     * @param v The direction.
+     * @return The transformed direction, not normalized.
+     */
+    public Vector transformDirection(Vector v) {
+        return applyLinear(m, v.xyz);
+    }
+
+    /**
+     * Transforms a direction by the inverse transformation.
+     *
+     * @param v The direction.
+     * @return The direction that the transformation moves to {@code v}, not normalized.
+     */
+    public Vector inverseTransformDirection(Vector v) {
+        return applyLinear(inv, v.xyz);
+    }
+
+    /**
+     * Transforms a surface normal. Normals follow the inverse transpose of the linear part,
+     * so they stay orthogonal to the surface under scaling and shearing.
+     *
+     * @param n The normal.
+     * @return The transformed unit normal.
+     */
+    public Vector transformNormal(Vector n) {
+        Double3 v = n.xyz;
+        return new Vector(
+                inv[0] * v.d1 + inv[4] * v.d2 + inv[8] * v.d3,
+                inv[1] * v.d1 + inv[5] * v.d2 + inv[9] * v.d3,
+                inv[2] * v.d1 + inv[6] * v.d2 + inv[10] * v.d3).normalize();
+    }
+
+    /**
+     * Applies an affine matrix to a point.
+     *
+     * @param a The matrix.
+     * @param p The point coordinates.
+     * @return The transformed point.
+     */
+    private static Point apply(double[] a, Double3 p) {
+        return new Point(
+                a[0] * p.d1 + a[1] * p.d2 + a[2] * p.d3 + a[3],
+                a[4] * p.d1 + a[5] * p.d2 + a[6] * p.d3 + a[7],
+                a[8] * p.d1 + a[9] * p.d2 + a[10] * p.d3 + a[11]);
+    }
+
+    /**
+     * Applies the linear part of an affine matrix to a direction.
+     *
+     * @param a The matrix.
+     * @param v The direction coordinates.
+     * @return The transformed direction.
+     */
+    private static Vector applyLinear(double[] a, Double3 v) {
+        return new Vector(
+                a[0] * v.d1 + a[1] * v.d2 + a[2] * v.d3,
+                a[4] * v.d1 + a[5] * v.d2 + a[6] * v.d3,
+                a[8] * v.d1 + a[9] * v.d2 + a[10] * v.d3);
+    }
+
+    @Override
+    public String toString() {
+        return "Transform" + java.util.Arrays.toString(m);
+    }
+}
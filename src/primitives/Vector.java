@@ -5,6 +5,7 @@ package primitives;
  * Extends the Point class.
  */
 public class Vector extends Point {
+    private static final long serialVersionUID = 1L;
 
     final int ZERO = 0;
     final int VECTOR_INVERTER_SCALE = -1;
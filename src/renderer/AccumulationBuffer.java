@@ -0,0 +1,316 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Double3;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Accumulates color samples per pixel, for renderings that add samples over several passes.
+ * Every pixel keeps the sum of its samples, the sum of their squared luminance and the amount of samples,
+ * which give its mean color and an estimate of how far that mean still is from the converged color.
+ * <p>
+ * A pixel must only be added to by one thread at a time; different pixels may be added to concurrently.
+ */
+public class AccumulationBuffer {
+    private final int nX;           // The width of the image in pixels
+    private final int nY;           // The height of the image in pixels
+    private final double[] sums;    // The sums of the samples, 3 components per pixel
+    private final double[] squares; // The sums of the squared sample luminance, per pixel
+    private final int[] counts;     // The amount of samples, per pixel
+
+    /**
+     * Constructs an empty buffer.
+     *
+     * @param nX The width of the image in pixels.
+     * @param nY The height of the image in pixels.
+     */
+    public AccumulationBuffer(int nX, int nY) {
+        this.nX = nX;
+        this.nY = nY;
+        sums = new double[3 * nX * nY];
+        squares = new double[nX * nY];
+        counts = new int[nX * nY];
+    }
+
+    /**
+     * Constructs a copy of a buffer.
+     *
+     * @param other The buffer to copy.
+     */
+    private AccumulationBuffer(AccumulationBuffer other) {
+        nX = other.nX;
+        nY = other.nY;
+        sums = other.sums.clone();
+        squares = other.squares.clone();
+        counts = other.counts.clone();
+    }
+
+    /**
+     * Copies the buffer. No pixel may be added to while copying.
+     *
+     * @return A copy of the buffer.
+     */
+    public AccumulationBuffer copy() {
+        return new AccumulationBuffer(this);
+    }
+
+    /**
+     * Gets the width of the image.
+     *
+     * @return The width in pixels.
+     */
+    public int getNx() {
+        return nX;
+    }
+
+    /**
+     * Gets the height of the image.
+     *
+     * @return The height in pixels.
+     */
+    public int getNy() {
+        return nY;
+    }
+
+    /**
+     * Calculates the luminance of a color, by the Rec. 709 weights.
+     *
+     * @param rgb The color components.
+     * @return The luminance.
+     */
+    static double luminance(Double3 rgb) {
+        return 0.2126 * rgb.getD1() + 0.7152 * rgb.getD2() + 0.0722 * rgb.getD3();
+    }
+
+    /**
+     * Adds a sample to a pixel.
+     *
+     * @param j     The column of the pixel.
+     * @param i     The row of the pixel.
+     * @param color The color of the sample.
+     */
+    public void add(int j, int i, Color color) {
+        int p = i * nX + j;
+        Double3 rgb = color.getRgb();
+        sums[3 * p] += rgb.getD1();
+        sums[3 * p + 1] += rgb.getD2();
+        sums[3 * p + 2] += rgb.getD3();
+        double y = luminance(rgb);
+        squares[p] += y * y;
+        counts[p]++;
+    }
+
+    /**
+     * Gets the amount of samples of a pixel.
+     *
+     * @param j The column of the pixel.
+     * @param i The row of the pixel.
+     * @return The amount of samples added to the pixel.
+     */
+    public int getCount(int j, int i) {
+        return counts[i * nX + j];
+    }
+
+    /**
+     * Gets the mean color of a pixel.
+     *
+     * @param j The column of the pixel.
+     * @param i The row of the pixel.
+     * @return The mean of the samples of the pixel, black if it has none.
+     */
+    public Color getColor(int j, int i) {
+        int p = i * nX + j;
+        int n = counts[p];
+        return n == 0 ? Color.BLACK : new Color(sums[3 * p] / n, sums[3 * p + 1] / n, sums[3 * p + 2] / n);
+    }
+
+    /**
+     * Estimates the error of the mean luminance of a pixel, as the standard error of its samples.
+     *
+     * @param j The column of the pixel.
+     * @param i The row of the pixel.
+     * @return The standard error, or infinity if the pixel has less than two samples.
+     */
+    public double getError(int j, int i) {
+        int p = i * nX + j;
+        int n = counts[p];
+        if (n < 2) return Double.POSITIVE_INFINITY;
+        double mean = meanLuminance(p);
+        double variance = Math.max(0, (squares[p] - n * mean * mean) / (n - 1));
+        return Math.sqrt(variance / n);
+    }
+
+    /**
+     * Estimates how much another sample of a pixel is worth.
+     * Once the pixel has two samples this is its standard error; before that it is the largest difference
+     * between its luminance and the luminance of its sampled 4 neighbours, since a pixel on an edge needs more samples.
+     *
+     * @param j The column of the pixel.
+     * @param i The row of the pixel.
+     * @return The priority of the pixel, in units of luminance.
+     */
+    public double getPriority(int j, int i) {
+        int p = i * nX + j;
+        if (counts[p] >= 2) return getError(j, i);
+        double y = meanLuminance(p);
+        double contrast = 0;
+        if (j > 0) contrast = Math.max(contrast, contrast(y, p - 1));
+        if (j < nX - 1) contrast = Math.max(contrast, contrast(y, p + 1));
+        if (i > 0) contrast = Math.max(contrast, contrast(y, p - nX));
+        if (i < nY - 1) contrast = Math.max(contrast, contrast(y, p + nX));
+        return contrast;
+    }
+
+    /**
+     * Estimates the error of the mean luminance of a pixel for adaptive sampling: its standard error,
+     * but at least the largest luminance difference to its sampled 4 neighbours divided by its amount of samples.
+     * Samples that all agree have no variance, yet they may have missed a small part of an edge
+     * that shows in a neighbour; the more samples agree, the smaller that part can be.
+     *
+     * @param j The column of the pixel.
+     * @param i The row of the pixel.
+     * @return The estimated error, in units of luminance, or infinity if the pixel has less than two samples.
+     */
+    public double getAdaptiveError(int j, int i) {
+        int p = i * nX + j;
+        double error = getError(j, i);
+        if (Double.isInfinite(error)) return error;
+        double y = meanLuminance(p);
+        double contrast = 0;
+        if (j > 0) contrast = Math.max(contrast, contrast(y, p - 1));
+        if (j < nX - 1) contrast = Math.max(contrast, contrast(y, p + 1));
+        if (i > 0) contrast = Math.max(contrast, contrast(y, p - nX));
+        if (i < nY - 1) contrast = Math.max(contrast, contrast(y, p + nX));
+        return Math.max(error, contrast / counts[p]);
+    }
+
+    /**
+     * Calculates the luminance difference to a neighbour pixel.
+     *
+     * @param y The luminance of the pixel.
+     * @param p The index of the neighbour.
+     * @return The absolute difference, 0 if the neighbour has no samples.
+     */
+    private double contrast(double y, int p) {
+        return counts[p] == 0 ? 0 : Math.abs(y - meanLuminance(p));
+    }
+
+    /**
+     * Calculates the mean luminance of a pixel.
+     *
+     * @param p The index of the pixel.
+     * @return The mean luminance, 0 if the pixel has no samples.
+     */
+    private double meanLuminance(int p) {
+        int n = counts[p];
+        return n == 0 ? 0 : luminance(new Double3(sums[3 * p], sums[3 * p + 1], sums[3 * p + 2])) / n;
+    }
+
+    /**
+     * Gets the amount of samples of every pixel.
+     *
+     * @return The sample counts, by row and then column.
+     */
+    public int[][] getCounts() {
+        int[][] map = new int[nY][];
+        for (int i = 0; i < nY; i++) map[i] = Arrays.copyOfRange(counts, i * nX, (i + 1) * nX);
+        return map;
+    }
+
+    /**
+     * Estimates the error of the whole image, as the root mean square of the pixel errors.
+     *
+     * @return The image error, or infinity if any pixel has less than two samples.
+     */
+    public double getError() {
+        return getError(0, 0, nX, nY);
+    }
+
+    /**
+     * Estimates the error of a rectangle of pixels, as the root mean square of the pixel errors.
+     *
+     * @param x      The first column of the rectangle.
+     * @param y      The first row of the rectangle.
+     * @param width  The amount of columns in the rectangle.
+     * @param height The amount of rows in the rectangle.
+     * @return The error of the rectangle, or infinity if any of its pixels has less than two samples.
+     */
+    public double getError(int x, int y, int width, int height) {
+        double sum = 0;
+        for (int i = y; i < y + height; i++) {
+            for (int j = x; j < x + width; j++) {
+                double error = getError(j, i);
+                if (Double.isInfinite(error)) return error;
+                sum += error * error;
+            }
+        }
+        return Math.sqrt(sum / ((double) width * height));
+    }
+
+    /**
+     * Writes the mean colors of a rectangle of pixels to an image.
+     *
+     * @param imageWriter The image, of the size of the buffer.
+     * @param x           The first column of the rectangle.
+     * @param y           The first row of the rectangle.
+     * @param width       The amount of columns in the rectangle.
+     * @param height      The amount of rows in the rectangle.
+     */
+    public void writeTo(ImageWriter imageWriter, int x, int y, int width, int height) {
+        for (int i = y; i < y + height; i++)
+            for (int j = x; j < x + width; j++)
+                imageWriter.writePixel(j, i, getColor(j, i));
+    }
+
+    /**
+     * Writes the mean colors of all the pixels to an image.
+     *
+     * @param imageWriter The image, of the size of the buffer.
+     */
+    public void writeTo(ImageWriter imageWriter) {
+        writeTo(imageWriter, 0, 0, nX, nY);
+    }
+
+    /**
+     * Gets the size of the buffer in binary form.
+     *
+     * @return The amount of bytes {@link #write(ByteBuffer)} writes.
+     */
+    int getByteSize() {
+        return (sums.length + squares.length) * Double.BYTES + counts.length * Integer.BYTES;
+    }
+
+    /**
+     * Writes the samples in binary form.
+     *
+     * @param buffer The buffer to write to.
+     */
+    void write(ByteBuffer buffer) {
+        buffer.asDoubleBuffer().put(sums).put(squares);
+        buffer.position(buffer.position() + (sums.length + squares.length) * Double.BYTES);
+        buffer.asIntBuffer().put(counts);
+        buffer.position(buffer.position() + counts.length * Integer.BYTES);
+    }
+
+    /**
+     * Reads samples written by {@link #write(ByteBuffer)}.
+     *
+     * @param buffer The buffer to read from.
+     * @param nX     The width of the image in pixels.
+     * @param nY     The height of the image in pixels.
+     * @return The samples.
+     * @throws IllegalArgumentException if the samples are invalid.
+     */
+    static AccumulationBuffer read(ByteBuffer buffer, int nX, int nY) {
+        AccumulationBuffer samples = new AccumulationBuffer(nX, nY);
+        buffer.asDoubleBuffer().get(samples.sums).get(samples.squares);
+        buffer.position(buffer.position() + (samples.sums.length + samples.squares.length) * Double.BYTES);
+        buffer.asIntBuffer().get(samples.counts);
+        buffer.position(buffer.position() + samples.counts.length * Integer.BYTES);
+        for (int count : samples.counts)
+            if (count < 0) throw new IllegalArgumentException("Negative sample count");
+        return samples;
+    }
+}
@@ -2,16 +2,195 @@ package renderer;
 
 import primitives.*;
 
-import java.awt.image.ColorModel;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Blackboard class is a helper class for generating points on a square or a circle
+ * Blackboard class is a helper class for generating points on a square or a circle.
+ * The grid patterns of the points are generated once for every shape and amount of rays and then placed
+ * on the square or circle at hand; patterns of other {@link Sampler}s are generated for every sample set.
  */
 public class Blackboard {
 
+    /**
+     * The square patterns by their amount of rays, generated once
+     */
+    private static final Map<Integer, Pattern> SQUARES = new ConcurrentHashMap<>();
+    /**
+     * The circle patterns by their amount of rays, generated once
+     */
+    private static final Map<Integer, Pattern> CIRCLES = new ConcurrentHashMap<>();
+
+    /**
+     * A pattern of sample points, generated once for its shape and amount of rays and shared by all the pixels
+     * and bounces that use it. The points are kept as offsets in unit coordinates around the center
+     * and placed on a square or circle by {@link #map(Point, double, Vector, Vector)}.
+     */
+    public static final class Pattern {
+        private final double[] right; // The offsets along the right vector, in sizes of the square
+        private final double[] up;    // The offsets along the up vector, in sizes of the square
+
+        /**
+         * Constructs a pattern from its offsets.
+         *
+         * @param right the offsets along the right vector
+         * @param up    the offsets along the up vector
+         */
+        private Pattern(double[] right, double[] up) {
+            this.right = right;
+            this.up = up;
+        }
+
+        /**
+         * Get the amount of points in the pattern
+         *
+         * @return the amount of points
+         */
+        public int size() {
+            return right.length;
+        }
+
+        /**
+         * Get the offset of a point along the right vector
+         *
+         * @param index the index of the point
+         * @return the offset, in sizes of the square, between -1/2 and 1/2
+         */
+        public double getRight(int index) {
+            return right[index];
+        }
+
+        /**
+         * Get the offset of a point along the up vector
+         *
+         * @param index the index of the point
+         * @return the offset, in sizes of the square, between -1/2 and 1/2
+         */
+        public double getUp(int index) {
+            return up[index];
+        }
+
+        /**
+         * Place the pattern on a square
+         *
+         * @param center the center of the square
+         * @param size   the size of the square
+         * @param vUp    the up vector
+         * @param vRight the right vector
+         * @return the points of the pattern on the square
+         */
+        public Point[] map(Point center, double size, Vector vUp, Vector vRight) {
+            Point[] points = new Point[right.length];
+            for (int i = 0; i < points.length; i++)
+                points[i] = map(i, center, size, vUp, vRight);
+            return points;
+        }
+
+        /**
+         * Place one point of the pattern on a square, for samplers that take the points one by one
+         *
+         * @param index  the index of the point
+         * @param center the center of the square
+         * @param size   the size of the square
+         * @param vUp    the up vector
+         * @param vRight the right vector
+         * @return the point on the square
+         */
+        public Point map(int index, Point center, double size, Vector vUp, Vector vRight) {
+            Double3 c = center.getXyz();
+            Double3 u = vUp.getXyz();
+            Double3 r = vRight.getXyz();
+            double x = right[index] * size;
+            double y = up[index] * size;
+            return new Point(c.getD1() + r.getD1() * x + u.getD1() * y, c.getD2() + r.getD2() * x + u.getD2() * y,
+                    c.getD3() + r.getD3() * x + u.getD3() * y);
+        }
+    }
+
+    /**
+     * Get the grid pattern of a square, row by row from the top left corner
+     *
+     * @param numberOfRays the number of rays, rounded down to a square number
+     * @return the shared pattern
+     */
+    public static Pattern squarePattern(int numberOfRays) {
+        //2x2, 3x3, 9x9, 17x17, 33x33
+        return SQUARES.computeIfAbsent(numberOfRays, n -> of(StandardSampler.GRID.generate(n, 0)));
+    }
+
+    /**
+     * Get the pattern of a sampler on a square
+     *
+     * @param sampler      the sampler
+     * @param numberOfRays the number of rays
+     * @param set          the identifier of the sample set, e.g. of the pixel
+     * @return the pattern, shared for the grid
+     */
+    public static Pattern squarePattern(Sampler sampler, int numberOfRays, long set) {
+        return sampler == StandardSampler.GRID ? squarePattern(numberOfRays) : of(sampler.generate(numberOfRays, set));
+    }
+
+    /**
+     * Get the pattern of a circle: the grid of a square as wide as the radius, without the points outside the circle
+     *
+     * @param numberOfRays the number of rays, rounded down to a square number
+     * @return the shared pattern
+     */
+    public static Pattern circlePattern(int numberOfRays) {
+        return CIRCLES.computeIfAbsent(numberOfRays, n -> inCircle(squarePattern(n)));
+    }
+
+    /**
+     * Get the pattern of a sampler on a circle: on a square as wide as the radius, without the points outside the circle
+     *
+     * @param sampler      the sampler
+     * @param numberOfRays the number of rays
+     * @param set          the identifier of the sample set, e.g. of the bounce
+     * @return the pattern, shared for the grid
+     */
+    public static Pattern circlePattern(Sampler sampler, int numberOfRays, long set) {
+        return sampler == StandardSampler.GRID ? circlePattern(numberOfRays)
+                : inCircle(squarePattern(sampler, numberOfRays, set));
+    }
+
+    /**
+     * Build a pattern from the samples of a sampler
+     *
+     * @param samples the samples in the unit square, to the right and downwards from the top left corner
+     * @return the pattern around the center of the square
+     */
+    private static Pattern of(double[] samples) {
+        double[] right = new double[samples.length / 2];
+        double[] up = new double[samples.length / 2];
+        for (int i = 0; i < right.length; i++) {
+            right[i] = samples[2 * i] - 0.5;
+            up[i] = 0.5 - samples[2 * i + 1];
+        }
+        return new Pattern(right, up);
+    }
+
+    /**
+     * Remove the points of a square pattern that are outside its circle
+     *
+     * @param square the pattern of the square
+     * @return the pattern of the circle
+     */
+    private static Pattern inCircle(Pattern square) {
+        int count = 0;
+        double[] right = new double[square.size()];
+        double[] up = new double[square.size()];
+        //exclude the point if it's not in the circle
+        for (int i = 0; i < square.size(); i++) {
+            if (square.right[i] * square.right[i] + square.up[i] * square.up[i] <= 1) {
+                right[count] = square.right[i];
+                up[count++] = square.up[i];
+            }
+        }
+        return count == right.length ? square : new Pattern(Arrays.copyOf(right, count), Arrays.copyOf(up, count));
+    }
+
     /**
      * Generate points on a square
      *
@@ -23,26 +202,7 @@ public class Blackboard {
      * @return a list of points on the square
      */
     public static LinkedList<Point> generatePointsSquare(Point center, double size, Vector vUp, Vector vRight, int numberOfRays) {
-        LinkedList<Point> points = new LinkedList<>();
-
-        //2x2, 3x3, 9x9, 17x17, 33x33
-        int sqrt = (int) Math.sqrt(numberOfRays);
-        double offset = 1d / ((double) sqrt - 1d);
-
-        //starts at the top left point of the square
-        Point heightPoint = center.add(vUp.scale(size / 2).add(vRight.scale(-size / 2)));
-        Point widthPoint;
-        //moves through the square in a grid pattern row by row
-        for (int i = 0; i < sqrt; i++) {
-            widthPoint = heightPoint;
-            for (int j = 0; j < sqrt; j++) {
-                points.add(widthPoint);
-                widthPoint = widthPoint.add(vRight.scale(size * offset));
-            }
-            heightPoint = heightPoint.add(vUp.scale(-size * offset));
-        }
-
-        return points;
+        return new LinkedList<>(Arrays.asList(squarePattern(numberOfRays).map(center, size, vUp, vRight)));
     }
 
     /**
@@ -55,18 +215,39 @@ public class Blackboard {
      * @return a list of points on the circle
      */
     public static LinkedList<Point> generatePointsCircle(Ray originalRay, Point center, double radius, int numberOfRays) {
-        Vector vUp = originalRay.getDirection().findOrthogonal();
-        Vector vRight = calcVRight(vUp, originalRay.getDirection());
-
-        //LinkedList<Point> points = generatePointsSquare(center, radius * 2, vUp, vRight, numberOfRays);
-        LinkedList<Point> points = generatePointsSquare(center, radius, vUp, vRight, numberOfRays);
-
-        //exclude the point if it's not in the circle
-        points.removeIf(p -> p.distance(center) > radius);
+        return new LinkedList<>(Arrays.asList(mapCircle(originalRay, center, radius, numberOfRays)));
+    }
 
-        return points;
+    /**
+     * Place the circle pattern on the circle around a ray
+     *
+     * @param originalRay  the original ray, normal to the circle
+     * @param center       the center of the circle
+     * @param radius       the radius of the circle
+     * @param numberOfRays the number of rays to generate
+     * @return the points on the circle
+     */
+    public static Point[] mapCircle(Ray originalRay, Point center, double radius, int numberOfRays) {
+        return mapCircle(originalRay, center, radius, numberOfRays, StandardSampler.GRID, 0);
     }
 
+    /**
+     * Place the pattern of a sampler on the circle around a ray
+     *
+     * @param originalRay  the original ray, normal to the circle
+     * @param center       the center of the circle
+     * @param radius       the radius of the circle
+     * @param numberOfRays the number of rays to generate
+     * @param sampler      the sampler
+     * @param set          the identifier of the sample set, e.g. of the bounce
+     * @return the points on the circle
+     */
+    public static Point[] mapCircle(Ray originalRay, Point center, double radius, int numberOfRays,
+                                    Sampler sampler, long set) {
+        Vector vUp = originalRay.getDirection().findOrthogonal();
+        Vector vRight = calcVRight(vUp, originalRay.getDirection());
+        return circlePattern(sampler, numberOfRays, set).map(center, radius, vUp, vRight);
+    }
 
     /**
      * Calculate the right vector that is perpendicular to both vUp and direction
@@ -81,6 +262,47 @@ public class Blackboard {
     }
 
 
+    /**
+     * Adaptive super sampling on a lattice of traced points, so the corners shared with neighbouring pixels
+     * and the midpoints shared by sibling quadrants are traced once
+     * @param lattice the traced points
+     * @param x the lattice column of the left side of the square
+     * @param y the lattice row of the top side of the square
+     * @param size the size of the square in lattice steps
+     * @param centerColor the color of the center
+     * @param depth the depth of the recursion
+     * @return the average color of the 4 quadrants
+     */
+    static Color adaptiveSuperSampling(SampleLattice lattice, long x, long y, long size, Color centerColor, int depth) {
+
+        //stop the recursion
+        if (depth == 0) {
+            return centerColor;
+        }
+
+        Color avgColor = Color.BLACK;
+        long half = size / 2;
+
+        //for each quadrant, by its outer corner: top left, top right, bottom left, bottom right
+        for (int i = 0; i < 4; i++) {
+            Color color = lattice.trace(x + (i % 2) * size, y + (i / 2) * size);
+
+            // if the color is not similar, we need to split the square into 4 smaller squares
+            if (!Color.isColorSimilar(centerColor, color)) {
+                long quadrantX = x + (i % 2) * half;
+                long quadrantY = y + (i / 2) * half;
+                centerColor = lattice.trace(quadrantX + half / 2, quadrantY + half / 2);
+                avgColor = avgColor.add(adaptiveSuperSampling(lattice, quadrantX, quadrantY, half, centerColor, depth - 1));
+            }
+            // if the color is similar, we can just add the color to the average
+            else
+                avgColor = avgColor.add(color);
+        }
+
+        // return the average color of the 4 quadrants
+        return avgColor.reduce(4);
+    }
+
     /**
      * Adaptive super sampling
      * @param points the 4 points of the square
@@ -1,19 +1,53 @@
 package renderer;
 
 import org.junit.jupiter.api.extension.BeforeAllCallback;
+import geometries.BoundingBox;
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
+import primitives.Double3;
 import primitives.Point;
 import primitives.Vector;
 import primitives.Ray;
-
-import java.util.LinkedList;
+import primitives.Sampler;
+import primitives.StandardSampler;
+import scene.Scene;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
-import java.util.stream.*;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Represents a camera used for rendering images.
  */
 public class Camera implements Cloneable {
+    /**
+     * The standard error of the pixel luminance under which a pixel needs no more samples,
+     * half a level of the written image.
+     */
+    private static final double CONVERGED_ERROR = 0.5;
+    /**
+     * The amount of rays adaptive sampling adds to a pixel between checks of its error.
+     */
+    private static final int ADAPTIVE_BATCH = 4;
+    /**
+     * The deepest adaptive super sampling, which keeps its sample lattice within the range of its keys.
+     */
+    static final int MAX_ADAPTIVE_DEPTH = 10;
+
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
     private Point location;
@@ -25,14 +59,132 @@ public class Camera implements Cloneable {
     private double distance = 0d;
     private Point ViewPlaneCenter;
     private int totalRays = 1;
+    private Sampler sampler = StandardSampler.GRID;
     private int threads = 1;
     private double printInterval = 0;
-    private PixelManager pixelManager;
     private int adaptiveDepth = 0;
+    private double adaptiveError = 0;
+    private int adaptiveMinRays = 4;
+    private double edgeContrast = 0;
+    private int tileSize = 16;
+    private TileScheduler.Order tileOrder = TileScheduler.Order.HILBERT;
+    private List<TileScheduler.TileTime> tileTimes = List.of();
+    private AccumulationBuffer accumulation;
+    private int regionX = 0;
+    private int regionY = 0;
+    private int regionWidth = 0;
+    private int regionHeight = 0;
+    private Path checkpointFile = null;
+    private Duration checkpointInterval = Duration.ofMinutes(1);
 
     private Camera() {
     }
 
+    /**
+     * Calculates the colors of the pixels of a tile.
+     */
+    @FunctionalInterface
+    private interface TileSampler {
+        /**
+         * Calculates the colors of the pixels of a tile.
+         *
+         * @param tile The tile.
+         * @return The colors of the pixels, row by row.
+         */
+        Color[] sample(TileScheduler.Tile tile);
+    }
+
+    /**
+     * Renders some tiles on the threads of a rendering.
+     */
+    @FunctionalInterface
+    private interface TileRunner {
+        /**
+         * Renders some tiles.
+         *
+         * @param tiles The tiles to render, in rendering order.
+         * @param work  Renders one tile.
+         * @return The rendering time of every tile, in rendering order.
+         */
+        List<TileScheduler.TileTime> run(List<TileScheduler.Tile> tiles, Consumer<TileScheduler.Tile> work);
+    }
+
+    /**
+     * Receives the image after every pass of a progressive rendering.
+     */
+    @FunctionalInterface
+    public interface PassListener {
+        /**
+         * Called after a pass of a progressive rendering.
+         *
+         * @param pass  The amount of passes done so far.
+         * @param image The image after the pass, with the mean of all the samples so far.
+         * @param error The estimated error of the image, as the root mean square of the standard errors
+         *              of the pixel luminance; infinity after the first pass.
+         * @return Whether to go on with another pass.
+         */
+        boolean passDone(int pass, ImageWriter image, double error);
+    }
+
+    /**
+     * The settings a {@link RenderWorker} needs to trace the pixels of a camera in another process:
+     * the scene, the kind of ray tracer, the view, the image size and the sampling.
+     *
+     * @param scene           The scene.
+     * @param rayTracer       The class of the ray tracer, which must have a public constructor taking the scene.
+     * @param location        The location of the camera.
+     * @param vTo             The view direction.
+     * @param vUp             The up direction.
+     * @param vRight          The right direction.
+     * @param viewPlaneCenter The center of the view plane.
+     * @param width           The width of the view plane.
+     * @param height          The height of the view plane.
+     * @param nX              The width of the image in pixels.
+     * @param nY              The height of the image in pixels.
+     * @param totalRays       The amount of rays per pixel.
+     * @param sampler         The sampler of the rays in a pixel.
+     * @param adaptiveDepth   The adaptive super sampling depth.
+     * @param adaptiveError   The standard error under which adaptive sampling stops a pixel, 0 if it is not used.
+     * @param adaptiveMinRays The amount of rays per pixel before adaptive sampling may stop it.
+     * @param edgeContrast    The luminance difference over which neighbouring pixels are supersampled,
+     *                        0 if edge antialiasing is not used.
+     */
+    record Setup(Scene scene, Class<? extends RayTracerBase> rayTracer, Point location, Vector vTo, Vector vUp,
+                 Vector vRight, Point viewPlaneCenter, double width, double height, int nX, int nY, int totalRays,
+                 Sampler sampler, int adaptiveDepth, double adaptiveError, int adaptiveMinRays, double edgeContrast)
+            implements Serializable {
+        /**
+         * Builds a camera with the settings, rendering on the calling thread into an image that is not written.
+         * The view is copied as it is rather than derived again, so the rays are the same as in the original camera.
+         *
+         * @return The camera.
+         * @throws IllegalArgumentException if the ray tracer cannot be constructed.
+         */
+        Camera camera() {
+            Camera camera = new Camera();
+            try {
+                camera.rayTracer = rayTracer.getConstructor(Scene.class).newInstance(scene);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot construct the ray tracer " + rayTracer.getName(), e);
+            }
+            camera.imageWriter = new ImageWriter("worker", nX, nY);
+            camera.location = location;
+            camera.vTo = vTo;
+            camera.vUp = vUp;
+            camera.vRight = vRight;
+            camera.ViewPlaneCenter = viewPlaneCenter;
+            camera.width = width;
+            camera.height = height;
+            camera.totalRays = totalRays;
+            camera.sampler = sampler;
+            camera.adaptiveDepth = adaptiveDepth;
+            camera.adaptiveError = adaptiveError;
+            camera.adaptiveMinRays = adaptiveMinRays;
+            camera.edgeContrast = edgeContrast;
+            return camera;
+        }
+    }
+
     /**
      * Gets a new builder instance for creating a camera.
      *
@@ -94,6 +246,14 @@ public class Camera implements Cloneable {
         return totalRays;
     }
 
+    /**
+     * Gets the sampler of the rays in a pixel.
+     * @return The sampler.
+     */
+    public Sampler getSampler() {
+        return sampler;
+    }
+
     /**
      * Gets the number of threads used for rendering.
      * @return The number of threads used for rendering.
@@ -126,6 +286,46 @@ public class Camera implements Cloneable {
         return adaptiveDepth;
     }
 
+    /**
+     * Gets the standard error under which adaptive sampling stops a pixel.
+     * @return The standard error of the pixel luminance, 0 if adaptive sampling is not used.
+     */
+    public double getAdaptiveError() {
+        return adaptiveError;
+    }
+
+    /**
+     * Gets the luminance contrast over which neighbouring pixels are supersampled as an edge.
+     * @return The contrast, 0 if every pixel is supersampled.
+     */
+    public double getEdgeContrast() {
+        return edgeContrast;
+    }
+
+    /**
+     * Gets the side of the rendering tiles.
+     * @return The side of a tile in pixels.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Gets the rendering times of the tiles of the last rendered image.
+     * @return The time of every tile, in rendering order; empty before the first rendering.
+     */
+    public List<TileScheduler.TileTime> getTileTimes() {
+        return tileTimes;
+    }
+
+    /**
+     * Gets the amount of samples traced through every pixel in the last progressive or time bounded rendering.
+     * @return The sample counts by row and then column, or null if there was no such rendering.
+     */
+    public int[][] getSampleCounts() {
+        return accumulation == null ? null : accumulation.getCounts();
+    }
+
     /**
      * Prints a grid on the image with the specified interval and color.
      * @param interval The interval between grid lines.
@@ -156,33 +356,754 @@ public class Camera implements Cloneable {
 
     /**
      * Renders the image by casting rays through each pixel and tracing them in the scene.
+     * The image is rendered in tiles, on exactly as many threads as were requested;
+     * the time of every tile is kept for {@link #getTileTimes()}.
+     * If a region was set, only its pixels are rendered.
+     * With a checkpoint file, the finished tiles are saved periodically and a restarted rendering resumes from them.
      */
     public Camera renderImage() {
         int nX = imageWriter.getNx();
         int nY = imageWriter.getNy();
 
-        //single thread
-        if (threads == 1) {
-            for (int j = 0; j < nX; j++) {
-                for (int i = 0; i < nY; i++) {
-                    castRay(nX, nY, j, i);
+        accumulation = null;
+        RenderProgress progress = new RenderProgress(regionSize(), printInterval);
+        TileScheduler scheduler = scheduler();
+        if (checkpointFile == null && adaptiveRounds()) {
+            renderAdaptive(scheduler, (tiles, work) -> TileScheduler.run(threads, tiles, work), progress, () -> false);
+            return this;
+        }
+        if (checkpointFile == null) {
+            tileTimes = scheduler.run(threads, tile -> renderTile(tile, nX, nY, progress, () -> false));
+            return this;
+        }
+
+        Checkpoint checkpoint = openCheckpoint("image", scheduler);
+        renderPass(checkpoint, scheduler, tile -> traceTile(tile, nX, nY, progress, () -> false), progress);
+        checkpoint.close();
+        return this;
+    }
+
+    /**
+     * Checks whether the pixels take variance driven adaptive sampling in rounds, which edge antialiasing replaces.
+     *
+     * @return Whether adaptive sampling is used without edge antialiasing.
+     */
+    private boolean adaptiveRounds() {
+        return edgeContrast == 0 && adaptiveError > 0 && totalRays > 1;
+    }
+
+    /**
+     * Checks whether only the pixels on edges are supersampled.
+     *
+     * @return Whether edge antialiasing is used with some supersampling.
+     */
+    private boolean edgeSampling() {
+        return edgeContrast > 0 && (totalRays > 1 || adaptiveDepth > 0);
+    }
+
+    /**
+     * Renders the image with variance driven adaptive sampling, over the whole image at once.
+     * Every pixel first takes the minimal amount of rays; then, in rounds, the pixels whose estimated error is still
+     * above the adaptive error take another batch of rays, until every pixel converged or took all its rays.
+     * The error of a pixel is estimated by {@link AccumulationBuffer#getAdaptiveError(int, int)}, which also looks
+     * at its neighbours, so a pixel whose first rays missed a small part of an edge is sampled again.
+     * The amount of rays of every pixel is kept for {@link #getSampleCounts()}.
+     *
+     * @param scheduler The tiles of the image.
+     * @param runner    Renders the tiles of every round on the threads of the rendering.
+     * @param progress  Counts the pixels of the first round.
+     * @param cancelled Tells whether to stop, checked before every pixel.
+     */
+    private void renderAdaptive(TileScheduler scheduler, TileRunner runner, RenderProgress progress,
+                                BooleanSupplier cancelled) {
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+        AccumulationBuffer buffer = accumulation = new AccumulationBuffer(nX, nY);
+        int first = Math.min(adaptiveMinRays, totalRays);
+        tileTimes = runner.run(scheduler.getTiles(), tile -> {
+            for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                    if (cancelled.getAsBoolean()) return;
+                    addAdaptiveSamples(buffer, 0, 0, j, i, first);
+                    imageWriter.writePixel(j, i, buffer.getColor(j, i));
+                    progress.pixelDone();
+                }
+            }
+        });
+
+        while (!cancelled.getAsBoolean()) {
+            // choose the pixels of this round before any of them is sampled again
+            boolean[] selected = new boolean[nX * nY];
+            List<TileScheduler.Tile> tiles = new ArrayList<>();
+            for (TileScheduler.Tile tile : scheduler.getTiles()) {
+                boolean any = false;
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                        if (buffer.getCount(j, i) < totalRays && buffer.getAdaptiveError(j, i) > adaptiveError) {
+                            selected[i * nX + j] = true;
+                            any = true;
+                        }
+                    }
                 }
+                if (any) tiles.add(tile);
             }
+            if (tiles.isEmpty()) break;
+
+            runner.run(tiles, tile -> {
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                        if (cancelled.getAsBoolean()) return;
+                        if (!selected[i * nX + j]) continue;
+                        addAdaptiveSamples(buffer, 0, 0, j, i, ADAPTIVE_BATCH);
+                        imageWriter.writePixel(j, i, buffer.getColor(j, i));
+                    }
+                }
+            });
         }
+    }
 
-        //multithreading
-        else{
-            pixelManager = new PixelManager(nX, nY, printInterval);
-            IntStream.range(0,nY).parallel().forEach(i ->{
-                IntStream.range(0,nX).forEach(j ->{
-                    castRay(nX, nY, j, i);
-                    pixelManager.pixelDone();
-                });
+    /**
+     * Traces the next rays of a pixel for adaptive sampling.
+     *
+     * @param buffer The samples of the pixels of a part of the image.
+     * @param x0     The column of the image where the buffer starts.
+     * @param y0     The row of the image where the buffer starts.
+     * @param j      The column of the pixel in the image.
+     * @param i      The row of the pixel in the image.
+     * @param count  The amount of rays to add, fewer if the pixel has no more rays.
+     */
+    private void addAdaptiveSamples(AccumulationBuffer buffer, int x0, int y0, int j, int i, int count) {
+        int nX = imageWriter.getNx();
+        Blackboard.Pattern pattern = adaptivePattern(nX, j, i);
+        Point pIJ = pixelCenter(nX, imageWriter.getNy(), j, i);
+        double size = width / nX;
+        int n = buffer.getCount(j - x0, i - y0);
+        for (int k = n; k < Math.min(n + count, pattern.size()); k++) {
+            Point p = pattern.map(k, pIJ, size, vUp, vRight);
+            buffer.add(j - x0, i - y0, rayTracer.traceRay(new Ray(location, p.subtract(location))));
+        }
+    }
+
+    /**
+     * Renders the images of several cameras as one rendering, e.g. the views of a stereo pair or a turntable.
+     * The scene of the cameras is prepared once, however many of them share it, and the tiles of all the views
+     * are interleaved and rendered together on one pool, so the threads do not idle at the end of every view.
+     * Every camera renders into its own image with its own sampling and region, like {@link #renderImage()},
+     * and keeps the times of its own tiles; the thread and checkpoint settings of the cameras are not used,
+     * and the progress is printed at the interval of the first camera.
+     * Cameras with variance driven adaptive sampling render after the others, one at a time,
+     * since their rounds over the whole image cannot be interleaved with other tiles.
+     *
+     * @param cameras The cameras.
+     * @param threads The amount of rendering threads.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    public static void renderImages(List<Camera> cameras, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("There must be at least one rendering thread");
+        Set<Scene> scenes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Camera camera : cameras)
+            if (scenes.add(camera.rayTracer.scene)) camera.rayTracer.scene.geometries.prepare();
+
+        // take the tiles of the views in turns
+        List<Camera> tiled = new ArrayList<>();
+        List<List<TileScheduler.Tile>> views = new ArrayList<>();
+        int count = 0;
+        long pixels = 0;
+        for (Camera camera : cameras) {
+            pixels += camera.regionSize();
+            if (camera.adaptiveRounds()) continue;
+            tiled.add(camera);
+            views.add(camera.scheduler().getTiles());
+            count += views.getLast().size();
+        }
+        List<TileScheduler.Tile> tiles = new ArrayList<>(count);
+        List<Integer> owners = new ArrayList<>(count);
+        for (int k = 0; tiles.size() < count; k++) {
+            for (int v = 0; v < views.size(); v++) {
+                if (k < views.get(v).size()) {
+                    tiles.add(views.get(v).get(k));
+                    owners.add(v);
+                }
+            }
+        }
+
+        RenderProgress progress = new RenderProgress(pixels, cameras.isEmpty() ? 0 : cameras.getFirst().printInterval);
+        List<TileScheduler.TileTime> times = TileScheduler.runIndexed(threads, tiles, t -> {
+            Camera camera = tiled.get(owners.get(t));
+            camera.renderTile(tiles.get(t), camera.imageWriter.getNx(), camera.imageWriter.getNy(), progress,
+                    () -> false);
+        });
+
+        List<List<TileScheduler.TileTime>> viewTimes = new ArrayList<>();
+        for (int v = 0; v < tiled.size(); v++) viewTimes.add(new ArrayList<>());
+        for (int t = 0; t < times.size(); t++) viewTimes.get(owners.get(t)).add(times.get(t));
+        for (int v = 0; v < tiled.size(); v++) {
+            tiled.get(v).accumulation = null;
+            tiled.get(v).tileTimes = viewTimes.get(v);
+        }
+
+        for (Camera camera : cameras)
+            if (camera.adaptiveRounds())
+                camera.renderAdaptive(camera.scheduler(), (rounds, work) -> TileScheduler.run(threads, rounds, work),
+                        progress, () -> false);
+    }
+
+    /**
+     * Splits the rendered region of the image into tiles.
+     *
+     * @return The tiles of the region, or of the whole image if no region was set.
+     */
+    private TileScheduler scheduler() {
+        return regionWidth == 0
+                ? new TileScheduler(imageWriter.getNx(), imageWriter.getNy(), tileSize, tileOrder)
+                : new TileScheduler(regionX, regionY, regionWidth, regionHeight, tileSize, tileOrder);
+    }
+
+    /**
+     * Counts the pixels of the rendered region.
+     *
+     * @return The amount of pixels in the region, or in the whole image if no region was set.
+     */
+    private long regionSize() {
+        return regionWidth == 0 ? (long) imageWriter.getNx() * imageWriter.getNy() : (long) regionWidth * regionHeight;
+    }
+
+    /**
+     * Estimates the error of the rendered region.
+     *
+     * @param buffer The samples of the image.
+     * @return The error of the region, or of the whole image if no region was set.
+     */
+    private double regionError(AccumulationBuffer buffer) {
+        return regionWidth == 0 ? buffer.getError() : buffer.getError(regionX, regionY, regionWidth, regionHeight);
+    }
+
+    /**
+     * Opens the checkpoint of a rendering, and shows the resumed pixels in the image.
+     *
+     * @param mode      The rendering mode, so renderings of different modes do not resume each other.
+     * @param scheduler The tiles of the image.
+     * @return The checkpoint.
+     */
+    private Checkpoint openCheckpoint(String mode, TileScheduler scheduler) {
+        Checkpoint checkpoint = Checkpoint.open(checkpointFile, checkpointInterval, checkpointKey(mode),
+                imageWriter.getNx(), imageWriter.getNy(), scheduler.getTiles().size());
+        AccumulationBuffer buffer = checkpoint.getBuffer();
+        for (int i = 0; i < buffer.getNy(); i++)
+            for (int j = 0; j < buffer.getNx(); j++)
+                if (buffer.getCount(j, i) > 0) imageWriter.writePixel(j, i, buffer.getColor(j, i));
+        return checkpoint;
+    }
+
+    /**
+     * Calculates the key of a checkpoint: a hash of the rendering mode, the camera and image settings,
+     * and an outline of the scene (its name, background, ambient light, bounds and amount of lights).
+     * Changes to the scene within its bounds, such as materials, are not noticed;
+     * the checkpoint file must be deleted after such changes.
+     *
+     * @param mode The rendering mode.
+     * @return The SHA-256 hash of the settings.
+     */
+    private byte[] checkpointKey(String mode) {
+        Scene scene = rayTracer.scene;
+        BoundingBox box = scene.geometries.getBoundingBox();
+        StringBuilder settings = new StringBuilder(mode)
+                .append('|').append(location).append('|').append(vTo).append('|').append(vUp)
+                .append('|').append(width).append('|').append(height).append('|').append(distance)
+                .append('|').append(imageWriter.getNx()).append('|').append(imageWriter.getNy())
+                .append('|').append(totalRays).append('|').append(sampler).append('|').append(adaptiveDepth)
+                .append('|').append(adaptiveError).append('|').append(adaptiveMinRays).append('|').append(edgeContrast)
+                .append('|').append(tileSize).append('|').append(tileOrder)
+                .append('|').append(regionX).append('|').append(regionY)
+                .append('|').append(regionWidth).append('|').append(regionHeight)
+                .append('|').append(scene.name).append('|').append(scene.background)
+                .append('|').append(scene.ambientLight.getIntensity()).append('|').append(scene.lights.size());
+        for (int axis = 0; axis < 3; axis++)
+            settings.append('|').append(box.getMin(axis)).append('|').append(box.getMax(axis));
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(settings.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Renders a pass over the tiles not finished yet in a checkpoint.
+     * Every tile is sampled aside and committed whole, so the checkpoint never saves part of a tile.
+     *
+     * @param checkpoint The checkpoint, with the samples of the rendering.
+     * @param scheduler  The tiles of the image.
+     * @param sampler    Calculates the samples of the pixels of a tile in this pass.
+     * @param progress   Counts the pixels of the tiles finished before; may be null.
+     */
+    private void renderPass(Checkpoint checkpoint, TileScheduler scheduler, TileSampler sampler,
+                            RenderProgress progress) {
+        List<TileScheduler.Tile> all = scheduler.getTiles();
+        Map<TileScheduler.Tile, Integer> indices = new HashMap<>();
+        List<TileScheduler.Tile> tiles = new ArrayList<>();
+        for (int t = 0; t < all.size(); t++) {
+            indices.put(all.get(t), t);
+            if (!checkpoint.isFinished(t)) tiles.add(all.get(t));
+            else if (progress != null) progress.pixelsDone((long) all.get(t).width() * all.get(t).height());
+        }
+
+        AccumulationBuffer buffer = checkpoint.getBuffer();
+        tileTimes = TileScheduler.run(threads, tiles, tile -> {
+            Color[] colors = sampler.sample(tile);
+            checkpoint.commit(indices.get(tile), () -> {
+                int n = 0;
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                        buffer.add(j, i, colors[n++]);
+                        imageWriter.writePixel(j, i, buffer.getColor(j, i));
+                    }
+                }
             });
+        });
+    }
+
+    /**
+     * Starts rendering the image in the background, like {@link #renderImage()} without a checkpoint file,
+     * on a pool of its own with the amount of threads of the camera.
+     *
+     * @return The handle of the rendering, with its result, progress and cancelling.
+     */
+    public RenderJob renderAsync() {
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+
+        accumulation = null;
+        TileScheduler scheduler = scheduler();
+        RenderJob job = new RenderJob(threads, new RenderProgress(regionSize(), printInterval));
+        job.start(pool -> {
+            if (adaptiveRounds())
+                renderAdaptive(scheduler, (tiles, work) -> TileScheduler.run(pool, tiles, work), job.getProgress(),
+                        job::isCancelled);
+            else
+                tileTimes = TileScheduler.run(pool, scheduler.getTiles(),
+                        tile -> renderTile(tile, nX, nY, job.getProgress(), job::isCancelled));
+            return imageWriter;
+        });
+        return job;
+    }
+
+    /**
+     * Renders the image on the shared threads of a queue, like {@link #renderAsync()}.
+     * With variance driven adaptive sampling, every tile takes its rounds on its own, as in {@link #traceTile}.
+     *
+     * @param queue    The queue.
+     * @param priority The priority of the image in the queue.
+     * @return The handle of the rendering.
+     */
+    RenderJob renderQueued(RenderQueue queue, int priority) {
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+
+        accumulation = null;
+        tileTimes = List.of();
+        RenderJob job = new RenderJob(new RenderProgress(regionSize(), printInterval));
+        queue.schedule(job, rayTracer.scene, priority, scheduler().getTiles(),
+                tile -> renderTile(tile, nX, nY, job.getProgress(), job::isCancelled), imageWriter);
+        return job;
+    }
+
+    /**
+     * Renders the image on {@link RenderWorker} processes, like {@link #renderImage()}.
+     * The scene and the camera settings are serialized to every worker that connects to the coordinator,
+     * the tiles are handed out as the workers ask for them, and the returned pixels are written to the image.
+     * The tiles of a worker that fails are rendered by the others. If a region was set, only its pixels are rendered.
+     * With variance driven adaptive sampling, every tile takes its rounds on its own, as in {@link #traceTile}.
+     *
+     * @param coordinator The coordinator the workers connect to.
+     * @return The camera itself.
+     * @throws IllegalArgumentException if the scene cannot be serialized.
+     * @throws IllegalStateException    if no worker was connected for longer than the timeout of the coordinator.
+     */
+    public Camera renderDistributed(RenderCoordinator coordinator) {
+        accumulation = null;
+        tileTimes = List.of();
+        RenderProgress progress = new RenderProgress(regionSize(), printInterval);
+        Setup setup = new Setup(rayTracer.scene, rayTracer.getClass(), location, vTo, vUp, vRight, ViewPlaneCenter,
+                width, height, imageWriter.getNx(), imageWriter.getNy(), totalRays, sampler,
+                adaptiveDepth, adaptiveError, adaptiveMinRays, edgeContrast);
+        coordinator.render(setup, scheduler().getTiles(), (tile, colors) -> {
+            int k = 0;
+            for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+                for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                    imageWriter.writePixel(j, i, colors[k++]);
+            progress.pixelsDone(colors.length);
+        });
+        return this;
+    }
+
+    /**
+     * Gets the image the camera renders into.
+     *
+     * @return The image writer.
+     */
+    ImageWriter getImageWriter() {
+        return imageWriter;
+    }
+
+    /**
+     * Checks whether another camera traces the same rays through the same pixels as this camera.
+     *
+     * @param other The other camera.
+     * @return Whether the cameras have the same place, direction, view plane and image size.
+     */
+    boolean hasSameView(Camera other) {
+        return location.equals(other.location) && vTo.equals(other.vTo) && vUp.equals(other.vUp)
+                && width == other.width && height == other.height && distance == other.distance
+                && imageWriter.getNx() == other.imageWriter.getNx() && imageWriter.getNy() == other.imageWriter.getNy();
+    }
+
+    /**
+     * Projects a point of the scene onto the image, inverting {@link #constructRay(int, int, int, int)}.
+     *
+     * @param p The point.
+     * @return The column and row of the image where the point is seen, as fractions where whole numbers are
+     * pixel centers, or null if the point is not in front of the camera.
+     */
+    double[] project(Point p) {
+        if (p.equals(location)) return null;
+        Vector d = p.subtract(location);
+        double depth = d.dotProduct(vTo);
+        if (depth <= 0) return null;
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+        Vector q = d.scale(distance / depth);
+        return new double[]{
+                q.dotProduct(vRight) * nX / height + (nX - 1) / 2d,
+                -q.dotProduct(vUp) * nY / width + (nY - 1) / 2d};
+    }
+
+    /**
+     * Renders a single pixel of the image, with the sampling settings of the camera, without writing it.
+     *
+     * @param j The column of the pixel.
+     * @param i The row of the pixel.
+     * @return The color of the pixel.
+     */
+    Color renderPixel(int j, int i) {
+        return castRay(imageWriter.getNx(), imageWriter.getNy(), j, i);
+    }
+
+    /**
+     * Renders the pixels of a tile and writes them to the image.
+     *
+     * @param tile      The tile.
+     * @param nX        The width of the image.
+     * @param nY        The height of the image.
+     * @param progress  Counts the rendered pixels.
+     * @param cancelled Tells whether to stop, checked before every pixel.
+     */
+    private void renderTile(TileScheduler.Tile tile, int nX, int nY, RenderProgress progress,
+                            BooleanSupplier cancelled) {
+        Color[] colors = traceTile(tile, nX, nY, progress, cancelled);
+        if (colors == null) return;
+        int k = 0;
+        for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+            for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                imageWriter.writePixel(j, i, colors[k++]);
+    }
+
+    /**
+     * Renders the pixels of a tile with the sampling settings of the camera, without writing them.
+     * With edge antialiasing, only the pixels of the tile on an edge are supersampled, as in {@link #traceEdges};
+     * with variance driven adaptive sampling, the tile takes its rounds on its own, as in {@link #traceAdaptive}.
+     * Every tile thus renders alone, on any thread or worker, like the whole image would.
+     *
+     * @param tile      The tile.
+     * @param nX        The width of the image.
+     * @param nY        The height of the image.
+     * @param progress  Counts the rendered pixels; may be null.
+     * @param cancelled Tells whether to stop, checked before every pixel.
+     * @return The colors of the pixels, row by row, or null if the rendering was cancelled.
+     */
+    Color[] traceTile(TileScheduler.Tile tile, int nX, int nY, RenderProgress progress, BooleanSupplier cancelled) {
+        if (edgeSampling()) return traceEdges(tile, nX, nY, progress, cancelled);
+        if (adaptiveRounds()) return traceAdaptive(tile, progress, cancelled);
+
+        Color[] colors = new Color[tile.width() * tile.height()];
+        SampleLattice lattice = adaptiveDepth > 0 ? sampleLattice(nX, nY) : null;
+        int k = 0;
+        for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+            for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                if (cancelled.getAsBoolean()) return null;
+                colors[k++] = castRay(nX, nY, j, i, lattice);
+                if (progress != null) progress.pixelDone();
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Renders the pixels of a tile in two passes, supersampling only the edges.
+     * The first pass traces one ray through the center of every pixel of the tile, and of the ring of pixels
+     * around it, and keeps its hit in a {@link GeometryBuffer}; the second pass supersamples, as
+     * {@link #castRay(int, int, int, int)} does, only the pixels of the tile on an edge with one of their neighbours:
+     * silhouettes, creases, material borders and luminance contrasts such as shadow edges.
+     * The cost of supersampling thus grows with the length of the edges rather than with the image,
+     * and the ring finds the edges on the border of the tile as in the whole image.
+     *
+     * @param tile      The tile.
+     * @param nX        The width of the image.
+     * @param nY        The height of the image.
+     * @param progress  Counts the pixels of the first pass; may be null.
+     * @param cancelled Tells whether to stop, checked before every pixel.
+     * @return The colors of the pixels, row by row, or null if the rendering was cancelled.
+     */
+    private Color[] traceEdges(TileScheduler.Tile tile, int nX, int nY, RenderProgress progress,
+                               BooleanSupplier cancelled) {
+        int x0 = Math.max(tile.x() - 1, 0);
+        int y0 = Math.max(tile.y() - 1, 0);
+        int x1 = Math.min(tile.x() + tile.width() + 1, nX);
+        int y1 = Math.min(tile.y() + tile.height() + 1, nY);
+        GeometryBuffer buffer = new GeometryBuffer(x1 - x0, y1 - y0);
+        Color[] colors = new Color[tile.width() * tile.height()];
+        for (int i = y0; i < y1; i++) {
+            for (int j = x0; j < x1; j++) {
+                if (cancelled.getAsBoolean()) return null;
+                Ray ray = constructRay(nX, nY, j, i);
+                GeoPoint gp = rayTracer.findClosestIntersection(ray);
+                Color color = gp == null ? rayTracer.scene.background : rayTracer.calcColor(gp, ray);
+                buffer.set(j - x0, i - y0, gp, ray, color);
+                if (!tile.contains(j, i)) continue;
+                colors[(i - tile.y()) * tile.width() + j - tile.x()] = color;
+                if (progress != null) progress.pixelDone();
+            }
+        }
+
+        SampleLattice lattice = adaptiveDepth > 0 ? sampleLattice(nX, nY) : null;
+        int k = 0;
+        for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+            for (int j = tile.x(); j < tile.x() + tile.width(); j++, k++) {
+                if (cancelled.getAsBoolean()) return null;
+                if (buffer.isEdge(j - x0, i - y0, edgeContrast)) colors[k] = castRay(nX, nY, j, i, lattice);
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Renders the pixels of a tile with variance driven adaptive sampling, in rounds over the tile
+     * as {@link #renderAdaptive} takes them over the whole image.
+     * The ring of pixels around the tile takes the minimal amount of rays too, so the estimated error
+     * of the pixels on the border of the tile also looks at their neighbours in the next tiles.
+     *
+     * @param tile      The tile.
+     * @param progress  Counts the pixels of the first round; may be null.
+     * @param cancelled Tells whether to stop, checked before every pixel.
+     * @return The colors of the pixels, row by row, or null if the rendering was cancelled.
+     */
+    private Color[] traceAdaptive(TileScheduler.Tile tile, RenderProgress progress, BooleanSupplier cancelled) {
+        int x0 = Math.max(tile.x() - 1, 0);
+        int y0 = Math.max(tile.y() - 1, 0);
+        int x1 = Math.min(tile.x() + tile.width() + 1, imageWriter.getNx());
+        int y1 = Math.min(tile.y() + tile.height() + 1, imageWriter.getNy());
+        AccumulationBuffer buffer = new AccumulationBuffer(x1 - x0, y1 - y0);
+        int first = Math.min(adaptiveMinRays, totalRays);
+        for (int i = y0; i < y1; i++) {
+            for (int j = x0; j < x1; j++) {
+                if (cancelled.getAsBoolean()) return null;
+                addAdaptiveSamples(buffer, x0, y0, j, i, first);
+                if (progress != null && tile.contains(j, i)) progress.pixelDone();
+            }
+        }
+
+        while (true) {
+            // choose the pixels of this round before any of them is sampled again
+            boolean[] selected = new boolean[tile.width() * tile.height()];
+            boolean any = false;
+            int k = 0;
+            for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                for (int j = tile.x(); j < tile.x() + tile.width(); j++, k++) {
+                    if (buffer.getCount(j - x0, i - y0) < totalRays
+                            && buffer.getAdaptiveError(j - x0, i - y0) > adaptiveError) {
+                        selected[k] = true;
+                        any = true;
+                    }
+                }
+            }
+            if (!any) break;
+
+            k = 0;
+            for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                for (int j = tile.x(); j < tile.x() + tile.width(); j++, k++) {
+                    if (cancelled.getAsBoolean()) return null;
+                    if (selected[k]) addAdaptiveSamples(buffer, x0, y0, j, i, ADAPTIVE_BATCH);
+                }
+            }
+        }
+
+        Color[] colors = new Color[tile.width() * tile.height()];
+        int k = 0;
+        for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+            for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                colors[k++] = buffer.getColor(j - x0, i - y0);
+        return colors;
+    }
+
+    /**
+     * Renders the image progressively, one sample per pixel in every pass.
+     * The first pass traces the pixel centers, so it gives the plain image; every further pass adds a sample
+     * at another place inside every pixel (along the Halton sequence) and the image shows the mean of the samples.
+     * Super sampling and adaptive depth settings are not used in this mode; the passes take their place.
+     * With a checkpoint file, the samples are saved periodically and a restarted rendering resumes from them.
+     *
+     * @param passes   The maximal amount of passes, which is the amount of samples per pixel.
+     * @param listener Called after every pass with the image so far, and may stop the rendering; may be null.
+     * @return The camera itself.
+     * @throws IllegalArgumentException if the amount of passes is not positive.
+     */
+    public Camera renderProgressive(int passes, PassListener listener) {
+        if (passes < 1) throw new IllegalArgumentException("Progressive rendering needs at least one pass");
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+
+        TileScheduler scheduler = scheduler();
+        if (checkpointFile != null) {
+            Checkpoint checkpoint = openCheckpoint("progressive", scheduler);
+            AccumulationBuffer buffer = accumulation = checkpoint.getBuffer();
+            for (int pass = checkpoint.getPass(); pass < passes; pass++) {
+                renderPass(checkpoint, scheduler, tile -> {
+                    Color[] colors = new Color[tile.width() * tile.height()];
+                    int k = 0;
+                    for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+                        for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                            colors[k++] = sampleColor(buffer, j, i);
+                    return colors;
+                }, null);
+                checkpoint.nextPass();
+                if (listener != null && !listener.passDone(pass + 1, imageWriter, regionError(buffer))) break;
+            }
+            checkpoint.close();
+            return this;
+        }
+
+        AccumulationBuffer buffer = accumulation = new AccumulationBuffer(nX, nY);
+        for (int pass = 0; pass < passes; pass++) {
+            tileTimes = scheduler.run(threads, tile -> {
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                        addSample(buffer, j, i);
+            });
+            if (listener != null && !listener.passDone(pass + 1, imageWriter, regionError(buffer))) break;
         }
         return this;
     }
 
+    /**
+     * Renders the image within a time budget.
+     * A primary pass through the pixel centers always finishes, whatever the budget.
+     * Then, until the budget runs out, rounds of samples are added to the pixels that need them most:
+     * pixels that differ from their neighbours, and then pixels whose samples still disagree,
+     * until their standard error is below half a level of the written image.
+     * Tiles with more such pixels are sampled first in every round. The rendering stops early
+     * when every pixel has converged; the amount of samples per pixel is kept for {@link #getSampleCounts()}.
+     * Super sampling and adaptive depth settings are not used in this mode.
+     *
+     * @param budget The wall clock time to render within.
+     * @return The camera itself.
+     */
+    public Camera renderImage(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+
+        AccumulationBuffer buffer = accumulation = new AccumulationBuffer(nX, nY);
+        TileScheduler scheduler = scheduler();
+        tileTimes = scheduler.run(threads, tile -> {
+            for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+                for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                    addSample(buffer, j, i);
+        });
+
+        while (System.nanoTime() < deadline) {
+            // choose the pixels of this round before any of them is sampled again
+            boolean[] selected = new boolean[nX * nY];
+            List<TileScheduler.Tile> tiles = new ArrayList<>();
+            Map<TileScheduler.Tile, Double> weights = new HashMap<>();
+            for (TileScheduler.Tile tile : scheduler.getTiles()) {
+                double weight = 0;
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                        double priority = buffer.getPriority(j, i);
+                        if (priority > CONVERGED_ERROR) {
+                            selected[i * nX + j] = true;
+                            weight += priority;
+                        }
+                    }
+                }
+                if (weight > 0) {
+                    tiles.add(tile);
+                    weights.put(tile, weight);
+                }
+            }
+            if (tiles.isEmpty()) break;
+            tiles.sort(Comparator.comparing(weights::get).reversed());
+
+            TileScheduler.run(threads, tiles, tile -> {
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                        if (System.nanoTime() >= deadline) return;
+                        if (selected[i * nX + j]) addSample(buffer, j, i);
+                    }
+                }
+            });
+        }
+        return this;
+    }
+
+    /**
+     * Traces one more sample through a pixel and writes the new mean of the pixel to the image.
+     *
+     * @param buffer The samples of the image.
+     * @param j      The column of the pixel.
+     * @param i      The row of the pixel.
+     */
+    private void addSample(AccumulationBuffer buffer, int j, int i) {
+        buffer.add(j, i, sampleColor(buffer, j, i));
+        imageWriter.writePixel(j, i, buffer.getColor(j, i));
+    }
+
+    /**
+     * Traces the next sample of a pixel, without adding it.
+     * The first sample goes through the pixel center and the next ones along the Halton sequence inside the pixel.
+     *
+     * @param buffer The samples of the image.
+     * @param j      The column of the pixel.
+     * @param i      The row of the pixel.
+     * @return The color of the sample.
+     */
+    private Color sampleColor(AccumulationBuffer buffer, int j, int i) {
+        int k = buffer.getCount(j, i);
+        double dx = k == 0 ? 0 : StandardSampler.radicalInverse(2, k) - 0.5;
+        double dy = k == 0 ? 0 : StandardSampler.radicalInverse(3, k) - 0.5;
+        return rayTracer.traceRay(constructRay(buffer.getNx(), buffer.getNy(), j, i, dx, dy));
+    }
+
+    /**
+     * Constructs a ray through a point inside a pixel.
+     *
+     * @param nX The width of the image.
+     * @param nY The height of the image.
+     * @param j  The column of the pixel.
+     * @param i  The row of the pixel.
+     * @param dx The offset from the pixel center to the right, in pixels.
+     * @param dy The offset from the pixel center downwards, in pixels.
+     * @return The ray from the camera through the point.
+     */
+    private Ray constructRay(int nX, int nY, int j, int i, double dx, double dy) {
+        double xJ = (j + dx - (nX - 1) / 2d) * width / nX;
+        double yI = -(i + dy - (nY - 1) / 2d) * height / nY;
+
+        Point pIJ = ViewPlaneCenter;
+        if (xJ != 0) pIJ = pIJ.add(vRight.scale(xJ));
+        if (yI != 0) pIJ = pIJ.add(vUp.scale(yI));
+        return new Ray(location, pIJ.subtract(location));
+    }
+
     /**
      * Casts a ray through a specific pixel and calculates the color based on ray tracing.
      *
@@ -190,50 +1111,152 @@ public class Camera implements Cloneable {
      * @param Ny The height of the image.
      * @param j  The y-coordinate of the pixel.
      * @param i  The x-coordinate of the pixel.
+     * @return The color of the pixel.
+     */
+    private Color castRay(int Nx, int Ny, int j, int i) {
+        return castRay(Nx, Ny, j, i, null);
+    }
+
+    /**
+     * Creates the lattice of the adaptive super sampling rays of a tile.
+     *
+     * @param Nx The width of the image.
+     * @param Ny The height of the image.
+     * @return The empty lattice.
      */
-    private void castRay(int Nx, int Ny, int j, int i) {
+    private SampleLattice sampleLattice(int Nx, int Ny) {
+        return new SampleLattice(location, ViewPlaneCenter, vUp, vRight, width, height, Nx, Ny, adaptiveDepth,
+                rayTracer);
+    }
+
+    /**
+     * Casts a ray through a specific pixel and calculates the color based on ray tracing,
+     * sharing the adaptive super sampling rays with the other pixels of its tile.
+     *
+     * @param Nx      The width of the image.
+     * @param Ny      The height of the image.
+     * @param j       The y-coordinate of the pixel.
+     * @param i       The x-coordinate of the pixel.
+     * @param lattice The adaptive super sampling rays of the tile, or null to trace the pixel alone.
+     * @return The color of the pixel.
+     */
+    private Color castRay(int Nx, int Ny, int j, int i, SampleLattice lattice) {
         Ray r = constructRay(Nx, Ny, j, i);
 
         //if totalRays is one then don't do super Sampling
         if (totalRays == 1 && adaptiveDepth == 0) {
-            imageWriter.writePixel(j, i, rayTracer.traceRay(r));
-            return;
+            return rayTracer.traceRay(r);
         }
 
         // Calculate the pixel dimensions
         double Rx = width / Nx;
-        double Ry = height / Ny;
-
-        // Calculate the position of the pixel on the image plane
-        double xJ = (j - (Nx - 1) / 2d) * Rx;
-        double yI = -(i - (Ny - 1) / 2d) * Ry;
-
-        // Initialize the point in 3D space corresponding to the pixel
-        Point pIJ = ViewPlaneCenter;
+        Point pIJ = pixelCenter(Nx, Ny, j, i);
 
-        // Adjust the point based on the horizontal position of the pixel
-        if (xJ != 0) pIJ = pIJ.add(vRight.scale(xJ));
-
-        // Adjust the point based on the vertical position of the pixel
-        if (yI != 0) pIJ = pIJ.add(vUp.scale(yI));
+        //if there is variance driven adaptive sampling
+        if (adaptiveError > 0) {
+            return adaptiveSampling(Nx, Ny, j, i);
+        }
 
         //if there is adaptive super sampling
         if (adaptiveDepth > 0) {
-            imageWriter.writePixel(j, i, Blackboard.adaptiveSuperSampling(Blackboard.generatePointsSquare(pIJ, Rx, vUp, vRight, 4), pIJ, rayTracer.traceRay(r), Rx, vUp, vRight, this, adaptiveDepth));
+            if (lattice == null) lattice = sampleLattice(Nx, Ny);
+            long x = lattice.left(j);
+            long y = lattice.top(i);
+            long size = lattice.getScale();
+            return Blackboard.adaptiveSuperSampling(lattice, x, y, size, lattice.trace(x + size / 2, y + size / 2),
+                    adaptiveDepth);
         }
         //No adaptive super sampling
         else {
             Color avgColor = Color.BLACK;
-            LinkedList<Point> points = Blackboard.generatePointsSquare(pIJ, Rx, vUp, vRight, totalRays);
+            Point[] points = Blackboard.squarePattern(sampler, totalRays, (long) i * Nx + j)
+                    .map(pIJ, Rx, vUp, vRight);
             for (Point p : points) {
                 Ray ray = new Ray(location, p.subtract(location));
                 avgColor = avgColor.add(rayTracer.traceRay(ray));
             }
-            imageWriter.writePixel(j, i, avgColor.reduce(points.size()));
+            return avgColor.reduce(points.length);
         }
 
     }
 
+    /**
+     * Calculates the center of a pixel on the view plane.
+     *
+     * @param Nx The width of the image.
+     * @param Ny The height of the image.
+     * @param j  The column of the pixel.
+     * @param i  The row of the pixel.
+     * @return The center of the pixel.
+     */
+    private Point pixelCenter(int Nx, int Ny, int j, int i) {
+        // Calculate the position of the pixel on the image plane
+        double xJ = (j - (Nx - 1) / 2d) * width / Nx;
+        double yI = -(i - (Ny - 1) / 2d) * height / Ny;
+
+        // Initialize the point in 3D space corresponding to the pixel
+        Point pIJ = ViewPlaneCenter;
+
+        // Adjust the point based on the horizontal position of the pixel
+        if (xJ != 0) pIJ = pIJ.add(vRight.scale(xJ));
+
+        // Adjust the point based on the vertical position of the pixel
+        if (yI != 0) pIJ = pIJ.add(vUp.scale(yI));
+        return pIJ;
+    }
+
+    /**
+     * Gets the rays of a pixel for adaptive sampling, in the order they are taken.
+     *
+     * @param Nx The width of the image.
+     * @param j  The column of the pixel.
+     * @param i  The row of the pixel.
+     * @return The pattern of the rays in the pixel.
+     */
+    private Blackboard.Pattern adaptivePattern(int Nx, int j, int i) {
+        // the grid is not spread well before all its rows are taken
+        Sampler progressive = sampler == StandardSampler.GRID ? StandardSampler.SOBOL : sampler;
+        return Blackboard.squarePattern(progressive, totalRays, (long) i * Nx + j);
+    }
+
+    /**
+     * Samples a pixel until the standard error of its mean luminance falls to the adaptive error,
+     * or all the rays of the pixel were traced.
+     * The rays are taken along the sampler in batches, after the minimal amount of rays;
+     * the running mean and variance of the luminance are kept with Welford's method.
+     *
+     * @param Nx The width of the image.
+     * @param Ny The height of the image.
+     * @param j  The column of the pixel.
+     * @param i  The row of the pixel.
+     * @return The mean color of the traced rays.
+     */
+    private Color adaptiveSampling(int Nx, int Ny, int j, int i) {
+        Blackboard.Pattern pattern = adaptivePattern(Nx, j, i);
+        Point pIJ = pixelCenter(Nx, Ny, j, i);
+        double size = width / Nx;
+        double r = 0, g = 0, b = 0;
+        double mean = 0, squares = 0;
+        int n = 0;
+        int batchEnd = Math.min(adaptiveMinRays, pattern.size());
+        while (n < pattern.size()) {
+            for (; n < batchEnd; n++) {
+                Point p = pattern.map(n, pIJ, size, vUp, vRight);
+                Double3 rgb = rayTracer.traceRay(new Ray(location, p.subtract(location))).getRgb();
+                r += rgb.getD1();
+                g += rgb.getD2();
+                b += rgb.getD3();
+                double y = AccumulationBuffer.luminance(rgb);
+                double delta = y - mean;
+                mean += delta / (n + 1);
+                squares += delta * (y - mean);
+            }
+            if (n > 1 && squares / (n - 1) / n <= adaptiveError * adaptiveError) break;
+            batchEnd = Math.min(n + ADAPTIVE_BATCH, pattern.size());
+        }
+        return new Color(r / n, g / n, b / n);
+    }
+
     /**
      * Constructs a ray for a given pixel in the image.
      *
@@ -405,6 +1428,19 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the sampler that places the rays in a pixel, the regular grid by default.
+         * A jittered or low discrepancy sampler reaches the quality of the grid with fewer rays,
+         * and turns its aliasing into noise.
+         *
+         * @param sampler The sampler.
+         * @return The builder instance.
+         */
+        public Builder setSampler(Sampler sampler) {
+            this.camera.sampler = sampler;
+            return this;
+        }
+
         /**
          * Sets the number of threads to use for rendering.
          *
@@ -416,6 +1452,66 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the side of the square tiles the image is rendered in.
+         * Smaller tiles balance the threads better, larger ones cost less scheduling.
+         *
+         * @param tileSize The side of a tile in pixels.
+         * @return The builder instance.
+         */
+        public Builder setTileSize(int tileSize) {
+            this.camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Sets the order in which the tiles are rendered.
+         *
+         * @param order The rendering order of the tiles.
+         * @return The builder instance.
+         */
+        public Builder setTileOrder(TileScheduler.Order order) {
+            this.camera.tileOrder = order;
+            return this;
+        }
+
+        /**
+         * Sets a region of the image to render, instead of the whole image.
+         * Rays are traced only through the pixels of the region, and the rest of the image is left as it is:
+         * black in a new image, or the previous image after {@link ImageWriter#readImage()},
+         * so the region is composited into it.
+         *
+         * @param x      The first column of the region.
+         * @param y      The first row of the region.
+         * @param width  The amount of columns in the region, 0 for the whole image.
+         * @param height The amount of rows in the region, 0 for the whole image.
+         * @return The builder instance.
+         */
+        public Builder setRegion(int x, int y, int width, int height) {
+            this.camera.regionX = x;
+            this.camera.regionY = y;
+            this.camera.regionWidth = width;
+            this.camera.regionHeight = height;
+            return this;
+        }
+
+        /**
+         * Sets a checkpoint file for long renderings.
+         * The finished tiles of {@link Camera#renderImage()} and the samples of
+         * {@link Camera#renderProgressive(int, PassListener)} are saved to the file at the given interval,
+         * off the rendering threads, and a restarted rendering of the same scene and camera resumes from it.
+         * The file is deleted when the rendering completes.
+         *
+         * @param file     The checkpoint file.
+         * @param interval The time between saves.
+         * @return The builder instance.
+         */
+        public Builder setCheckpoint(Path file, Duration interval) {
+            this.camera.checkpointFile = file;
+            this.camera.checkpointInterval = interval;
+            return this;
+        }
+
         /**
          * Sets the print interval for debugging.
          *
@@ -430,7 +1526,10 @@ public class Camera implements Cloneable {
         /**
          * Sets the adaptive super sampling flag.
          *
-         * @param adaptiveDepth The adaptive super sampling flag.
+         * The corners and centers of the sampled squares are shared between the pixels of a tile,
+         * so every point is traced once.
+         *
+         * @param adaptiveDepth The adaptive super sampling flag, at most {@link #MAX_ADAPTIVE_DEPTH}.
          * @return The builder instance.
          */
         public Builder setAdaptiveDepth(int adaptiveDepth) {
@@ -438,6 +1537,45 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets variance driven adaptive sampling, which replaces the adaptive depth when both are set.
+         * Every pixel takes the minimal amount of rays, and then more rays in small batches, up to the total
+         * amount of rays, until the standard error of its mean luminance is at most the given error.
+         * Flat pixels thus stop early and the rays go to edges, shadows and glossy surfaces.
+         * The rays are taken in the order of the sampler, so every prefix of them should be well spread,
+         * as with the Halton or Sobol samplers; with the default grid, Sobol rays are taken instead.
+         * {@link Camera#renderImage()}, {@link Camera#renderAsync()} and {@link Camera#renderImages(List, int)}
+         * take the rounds over the whole image; renderings whose tiles are rendered apart, with a checkpoint file,
+         * on a queue, on workers or in a sequence, take them over every tile and the ring of pixels around it.
+         *
+         * @param maxError The standard error of the pixel luminance, on the 0-255 scale, at which a pixel stops;
+         *                 0 turns adaptive sampling off.
+         * @param minRays  The amount of rays every pixel takes before its error is checked.
+         * @return The builder instance.
+         */
+        public Builder setAdaptiveSampling(double maxError, int minRays) {
+            this.camera.adaptiveError = maxError;
+            this.camera.adaptiveMinRays = minRays;
+            return this;
+        }
+
+        /**
+         * Sets edge antialiasing: every tile of the image first traces one ray per pixel, keeping what every ray
+         * hit, and then supersamples only the pixels on an edge with a neighbour, with the rays, adaptive depth or
+         * adaptive sampling of the camera. Edges are silhouettes, creases, depth jumps, borders of materials,
+         * and luminance differences over the contrast, such as shadow edges.
+         * Flat regions thus take one ray per pixel, in every kind of rendering of the image but the progressive
+         * and time budgeted ones, which do not use the super sampling settings.
+         *
+         * @param contrast The luminance difference between neighbouring pixels, on the 0-255 scale,
+         *                 over which they are supersampled; 0 turns edge antialiasing off.
+         * @return The builder instance.
+         */
+        public Builder setEdgeAntialiasing(double contrast) {
+            this.camera.edgeContrast = contrast;
+            return this;
+        }
+
         /**
          * Builds the Camera object.
          *
@@ -468,18 +1606,51 @@ public class Camera implements Cloneable {
             if (this.camera.rayTracer == null)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "RayTracer is null");
 
+            if ((this.camera.regionWidth == 0) != (this.camera.regionHeight == 0)
+                    || this.camera.regionX < 0 || this.camera.regionY < 0
+                    || this.camera.regionWidth < 0 || this.camera.regionHeight < 0
+                    || this.camera.regionX + this.camera.regionWidth > this.camera.imageWriter.getNx()
+                    || this.camera.regionY + this.camera.regionHeight > this.camera.imageWriter.getNy())
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Region is outside the image");
+
             if (this.camera.threads < 1)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Number of threads is below zero");
 
             if (this.camera.totalRays < 1)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Number of rays is below one");
 
+            if (this.camera.sampler == null)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Sampler is null");
+
+            if (this.camera.tileSize < 1)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Tile size is below one");
+
+            if (this.camera.tileOrder == null)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Tile order is null");
+
+            if (this.camera.checkpointFile != null
+                    && (this.camera.checkpointInterval == null || this.camera.checkpointInterval.isNegative()))
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Checkpoint interval is negative");
+
             if (this.camera.printInterval < 0)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Debug print is below zero");
 
             if (this.camera.adaptiveDepth < 0)
                 throw new MissingResourceException(renderDataMissing, cameraClass, "Adaptive depth is below zero");
 
+            if (this.camera.adaptiveDepth > MAX_ADAPTIVE_DEPTH)
+                throw new MissingResourceException(renderDataMissing, cameraClass,
+                        "Adaptive depth is above " + MAX_ADAPTIVE_DEPTH);
+
+            if (this.camera.adaptiveError < 0)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Adaptive error is below zero");
+
+            if (this.camera.adaptiveMinRays < 2)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Adaptive rays are below two");
+
+            if (this.camera.edgeContrast < 0)
+                throw new MissingResourceException(renderDataMissing, cameraClass, "Edge contrast is below zero");
+
             try {
                 return (Camera) camera.clone();
             } catch (CloneNotSupportedException e) {
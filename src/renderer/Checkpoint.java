@@ -0,0 +1,297 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Periodically saves the state of a long rendering to a file, so a restarted rendering can resume from it.
+ * The state is the accumulated samples, the current pass and the tiles already finished in that pass.
+ * Finished tiles are committed whole, so every saved state holds exactly the samples of its finished tiles.
+ * <p>
+ * The rendering threads only copy the state when a save is due; the file is written on a thread of its own.
+ * A file that was saved for another rendering, or fails its checksum, is ignored and the rendering starts over.
+ * <p>
+ * File layout: magic, format version, the 32 byte key of the rendering, the image size, the tile count,
+ * the pass, the finished tiles as bits, the samples, and a CRC32 of everything before it.
+ */
+final class Checkpoint {
+    /**
+     * The first bytes of every checkpoint file ("RCKP").
+     */
+    private static final int MAGIC = 0x52434B50;
+    /**
+     * The version of the file layout; files of other versions are ignored.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the header: magic, version, key, width, height, tile count and pass.
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 32 + 4 * Integer.BYTES;
+
+    private static final Logger logger = Logger.getLogger("Checkpoint");
+
+    private final Path file;                  // The checkpoint file
+    private final long interval;              // The time between saves, in nanoseconds
+    private final byte[] key;                 // The hash of the rendering settings
+    private final AccumulationBuffer buffer;  // The samples of the rendering
+    private final boolean[] finished;         // The tiles finished in the current pass
+    private int pass;                         // The current pass
+    private final ReadWriteLock lock = new ReentrantReadWriteLock(); // Tiles commit shared, saves copy exclusive
+    private final AtomicBoolean saving = new AtomicBoolean();        // Whether a save is in progress
+    private final ExecutorService writer;     // Writes the files
+    private volatile long due;                // When the next save is due, by System.nanoTime
+
+    /**
+     * Constructs a checkpoint of a rendering.
+     *
+     * @param file     The checkpoint file.
+     * @param interval The time between saves.
+     * @param key      The hash of the rendering settings.
+     * @param buffer   The samples of the rendering.
+     * @param finished The tiles finished in the current pass.
+     * @param pass     The current pass.
+     */
+    private Checkpoint(Path file, Duration interval, byte[] key, AccumulationBuffer buffer, boolean[] finished,
+                       int pass) {
+        this.file = file;
+        this.interval = interval.toNanos();
+        this.key = key;
+        this.buffer = buffer;
+        this.finished = finished;
+        this.pass = pass;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Checkpoint writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.due = System.nanoTime() + this.interval;
+    }
+
+    /**
+     * Opens the checkpoint of a rendering, resuming the state saved in its file if the file was saved
+     * for the same rendering, or starting a new state otherwise.
+     *
+     * @param file      The checkpoint file.
+     * @param interval  The time between saves.
+     * @param key       The 32 byte hash of the rendering settings.
+     * @param nX        The width of the image in pixels.
+     * @param nY        The height of the image in pixels.
+     * @param tileCount The amount of tiles in a pass.
+     * @return The checkpoint.
+     */
+    static Checkpoint open(Path file, Duration interval, byte[] key, int nX, int nY, int tileCount) {
+        if (Files.isRegularFile(file)) {
+            try {
+                return read(file, interval, key, nX, nY, tileCount);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.WARNING, "Ignoring stale or corrupt checkpoint " + file + ": " + e);
+            }
+        }
+        return new Checkpoint(file, interval, key, new AccumulationBuffer(nX, nY), new boolean[tileCount], 0);
+    }
+
+    /**
+     * Gets the samples of the rendering. Samples must only be added through {@link #commit(int, Runnable)}.
+     *
+     * @return The samples.
+     */
+    AccumulationBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets the current pass of the rendering.
+     *
+     * @return The pass, from 0.
+     */
+    int getPass() {
+        return pass;
+    }
+
+    /**
+     * Checks whether a tile was finished in the current pass.
+     *
+     * @param tile The index of the tile.
+     * @return Whether the tile needs no rendering in this pass.
+     */
+    boolean isFinished(int tile) {
+        return finished[tile];
+    }
+
+    /**
+     * Commits a finished tile: adds its samples and marks it, and saves the state if a save is due.
+     *
+     * @param tile The index of the tile.
+     * @param add  Adds the samples of the tile to the buffer.
+     */
+    void commit(int tile, Runnable add) {
+        lock.readLock().lock();
+        try {
+            add.run();
+            finished[tile] = true;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (System.nanoTime() >= due && saving.compareAndSet(false, true)) save();
+    }
+
+    /**
+     * Starts the next pass, where no tile is finished.
+     */
+    void nextPass() {
+        lock.writeLock().lock();
+        try {
+            pass++;
+            Arrays.fill(finished, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ends the checkpoint of a rendering that completed: waits for a save in progress and deletes the file,
+     * so the next rendering starts over.
+     */
+    void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+            Files.deleteIfExists(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not delete checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Copies the state and has it written on the writer thread.
+     */
+    private void save() {
+        AccumulationBuffer samples;
+        boolean[] tiles;
+        int savedPass;
+        lock.writeLock().lock();
+        try {
+            samples = buffer.copy();
+            tiles = finished.clone();
+            savedPass = pass;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    write(samples, tiles, savedPass);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not save checkpoint " + file, e);
+                } finally {
+                    due = System.nanoTime() + interval;
+                    saving.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            saving.set(false); // the checkpoint was closed
+        }
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @param file      The checkpoint file.
+     * @param interval  The time between saves.
+     * @param key       The hash of the rendering settings.
+     * @param nX        The width of the image in pixels.
+     * @param nY        The height of the image in pixels.
+     * @param tileCount The amount of tiles in a pass.
+     * @return The checkpoint with the saved state.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file does not hold a valid state of the rendering.
+     */
+    private static Checkpoint read(Path file, Duration interval, byte[] key, int nX, int nY, int tileCount)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Long.BYTES || size > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Bad file size " + size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - Long.BYTES));
+            if (crc.getValue() != buffer.getLong((int) size - Long.BYTES))
+                throw new IllegalArgumentException("Checksum mismatch");
+
+            if (buffer.getInt() != MAGIC) throw new IllegalArgumentException("Not a checkpoint file");
+            if (buffer.getInt() != VERSION) throw new IllegalArgumentException("Other format version");
+            byte[] fileKey = new byte[key.length];
+            buffer.get(fileKey);
+            if (!Arrays.equals(key, fileKey)) throw new IllegalArgumentException("Saved for another rendering");
+            if (buffer.getInt() != nX || buffer.getInt() != nY || buffer.getInt() != tileCount)
+                throw new IllegalArgumentException("Other image size");
+            int pass = buffer.getInt();
+            if (pass < 0) throw new IllegalArgumentException("Negative pass");
+
+            byte[] bits = new byte[(tileCount + 7) / 8];
+            buffer.get(bits);
+            boolean[] finished = new boolean[tileCount];
+            for (int i = 0; i < tileCount; i++) finished[i] = (bits[i / 8] & 1 << i % 8) != 0;
+            AccumulationBuffer samples = AccumulationBuffer.read(buffer, nX, nY);
+            if (buffer.position() != size - Long.BYTES) throw new IllegalArgumentException("Bad file size " + size);
+            return new Checkpoint(file, interval, key, samples, finished, pass);
+        }
+    }
+
+    /**
+     * Writes a state to the checkpoint file.
+     * The file is written aside and then moved into place, so a crash while saving keeps the previous state.
+     *
+     * @param samples  The samples.
+     * @param finished The tiles finished in the pass.
+     * @param pass     The pass.
+     * @throws IOException if the file cannot be written.
+     */
+    private void write(AccumulationBuffer samples, boolean[] finished, int pass) throws IOException {
+        byte[] bits = new byte[(finished.length + 7) / 8];
+        for (int i = 0; i < finished.length; i++)
+            if (finished[i]) bits[i / 8] |= (byte) (1 << i % 8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bits.length + samples.getByteSize() + Long.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).put(key);
+        buffer.putInt(samples.getNx()).putInt(samples.getNy()).putInt(finished.length).putInt(pass);
+        buffer.put(bits);
+        samples.write(buffer);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "checkpoint", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
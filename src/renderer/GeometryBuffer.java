@@ -0,0 +1,119 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable.GeoPoint;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Keeps what the primary ray of every pixel hit: the geometry, its normal, its depth and the shaded color,
+ * to find the pixels on edges of the image. Two neighbouring pixels are on an edge if:
+ * <ul>
+ *     <li>one of them hit the scene and the other missed it, a silhouette;</li>
+ *     <li>they hit geometries of different materials or emissions, a material border;
+ *     geometries that share their material and emission, such as the triangles of a mesh, are one surface;</li>
+ *     <li>their normals differ by more than about 25 degrees, a crease;</li>
+ *     <li>their depths differ by more than a tenth, an object in front of another;</li>
+ *     <li>their luminance differs by more than a contrast, e.g. a shadow edge or a texture.</li>
+ * </ul>
+ * Every pixel must be set by one thread only; edges may be found once all the pixels were set.
+ */
+class GeometryBuffer {
+    /**
+     * The cosine of the angle between the normals of neighbouring pixels under which they are on a crease.
+     */
+    static final double NORMAL_SIMILARITY = 0.9;
+    /**
+     * The relative difference of depth over which neighbouring pixels are on an edge.
+     */
+    static final double DEPTH_JUMP = 0.1;
+
+    private final int nX;                 // The width of the image in pixels
+    private final int nY;                 // The height of the image in pixels
+    private final boolean[] set;          // Whether the pixel was set, per pixel
+    private final Geometry[] geometries;  // The hit geometry, per pixel, null on a miss
+    private final double[] normals;       // The normal towards the camera at the hit, 3 components per pixel
+    private final double[] depths;        // The distance from the camera to the hit, per pixel
+    private final double[] luminances;    // The luminance of the shaded color, per pixel
+
+    /**
+     * Constructs an empty buffer.
+     *
+     * @param nX The width of the image in pixels.
+     * @param nY The height of the image in pixels.
+     */
+    GeometryBuffer(int nX, int nY) {
+        this.nX = nX;
+        this.nY = nY;
+        set = new boolean[nX * nY];
+        geometries = new Geometry[nX * nY];
+        normals = new double[3 * nX * nY];
+        depths = new double[nX * nY];
+        luminances = new double[nX * nY];
+    }
+
+    /**
+     * Sets the primary hit of a pixel.
+     *
+     * @param j     The column of the pixel.
+     * @param i     The row of the pixel.
+     * @param gp    The closest hit of the ray through the pixel, or null if it missed the scene.
+     * @param ray   The ray through the pixel.
+     * @param color The color of the ray.
+     */
+    void set(int j, int i, GeoPoint gp, Ray ray, Color color) {
+        int p = i * nX + j;
+        set[p] = true;
+        luminances[p] = AccumulationBuffer.luminance(color.getRgb());
+        if (gp == null) return;
+        geometries[p] = gp.geometry;
+        depths[p] = ray.getHead().distance(gp.point);
+        Vector normal = gp.geometry.getNormal(gp.point);
+        if (normal.dotProduct(ray.getDirection()) > 0) normal = normal.scale(-1);
+        Double3 xyz = normal.getXyz();
+        normals[3 * p] = xyz.getD1();
+        normals[3 * p + 1] = xyz.getD2();
+        normals[3 * p + 2] = xyz.getD3();
+    }
+
+    /**
+     * Checks whether a pixel is on an edge with any of its set 4 neighbours.
+     *
+     * @param j        The column of the pixel.
+     * @param i        The row of the pixel.
+     * @param contrast The luminance difference over which neighbours are on an edge.
+     * @return Whether the pixel is on an edge; false if it was not set.
+     */
+    boolean isEdge(int j, int i, double contrast) {
+        int p = i * nX + j;
+        if (!set[p]) return false;
+        return j > 0 && differs(p, p - 1, contrast)
+                || j < nX - 1 && differs(p, p + 1, contrast)
+                || i > 0 && differs(p, p - nX, contrast)
+                || i < nY - 1 && differs(p, p + nX, contrast);
+    }
+
+    /**
+     * Checks whether two neighbouring pixels are on an edge.
+     *
+     * @param p        The index of the pixel.
+     * @param q        The index of the neighbour.
+     * @param contrast The luminance difference over which they are on an edge.
+     * @return Whether they are on an edge; false if the neighbour was not set.
+     */
+    private boolean differs(int p, int q, double contrast) {
+        if (!set[q]) return false;
+        if (Math.abs(luminances[p] - luminances[q]) > contrast) return true;
+        Geometry a = geometries[p];
+        Geometry b = geometries[q];
+        if (a == null || b == null) return a != b;
+        if (a != b && (a.getMaterial() != b.getMaterial()
+                || !a.getEmission().getRgb().equals(b.getEmission().getRgb())))
+            return true;
+        double cos = normals[3 * p] * normals[3 * q] + normals[3 * p + 1] * normals[3 * q + 1]
+                + normals[3 * p + 2] * normals[3 * q + 2];
+        return cos < NORMAL_SIMILARITY || Math.abs(depths[p] - depths[q]) > DEPTH_JUMP * Math.min(depths[p], depths[q]);
+    }
+}
@@ -1,8 +1,11 @@
 package renderer;
 
+import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -69,6 +72,44 @@ public class ImageWriter {
       }
    }
 
+   /** Reads the image file previously written under this image name into the
+    * pixel color matrix, so that rendering a part of the image composites it
+    * into the previous image. Nothing is read if there is no such file yet.
+    * @return the image writer itself
+    * @throws IllegalArgumentException if the file holds an image of another size
+    * @throws IllegalStateException    if the file cannot be read */
+   public ImageWriter readImage() {
+      Path file = Path.of(FOLDER_PATH, imageName + ".png");
+      if (!Files.isRegularFile(file)) return this;
+      BufferedImage previous;
+      try {
+         previous = ImageIO.read(file.toFile());
+      } catch (IOException e) {
+         logger.log(Level.SEVERE, "I/O error", e);
+         throw new IllegalStateException("I/O error reading " + file, e);
+      }
+      if (previous == null) throw new IllegalStateException("Not an image file " + file);
+      if (previous.getWidth() != nX || previous.getHeight() != nY)
+         throw new IllegalArgumentException("The previous image is " + previous.getWidth() + "x"
+            + previous.getHeight() + ", not " + nX + "x" + nY);
+      Graphics graphics = image.getGraphics();
+      try {
+         graphics.drawImage(previous, 0, 0, null);
+      } finally {
+         graphics.dispose();
+      }
+      return this;
+   }
+
+   /** The function getPixel reads the color of a specific pixel from the pixel
+    * color matrix
+    * @param  xIndex X axis index of the pixel
+    * @param  yIndex Y axis index of the pixel
+    * @return        the color of the pixel, as written */
+   public Color getPixel(int xIndex, int yIndex) {
+      return new Color(new java.awt.Color(image.getRGB(xIndex, yIndex)));
+   }
+
    /** The function writePixel writes a color of a specific pixel into pixel color
     * matrix
     * @param xIndex X axis index of the pixel
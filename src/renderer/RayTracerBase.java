@@ -1,5 +1,6 @@
 package renderer;
 
+import geometries.Intersectable.GeoPoint;
 import primitives.Color;
 import primitives.Ray;
 import scene.Scene;
@@ -25,5 +26,24 @@ public abstract class RayTracerBase {
      * @return The color at the intersection point of the ray with the scene.
      */
     public abstract Color traceRay(Ray r);
+
+    /**
+     * Finds the closest intersection of a ray with the geometries of the scene.
+     * @param ray The ray.
+     * @return The closest intersection point, or {@code null} if the ray hits nothing.
+     */
+    public GeoPoint findClosestIntersection(Ray ray) {
+        return scene.geometries.findClosestGeoIntersection(ray);
+    }
+
+    /**
+     * Calculates the color a ray sees at the point where it hit a geometry, as {@link #traceRay(Ray)} does
+     * after finding the hit. Together with {@link #findClosestIntersection(Ray)}, it lets a renderer look at the hit
+     * before deciding to shade it.
+     * @param gp  The hit.
+     * @param ray The ray that hit the point.
+     * @return The color of the point as seen along the ray.
+     */
+    public abstract Color calcColor(GeoPoint gp, Ray ray);
 }
 
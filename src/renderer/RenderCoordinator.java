@@ -0,0 +1,228 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands the tiles of a rendering out to {@link RenderWorker} processes over local sockets,
+ * started by {@link Camera#renderDistributed(RenderCoordinator)}.
+ * <p>
+ * Workers may connect at any time while a rendering runs. Every worker receives the serialized scene and camera
+ * settings once, and then tiles on demand, as many at a time as it has threads, so faster workers take more tiles.
+ * A worker that disconnects, or does not return a tile within the timeout, is dropped
+ * and its unfinished tiles go back to the front of the queue for the other workers.
+ * <p>
+ * Protocol, in big endian: the coordinator sends the length and bytes of the serialized settings,
+ * and the worker answers its amount of threads. Then the coordinator sends tiles as their index, x, y, width
+ * and height, and the worker answers every tile with its index and the red, green and blue of its pixels,
+ * row by row. An index of -1 ends the rendering.
+ */
+public class RenderCoordinator implements Closeable {
+    /**
+     * The index that ends a rendering.
+     */
+    static final int END = -1;
+    /**
+     * How often the waiting threads check whether the rendering ended, in milliseconds.
+     */
+    private static final int POLL_MILLIS = 50;
+
+    private static final Logger logger = Logger.getLogger("RenderCoordinator");
+
+    private final ServerSocket server; // Accepts the workers
+    private final Duration timeout;    // The longest wait for a tile, or for a worker to connect
+
+    /**
+     * Constructs a coordinator that listens for workers on the loopback interface.
+     *
+     * @param port    The port to listen on, 0 for any free port.
+     * @param timeout The longest time a worker may take to return a tile before its tiles are reassigned,
+     *                and the longest time a rendering waits while no worker is connected.
+     * @throws IOException              if the port cannot be opened.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    public RenderCoordinator(int port, Duration timeout) throws IOException {
+        if (timeout.isNegative() || timeout.isZero())
+            throw new IllegalArgumentException("The worker timeout must be positive");
+        this.timeout = timeout;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        server.setSoTimeout(POLL_MILLIS);
+    }
+
+    /**
+     * Gets the port the workers connect to.
+     *
+     * @return The port of the coordinator.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Stops listening; workers waiting for the next rendering disconnect and exit.
+     *
+     * @throws IOException if the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Renders tiles on the connected workers, and waits until all of them are done.
+     *
+     * @param setup The settings the workers render with.
+     * @param tiles The tiles to render.
+     * @param done  Receives every rendered tile with its pixel colors, row by row, once per tile;
+     *              it is called on the threads of the coordinator.
+     * @throws IllegalStateException if no worker was connected for longer than the timeout.
+     */
+    void render(Camera.Setup setup, List<TileScheduler.Tile> tiles, BiConsumer<TileScheduler.Tile, Color[]> done) {
+        Job job = new Job(serialize(setup), tiles, done);
+        ExecutorService connections = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "Render coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long idleSince = System.nanoTime();
+            while (!job.remaining.await(0, TimeUnit.MILLISECONDS)) {
+                try {
+                    Socket socket = server.accept();
+                    job.workers.incrementAndGet();
+                    connections.execute(() -> job.serve(socket));
+                } catch (SocketTimeoutException e) {
+                    // check the progress again
+                }
+                if (job.workers.get() > 0) idleSince = System.nanoTime();
+                else if (System.nanoTime() - idleSince > timeout.toNanos())
+                    throw new IllegalStateException("No render worker connected for " + timeout);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The coordinator stopped listening", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            job.ended = true;
+            connections.shutdown();
+        }
+    }
+
+    /**
+     * Serializes the settings of a rendering.
+     *
+     * @param setup The settings.
+     * @return The serialized settings.
+     */
+    private static byte[] serialize(Camera.Setup setup) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(setup);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The scene cannot be serialized", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * A rendering in progress: the tiles still to hand out and the tiles still to receive.
+     */
+    private final class Job {
+        private final byte[] setup;                                    // The serialized settings
+        private final List<TileScheduler.Tile> tiles;                  // All the tiles, by index
+        private final BiConsumer<TileScheduler.Tile, Color[]> done;    // Receives the rendered tiles
+        private final LinkedBlockingDeque<Integer> queue = new LinkedBlockingDeque<>(); // Tiles to hand out
+        private final CountDownLatch remaining;                        // Tiles not rendered yet
+        private final AtomicInteger workers = new AtomicInteger();    // Connected workers
+        private volatile boolean ended = false;                        // Whether the rendering ended
+
+        /**
+         * Constructs a rendering where all the tiles are still to hand out.
+         *
+         * @param setup The serialized settings.
+         * @param tiles The tiles.
+         * @param done  Receives the rendered tiles.
+         */
+        Job(byte[] setup, List<TileScheduler.Tile> tiles, BiConsumer<TileScheduler.Tile, Color[]> done) {
+            this.setup = setup;
+            this.tiles = tiles;
+            this.done = done;
+            this.remaining = new CountDownLatch(tiles.size());
+            for (int t = 0; t < tiles.size(); t++) queue.add(t);
+        }
+
+        /**
+         * Hands tiles to a worker until the rendering ends or the worker fails,
+         * in which case its unfinished tiles are handed to the others.
+         *
+         * @param socket The connection of the worker.
+         */
+        void serve(Socket socket) {
+            Map<Integer, TileScheduler.Tile> sent = new HashMap<>();
+            try (socket) {
+                socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, timeout.toMillis()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                out.writeInt(setup.length);
+                out.write(setup);
+                out.flush();
+                int capacity = Math.max(1, in.readInt());
+
+                while (!ended && remaining.getCount() > 0) {
+                    Integer next = sent.isEmpty() ? queue.pollFirst(POLL_MILLIS, TimeUnit.MILLISECONDS)
+                            : queue.pollFirst();
+                    if (next != null) {
+                        TileScheduler.Tile tile = tiles.get(next);
+                        sent.put(next, tile);
+                        out.writeInt(next);
+                        out.writeInt(tile.x());
+                        out.writeInt(tile.y());
+                        out.writeInt(tile.width());
+                        out.writeInt(tile.height());
+                        if (sent.size() < capacity) continue;
+                    }
+                    out.flush();
+                    if (sent.isEmpty()) continue;
+
+                    int index = in.readInt();
+                    TileScheduler.Tile tile = sent.remove(index);
+                    if (tile == null) throw new IOException("The worker returned a tile it was not given");
+                    Color[] colors = new Color[tile.width() * tile.height()];
+                    for (int k = 0; k < colors.length; k++)
+                        colors[k] = new Color(in.readDouble(), in.readDouble(), in.readDouble());
+                    done.accept(tile, colors);
+                    remaining.countDown();
+                }
+                out.writeInt(END);
+                out.flush();
+            } catch (IOException | RuntimeException e) {
+                if (!sent.isEmpty())
+                    logger.log(Level.WARNING, "Reassigning " + sent.size() + " tiles of a failed render worker: " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // put the lost tiles first, so they do not hold the end of the rendering
+                sent.keySet().forEach(queue::addFirst);
+                workers.decrementAndGet();
+            }
+        }
+    }
+}
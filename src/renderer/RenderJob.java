@@ -0,0 +1,134 @@
+package renderer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A handle of a rendering that runs in the background, started by {@link Camera#renderAsync()}
+ * or {@link RenderQueue#submit(Camera, int)}.
+ * The rendering runs on its own pool of threads, or on the shared threads of a queue; the handle gives its result
+ * as a future, its live progress, and a way to stop it.
+ * <p>
+ * Cancelling is cooperative: the rendering threads check for it before every pixel, so they stop
+ * within the time of a single pixel, and the pool is shut down as soon as they all stopped.
+ * Cancelling the result future cancels the rendering as well.
+ */
+public class RenderJob {
+    private final ForkJoinPool pool;                     // The rendering threads, or null on the threads of a queue
+    private final RenderProgress progress;               // The rendered pixels
+    private final CompletableFuture<ImageWriter> result; // The rendered image
+    private volatile boolean cancelled = false;          // Whether the rendering threads should stop
+    private final CountDownLatch stopped = new CountDownLatch(1); // Released when no thread renders for the job
+
+    /**
+     * Constructs a job that has not started yet, with a pool of its own.
+     *
+     * @param threads  The amount of rendering threads.
+     * @param progress The progress of the rendering.
+     */
+    RenderJob(int threads, RenderProgress progress) {
+        this(new ForkJoinPool(threads), progress);
+    }
+
+    /**
+     * Constructs a job that renders on threads it does not own, and ends through {@link #finish(ImageWriter, Throwable)}.
+     *
+     * @param progress The progress of the rendering.
+     */
+    RenderJob(RenderProgress progress) {
+        this(null, progress);
+    }
+
+    /**
+     * Constructs a job that has not started yet.
+     *
+     * @param pool     The rendering threads of the job, or null if it does not own them.
+     * @param progress The progress of the rendering.
+     */
+    private RenderJob(ForkJoinPool pool, RenderProgress progress) {
+        this.pool = pool;
+        this.progress = progress;
+        this.result = new CompletableFuture<>();
+        result.whenComplete((image, e) -> {
+            if (result.isCancelled()) cancelled = true;
+        });
+    }
+
+    /**
+     * Ends a job that renders on threads it does not own, once none of them renders for it any more.
+     *
+     * @param image The rendered image.
+     * @param error The failure of the rendering, or null if it did not fail.
+     */
+    void finish(ImageWriter image, Throwable error) {
+        if (error != null) result.completeExceptionally(error);
+        else if (!cancelled) result.complete(image);
+        stopped.countDown();
+    }
+
+    /**
+     * Starts the rendering on the threads of the job.
+     *
+     * @param render Renders the image on the given pool, checking {@link #isCancelled()} as it goes.
+     */
+    void start(Function<ForkJoinPool, ImageWriter> render) {
+        CompletableFuture.supplyAsync(() -> render.apply(pool), pool).whenComplete((image, e) -> {
+            pool.shutdown();
+            if (e != null) result.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+            else if (!cancelled) result.complete(image);
+        });
+    }
+
+    /**
+     * Gets the result of the rendering.
+     *
+     * @return The future image, which completes when the rendering is done.
+     */
+    public CompletableFuture<ImageWriter> getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the progress of the rendering.
+     *
+     * @return The live progress.
+     */
+    public RenderProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Stops the rendering. The result future completes at once with a cancellation,
+     * and the rendering threads stop after the pixels they are rendering.
+     *
+     * @return Whether the rendering was stopped, false if it had already finished.
+     */
+    public boolean cancel() {
+        return result.cancel(false);
+    }
+
+    /**
+     * Checks whether the rendering was cancelled.
+     *
+     * @return Whether the rendering should stop.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Waits until all the rendering threads of the job stopped, after it finished or was cancelled.
+     *
+     * @param timeout The longest time to wait.
+     * @param unit    The unit of the time.
+     * @return Whether all the threads stopped in time.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool != null ? pool.awaitTermination(timeout, unit) : stopped.await(timeout, unit);
+    }
+}
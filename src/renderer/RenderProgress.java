@@ -0,0 +1,84 @@
+package renderer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Follows the progress of a rendering, which may run on several threads.
+ * It counts the finished pixels without locking, so it may be read at any time while the rendering runs,
+ * and optionally prints the percentage done to the console at a given interval.
+ */
+public class RenderProgress {
+    /** Printing format */
+    private static final String PRINT_FORMAT = "%5.1f%%\r";
+
+    /** Total amount of pixels to render */
+    private final long total;
+    /** Amount of pixels that have been rendered */
+    private final AtomicLong done = new AtomicLong();
+    /** Progress printing interval in tenths of a percent, 0 if printing is not required */
+    private final int printInterval;
+    /** Last printed progress, in tenths of a percent */
+    private final AtomicInteger lastPrinted = new AtomicInteger();
+
+    /**
+     * Constructs the progress of a rendering.
+     *
+     * @param total    The amount of pixels to render.
+     * @param interval The printing interval in percents, 0 if printing is not required.
+     */
+    public RenderProgress(long total, double interval) {
+        this.total = total;
+        this.printInterval = (int) (interval * 10);
+        if (printInterval != 0) System.out.printf(PRINT_FORMAT, 0d);
+    }
+
+    /**
+     * Counts a rendered pixel, printing the progress if it passed the printing interval.
+     */
+    public void pixelDone() {
+        pixelsDone(1);
+    }
+
+    /**
+     * Counts rendered pixels, printing the progress if it passed the printing interval.
+     *
+     * @param count The amount of rendered pixels.
+     */
+    public void pixelsDone(long count) {
+        long rendered = done.addAndGet(count);
+        if (printInterval == 0) return;
+        int percentage = (int) (1000L * rendered / total);
+        int last = lastPrinted.get();
+        // only the thread that moves the printed mark prints it
+        if (percentage - last >= printInterval && lastPrinted.compareAndSet(last, percentage))
+            System.out.printf(PRINT_FORMAT, percentage / 10d);
+    }
+
+    /**
+     * Gets the amount of rendered pixels.
+     *
+     * @return The amount of pixels rendered so far.
+     */
+    public long getDone() {
+        return done.get();
+    }
+
+    /**
+     * Gets the amount of pixels to render.
+     *
+     * @return The total amount of pixels.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the part of the rendering that is done.
+     *
+     * @return The rendered part, between 0 and 1.
+     */
+    public double getFraction() {
+        return total == 0 ? 1 : (double) done.get() / total;
+    }
+}
@@ -0,0 +1,165 @@
+package renderer;
+
+import scene.Scene;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Renders many images on one shared pool of threads, e.g. batches of small thumbnails.
+ * The tiles of all the submitted images wait in one queue and the threads take them by priority,
+ * and then by submission order, so the next images start on the threads that the tail of an image leaves idle.
+ * <p>
+ * Before the tiles of a scene are queued, its spatial indexes are built once, by one thread, while the other
+ * threads go on with the tiles of other images; images of the same scene share the built indexes.
+ */
+public class RenderQueue implements AutoCloseable {
+    private final ThreadPoolExecutor pool;     // The shared rendering threads, taking the tasks by priority
+    private final AtomicLong submitted = new AtomicLong(); // The amount of submitted images, to order them
+    private final Map<Scene, CompletableFuture<Void>> prepared = new WeakHashMap<>(); // The prepared scenes
+    private final Set<RenderJob> running = ConcurrentHashMap.newKeySet(); // The images not finished yet
+    private volatile boolean closed = false;   // Whether images may still be submitted
+
+    /**
+     * Constructs a queue with its threads.
+     *
+     * @param threads The amount of rendering threads.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    public RenderQueue(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("A render queue needs at least one thread");
+        AtomicInteger count = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "Render queue " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Submits an image to render, like {@link Camera#renderAsync()} but on the threads of the queue.
+     * The thread settings of the camera are not used. The tiles of images with a higher priority are rendered first;
+     * images of the same priority are rendered in submission order, overlapping at their ends.
+     *
+     * @param camera   The camera of the image.
+     * @param priority The priority of the image.
+     * @return The handle of the rendering, with its result, progress and cancelling.
+     * @throws IllegalStateException if the queue was closed.
+     */
+    public RenderJob submit(Camera camera, int priority) {
+        if (closed) throw new IllegalStateException("The render queue is closed");
+        return camera.renderQueued(this, priority);
+    }
+
+    /**
+     * Stops taking images, waits until the submitted ones finished, and stops the threads.
+     * If the waiting thread is interrupted, it stops waiting and keeps its interrupt status,
+     * and the threads stop once the submitted images finished.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            for (RenderJob job : running) job.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Queues the tiles of an image, after its scene was prepared.
+     * Tiles of a stopped job are skipped as they come up; the job finishes once all its tiles were taken.
+     *
+     * @param job      The handle of the rendering.
+     * @param scene    The scene of the image.
+     * @param priority The priority of the image.
+     * @param tiles    The tiles of the image.
+     * @param render   Renders a tile, checking {@link RenderJob#isCancelled()} as it goes.
+     * @param image    The image the tiles are rendered into.
+     */
+    void schedule(RenderJob job, Scene scene, int priority, List<TileScheduler.Tile> tiles,
+                  Consumer<TileScheduler.Tile> render, ImageWriter image) {
+        long order = submitted.getAndIncrement();
+        running.add(job);
+        AtomicInteger remaining = new AtomicInteger(tiles.size());
+        Runnable finish = () -> {
+            running.remove(job);
+            job.finish(image, null);
+        };
+        if (tiles.isEmpty()) {
+            finish.run();
+            return;
+        }
+
+        CompletableFuture<Void> preparation;
+        synchronized (prepared) {
+            preparation = prepared.get(scene);
+            if (preparation == null || preparation.isCompletedExceptionally()) {
+                CompletableFuture<Void> prepare = new CompletableFuture<>();
+                pool.execute(new Task(priority, order, -1, () -> {
+                    try {
+                        scene.geometries.prepare();
+                        prepare.complete(null);
+                    } catch (RuntimeException e) {
+                        prepare.completeExceptionally(e);
+                    }
+                }));
+                prepared.put(scene, preparation = prepare);
+            }
+        }
+
+        preparation.whenComplete((v, e) -> {
+            if (e != null) {
+                running.remove(job);
+                job.finish(image, e);
+                return;
+            }
+            for (int t = 0; t < tiles.size(); t++) {
+                TileScheduler.Tile tile = tiles.get(t);
+                pool.execute(new Task(priority, order, t, () -> {
+                    try {
+                        if (!job.getResult().isDone()) render.accept(tile);
+                    } catch (RuntimeException ex) {
+                        job.getResult().completeExceptionally(ex);
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) finish.run();
+                    }
+                }));
+            }
+        });
+    }
+
+    /**
+     * A task of the queue: a tile of an image, or the preparation of a scene.
+     *
+     * @param priority The priority of the image, higher first.
+     * @param order    The submission order of the image, earlier first.
+     * @param index    The index of the tile in the image, -1 for the preparation before its tiles.
+     * @param work     The work of the task.
+     */
+    private record Task(int priority, long order, int index, Runnable work) implements Runnable, Comparable<Task> {
+        @Override
+        public void run() {
+            work.run();
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) return Integer.compare(other.priority, priority);
+            if (order != other.order) return Long.compare(order, other.order);
+            return Integer.compare(index, other.index);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Double3;
+
+import java.io.*;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A process that renders tiles for a {@link RenderCoordinator} on the same host.
+ * It connects to the coordinator, receives the scene and camera settings, and renders the tiles it is given
+ * on its own threads until the rendering ends; then it connects again for the next rendering,
+ * and exits once the coordinator is closed.
+ * <p>
+ * Run it as {@code java renderer.RenderWorker <port> [threads]}, with the classes of the scene on the class path.
+ * The settings are deserialized with a filter that only admits the classes of the renderer,
+ * but the coordinator must still be trusted, as it is on the same host.
+ */
+public final class RenderWorker {
+    /**
+     * The classes a worker accepts in the serialized settings.
+     */
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "renderer.*;scene.*;geometries.*;lighting.*;primitives.*;java.lang.*;java.util.*;!*");
+
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private RenderWorker() {
+    }
+
+    /**
+     * Runs a worker for a coordinator on this host.
+     *
+     * @param args The port of the coordinator, and optionally the amount of threads,
+     *             by default the amount of processors.
+     * @throws IOException if the connection with the coordinator fails while rendering.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java renderer.RenderWorker <port> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        run(Integer.parseInt(args[0]), threads);
+    }
+
+    /**
+     * Renders for a coordinator on this host until it is closed.
+     *
+     * @param port    The port of the coordinator.
+     * @param threads The amount of rendering threads.
+     * @throws IOException              if the connection with the coordinator fails while rendering.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    public static void run(int port, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("A worker needs at least one thread");
+        while (true) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                if (!render(socket, threads)) return;
+            } catch (ConnectException e) {
+                return; // the coordinator is closed
+            }
+        }
+    }
+
+    /**
+     * Renders the tiles of one rendering.
+     *
+     * @param socket  The connection with the coordinator.
+     * @param threads The amount of rendering threads.
+     * @return Whether a rendering was received, false if the coordinator closed the connection before.
+     * @throws IOException if the connection fails while rendering.
+     */
+    private static boolean render(Socket socket, int threads) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        Camera camera;
+        try {
+            byte[] setup = new byte[in.readInt()];
+            in.readFully(setup);
+            camera = readSetup(setup).camera();
+        } catch (EOFException | SocketException e) {
+            return false; // the coordinator was closed while this worker waited for a rendering
+        }
+        out.writeInt(threads);
+        out.flush();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int index = in.readInt(); index != RenderCoordinator.END; index = in.readInt()) {
+                TileScheduler.Tile tile = new TileScheduler.Tile(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                int t = index;
+                pool.execute(() -> send(out, t, renderTile(camera, tile)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return true;
+    }
+
+    /**
+     * Deserializes the settings of a rendering.
+     *
+     * @param bytes The serialized settings.
+     * @return The settings.
+     * @throws IOException if the settings are not valid.
+     */
+    private static Camera.Setup readSetup(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(FILTER);
+            return (Camera.Setup) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidObjectException("Bad render settings: " + e);
+        }
+    }
+
+    /**
+     * Renders the pixels of a tile.
+     *
+     * @param camera The camera.
+     * @param tile   The tile.
+     * @return The colors of the pixels, row by row.
+     */
+    private static Color[] renderTile(Camera camera, TileScheduler.Tile tile) {
+        ImageWriter image = camera.getImageWriter();
+        return camera.traceTile(tile, image.getNx(), image.getNy(), null, () -> false);
+    }
+
+    /**
+     * Sends a rendered tile to the coordinator. The threads take turns, so tiles are never interleaved;
+     * if the connection failed the tile is dropped, and the coordinator hands it to another worker.
+     *
+     * @param out    The connection to the coordinator.
+     * @param index  The index of the tile.
+     * @param colors The colors of its pixels.
+     */
+    private static void send(DataOutputStream out, int index, Color[] colors) {
+        synchronized (out) {
+            try {
+                out.writeInt(index);
+                for (Color color : colors) {
+                    Double3 rgb = color.getRgb();
+                    out.writeDouble(rgb.getD1());
+                    out.writeDouble(rgb.getD2());
+                    out.writeDouble(rgb.getD3());
+                }
+                out.flush();
+            } catch (IOException e) {
+                // the coordinator is gone or dropped this worker
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package renderer;
+
+import primitives.Color;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The points of the view plane where adaptive super sampling traces rays, and the colors traced at them.
+ * The points lie on a lattice of {@link #getScale()} steps per pixel side: the corners of a pixel are the corners
+ * of its neighbours, and the corners and centers of the quadrants at every level of subdivision are shared
+ * by sibling quadrants. Every lattice point is traced once and then remembered, so shared points are not
+ * traced again. Vertical neighbours share their corners only if the pixels are square.
+ * <p>
+ * A lattice serves the pixels of one tile on one thread; tiles do not share their lattices.
+ */
+class SampleLattice {
+    private final Point location;         // The location of the camera
+    private final Point viewPlaneCenter;  // The center of the view plane
+    private final Vector vUp;             // The up direction of the camera
+    private final Vector vRight;          // The right direction of the camera
+    private final RayTracerBase rayTracer; // Traces the rays
+    private final int nX;                 // The width of the image in pixels
+    private final int nY;                 // The height of the image in pixels
+    private final double pixelWidth;      // The width of a pixel, and the side of its sampled square
+    private final double pixelHeight;     // The vertical distance between pixel centers
+    private final boolean square;         // Whether vertical neighbours share their corners
+    private final int scale;              // The amount of lattice steps per pixel side
+    private final Map<Long, Color> colors = new HashMap<>(); // The traced colors by lattice point
+
+    /**
+     * Constructs an empty lattice.
+     *
+     * @param location        The location of the camera.
+     * @param viewPlaneCenter The center of the view plane.
+     * @param vUp             The up direction of the camera.
+     * @param vRight          The right direction of the camera.
+     * @param width           The width of the view plane.
+     * @param height          The height of the view plane.
+     * @param nX              The width of the image in pixels.
+     * @param nY              The height of the image in pixels.
+     * @param depth           The depth of the adaptive super sampling, at most {@link Camera#MAX_ADAPTIVE_DEPTH}.
+     * @param rayTracer       Traces the rays.
+     */
+    SampleLattice(Point location, Point viewPlaneCenter, Vector vUp, Vector vRight, double width, double height,
+                  int nX, int nY, int depth, RayTracerBase rayTracer) {
+        this.location = location;
+        this.viewPlaneCenter = viewPlaneCenter;
+        this.vUp = vUp;
+        this.vRight = vRight;
+        this.rayTracer = rayTracer;
+        this.nX = nX;
+        this.nY = nY;
+        this.pixelWidth = width / nX;
+        this.pixelHeight = height / nY;
+        this.square = pixelWidth == pixelHeight;
+        // the deepest quadrants are traced at their centers, half a step inside them
+        this.scale = 1 << (depth + 1);
+    }
+
+    /**
+     * Gets the resolution of the lattice.
+     *
+     * @return The amount of lattice steps per pixel side.
+     */
+    int getScale() {
+        return scale;
+    }
+
+    /**
+     * Gets the lattice column of the left side of a pixel.
+     *
+     * @param j The column of the pixel.
+     * @return The lattice column.
+     */
+    long left(int j) {
+        return (long) j * scale;
+    }
+
+    /**
+     * Gets the lattice row of the top side of a pixel.
+     * Rows of pixels that do not share their corners are kept apart by an unused lattice row.
+     *
+     * @param i The row of the pixel.
+     * @return The lattice row.
+     */
+    long top(int i) {
+        return (long) i * (square ? scale : scale + 1);
+    }
+
+    /**
+     * Traces a ray through a lattice point, or gets the color it was traced before.
+     *
+     * @param x The lattice column.
+     * @param y The lattice row.
+     * @return The color of the ray.
+     */
+    Color trace(long x, long y) {
+        long key = y * ((long) nX * scale + 1) + x;
+        Color color = colors.get(key);
+        if (color == null) {
+            color = rayTracer.traceRay(new Ray(location, point(x, y).subtract(location)));
+            colors.put(key, color);
+        }
+        return color;
+    }
+
+    /**
+     * Calculates the place of a lattice point on the view plane.
+     *
+     * @param x The lattice column.
+     * @param y The lattice row.
+     * @return The point.
+     */
+    private Point point(long x, long y) {
+        double xJ = ((double) x / scale - nX / 2d) * pixelWidth;
+        double yI;
+        if (square) {
+            yI = -((double) y / scale - nY / 2d) * pixelWidth;
+        } else {
+            long i = y / (scale + 1);
+            yI = -(i - (nY - 1) / 2d) * pixelHeight - ((double) (y - i * (scale + 1)) / scale - 0.5) * pixelWidth;
+        }
+        Point p = viewPlaneCenter;
+        if (xJ != 0) p = p.add(vRight.scale(xJ));
+        if (yI != 0) p = p.add(vUp.scale(yI));
+        return p;
+    }
+}
@@ -0,0 +1,263 @@
+package renderer;
+
+import geometries.BoundingBox;
+import geometries.Instance;
+import geometries.Intersectable.GeoPoint;
+import lighting.LightSource;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders the frames of an animation of a scene, e.g. a turntable or a flythrough, reusing the previous frame.
+ * Every frame has its own camera and may move instances of the scene. The primary hit and color of every pixel
+ * are kept, and a pixel is shaded again only if its hit, material or lighting could have changed:
+ * <ul>
+ *     <li>With the camera in place, a pixel keeps its color unless its ray, up to its hit, or the paths from its hit
+ *     to the lights, pass through the old or new box of a moved instance; reflective and transparent pixels
+ *     are shaded again whenever something moved.</li>
+ *     <li>With a moving camera, the primary hit of every pixel is found and projected back into the previous frame.
+ *     If the pixel there saw the same point of the same material, whose shading does not depend on the view
+ *     (no specular, reflection or transparency), and no moved instance is in the way of the lights,
+ *     its color is reused.</li>
+ * </ul>
+ * A camera moving over a diffuse surface thus reuses the shading of nearby points, within a pixel.
+ * Lights, materials and geometries must not change during a sequence other than through the frame transforms.
+ * Reprojection needs one ray per pixel; frames of cameras with super sampling are rendered in full,
+ * and so is the frame after them.
+ * <p>
+ * Every frame is written on a thread of its own while the next one renders, so every frame should have
+ * an image writer of its own; a frame that reuses the image writer of the previous frame waits for its write.
+ */
+public class SequenceRenderer implements AutoCloseable {
+    /**
+     * The relative difference of depth under which two hits are taken for the same point.
+     */
+    private static final double SAME_DEPTH = 1e-2;
+
+    private final Scene scene;                 // The animated scene
+    private final ExecutorService writer;      // Writes the frames
+    private Camera previous = null;            // The camera of the previous frame, or null before the first frame
+    private boolean reusable = false;          // Whether the previous frame kept the hits of its pixels
+    private Point[] hits;                      // The primary hit of every pixel of the previous frame, null on a miss
+    private Color[] colors;                    // The color of every pixel of the previous frame
+    private Material[] materials;              // The material hit in every pixel of the previous frame
+    private CompletableFuture<Void> written = CompletableFuture.completedFuture(null); // The last frame write
+    private long shaded = 0;                   // The pixels shaded in the last frame
+
+    /**
+     * Constructs a renderer of an animation.
+     *
+     * @param scene The animated scene, which the cameras of all the frames must render.
+     */
+    public SequenceRenderer(Scene scene) {
+        this.scene = scene;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Frame writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Moves instances of the scene, renders the next frame, and starts writing it.
+     *
+     * @param camera The camera of the frame, rendering the scene of the sequence.
+     * @param moves  The new placements of the instances that move in this frame; may be empty.
+     * @return The write of the frame, which completes when the image file was written.
+     * @throws IllegalArgumentException if the camera renders another scene, or an instance is not in the scene.
+     */
+    public CompletableFuture<Void> renderFrame(Camera camera, Map<Instance, Transform> moves) {
+        RayTracerBase tracer = camera.getRayTracer();
+        if (tracer.scene != scene) throw new IllegalArgumentException("The camera renders another scene");
+        ImageWriter image = camera.getImageWriter();
+        if (previous != null && previous.getImageWriter() == image) written.join();
+
+        List<BoundingBox> changed = new ArrayList<>();
+        for (Map.Entry<Instance, Transform> move : moves.entrySet()) {
+            changed.add(move.getKey().getBoundingBox());
+            scene.move(move.getKey(), move.getValue());
+            changed.add(move.getKey().getBoundingBox());
+        }
+        scene.geometries.prepare();
+
+        int nX = image.getNx();
+        int nY = image.getNy();
+        boolean single = camera.getTotalRays() == 1 && camera.getAdaptiveDepth() == 0;
+        boolean reuse = single && reusable;
+        boolean sameView = reuse && camera.hasSameView(previous);
+        Point[] newHits = new Point[nX * nY];
+        Color[] newColors = new Color[nX * nY];
+        Material[] newMaterials = new Material[nX * nY];
+        AtomicLong shadedPixels = new AtomicLong();
+        RenderProgress progress = new RenderProgress((long) nX * nY, camera.getPrintInterval());
+
+        new TileScheduler(nX, nY, camera.getTileSize(), TileScheduler.Order.HILBERT).run(camera.getThreads(), tile -> {
+            if (!single) {
+                Color[] traced = camera.traceTile(tile, nX, nY, progress, () -> false);
+                int t = 0;
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                        newColors[i * nX + j] = traced[t];
+                        image.writePixel(j, i, traced[t++]);
+                    }
+                }
+                shadedPixels.addAndGet(traced.length);
+                return;
+            }
+            for (int i = tile.y(); i < tile.y() + tile.height(); i++) {
+                for (int j = tile.x(); j < tile.x() + tile.width(); j++) {
+                    int k = i * nX + j;
+                    if (sameView && keeps(camera, k, j, i, changed)) {
+                        newHits[k] = hits[k];
+                        newColors[k] = colors[k];
+                        newMaterials[k] = materials[k];
+                    } else {
+                        Ray ray = camera.constructRay(nX, nY, j, i);
+                        GeoPoint gp = tracer.findClosestIntersection(ray);
+                        if (gp == null) {
+                            newColors[k] = scene.background;
+                        } else {
+                            newHits[k] = gp.point;
+                            newMaterials[k] = gp.geometry.getMaterial();
+                            newColors[k] = reuse && !sameView ? reprojected(camera, gp, changed) : null;
+                            if (newColors[k] == null) {
+                                newColors[k] = tracer.calcColor(gp, ray);
+                                shadedPixels.incrementAndGet();
+                            }
+                        }
+                    }
+                    image.writePixel(j, i, newColors[k]);
+                    progress.pixelDone();
+                }
+            }
+        });
+
+        previous = camera;
+        reusable = single;
+        hits = newHits;
+        colors = newColors;
+        materials = newMaterials;
+        shaded = shadedPixels.get();
+        written = CompletableFuture.runAsync(image::writeToImage, writer);
+        return written;
+    }
+
+    /**
+     * Gets the amount of pixels that were shaded in the last frame, rather than reused.
+     *
+     * @return The amount of shaded pixels.
+     */
+    public long getShadedPixels() {
+        return shaded;
+    }
+
+    /**
+     * Waits until all the frames were written.
+     * If the waiting thread is interrupted, it stops waiting and keeps its interrupt status,
+     * and the frames still being written go on in the background.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Checks whether a pixel of a camera in place keeps the color it had in the previous frame.
+     *
+     * @param camera  The camera.
+     * @param k       The position of the pixel in the cache.
+     * @param j       The column of the pixel.
+     * @param i       The row of the pixel.
+     * @param changed The old and new boxes of the moved instances.
+     * @return Whether the hit and the lighting of the pixel are unchanged.
+     */
+    private boolean keeps(Camera camera, int k, int j, int i, List<BoundingBox> changed) {
+        if (changed.isEmpty()) return true;
+        Point hit = hits[k];
+        Ray ray = camera.constructRay(previous.getImageWriter().getNx(), previous.getImageWriter().getNy(), j, i);
+        double distance = hit == null ? Double.POSITIVE_INFINITY : ray.getHead().distance(hit) * (1 + SAME_DEPTH);
+        for (BoundingBox box : changed)
+            if (box.intersects(ray, distance)) return false;
+        return hit == null || !hasSecondaryRays(materials[k]) && lightsClear(hit, changed);
+    }
+
+    /**
+     * Finds the color of a hit in the previous frame, seen by a camera that moved.
+     *
+     * @param camera  The camera.
+     * @param gp      The primary hit of a pixel.
+     * @param changed The old and new boxes of the moved instances.
+     * @return The color of the point in the previous frame, or null if it must be shaded again.
+     */
+    private Color reprojected(Camera camera, GeoPoint gp, List<BoundingBox> changed) {
+        Material material = gp.geometry.getMaterial();
+        if (hasSecondaryRays(material) || !material.kS.equals(Double3.ZERO)) return null;
+        double[] before = previous.project(gp.point);
+        if (before == null) return null;
+        int j = (int) Math.round(before[0]);
+        int i = (int) Math.round(before[1]);
+        int nX = previous.getImageWriter().getNx();
+        if (j < 0 || i < 0 || j >= nX || i >= previous.getImageWriter().getNy()) return null;
+        int k = i * nX + j;
+        Point hit = hits[k];
+        if (hit == null || materials[k] != material) return null;
+
+        // the previous hit must be seen in this pixel, at the same depth
+        double[] now = camera.project(hit);
+        double[] pixel = camera.project(gp.point);
+        if (now == null || Math.abs(now[0] - pixel[0]) > 0.5 || Math.abs(now[1] - pixel[1]) > 0.5) return null;
+        Point eye = camera.getLocation();
+        double depth = eye.distance(gp.point);
+        if (Math.abs(eye.distance(hit) - depth) > SAME_DEPTH * depth) return null;
+        return lightsClear(gp.point, changed) && lightsClear(hit, changed) ? colors[k] : null;
+    }
+
+    /**
+     * Checks whether the shading of a material traces rays other than to the lights.
+     *
+     * @param material The material.
+     * @return Whether the material reflects or is transparent.
+     */
+    private static boolean hasSecondaryRays(Material material) {
+        return !material.kR.equals(Double3.ZERO) || !material.kT.equals(Double3.ZERO);
+    }
+
+    /**
+     * Checks whether the paths from a point to all the lights are clear of the moved instances.
+     *
+     * @param point   The point.
+     * @param changed The old and new boxes of the moved instances.
+     * @return Whether no moved instance could shadow the point, before or after it moved.
+     */
+    private boolean lightsClear(Point point, List<BoundingBox> changed) {
+        if (changed.isEmpty()) return true;
+        for (LightSource light : scene.lights) {
+            Vector toLight = light.getL(point).scale(-1);
+            Ray ray = new Ray(point, toLight);
+            double distance = light.getDistance(point);
+            for (BoundingBox box : changed)
+                if (box.intersects(ray, distance)) return false;
+        }
+        return true;
+    }
+}
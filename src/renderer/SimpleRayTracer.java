@@ -5,9 +5,6 @@ import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
 
-import java.util.LinkedList;
-import java.util.List;
-
 import static primitives.Util.*;
 
 /**
@@ -52,24 +49,15 @@ public class SimpleRayTracer extends RayTracerBase {
         return closestPoint == null ? scene.background : calcColor(closestPoint, ray);
     }
 
-    /**
-     * Finds the closest intersection point of the given ray with the geometries in the scene.
-     *
-     * @param ray The ray for which to find the closest intersection point.
-     * @return The closest intersection point of the ray with the geometries in the scene, or {@code null} if no intersection is found.
-     */
-    private GeoPoint findClosestIntersection(Ray ray) {
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        return intersections == null ? null : ray.findClosestGeoPoint(intersections);
-    }
-
     /**
      * Calculates the color of a given point in the scene.
      *
-     * @param gp The point for which to calculate the color.
+     * @param gp  The point for which to calculate the color.
+     * @param ray The ray that hit the point.
      * @return The color of the specified point in the scene.
      */
-    private Color calcColor(GeoPoint gp, Ray ray) {
+    @Override
+    public Color calcColor(GeoPoint gp, Ray ray) {
         return calcColor(gp, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K)
                 .add(scene.ambientLight.getIntensity());
     }
@@ -144,32 +132,6 @@ public class SimpleRayTracer extends RayTracerBase {
         return material.kS.scale(Math.pow(Math.max(0, -vr), material.nShininess));
     }
 
-
-    /**
-     * Checks if the point is unshaded. Not in use after implementation of Transparency.
-     *
-     * @param gp    The point for which to calculate the color
-     * @param light The light source
-     * @param l     The light vector
-     * @param n     The normal vector
-     * @param nl    The dot product of n and l
-     * @return true if the point is unshaded, false otherwise
-     */
-    private boolean unshaded(GeoPoint gp, LightSource light, Vector l, Vector n, double nl) {
-        Vector lightDirection = l.scale(-1); // from point to light source
-        Ray ray = new Ray(gp.point, lightDirection, n);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null) return true;
-
-
-        double lightDistance = light.getDistance(gp.point);
-        for (GeoPoint gpoint : intersections) {
-            if (alignZero(gpoint.point.distance(gp.point) - lightDistance) <= 0)
-                return false;
-        }
-        return true;
-    }
-
     /**
      * Calculates the global effects of a point on a geometry.
      *
@@ -196,8 +158,10 @@ public class SimpleRayTracer extends RayTracerBase {
         }
 
         else{
-            LinkedList<Point> pointsReflected = Blackboard.generatePointsCircle(reflectedRay, gp.point.add(reflectedRay.getDirection().scale(material.gloss)), RADIUS, 9);
-            int pointsSizeReflected = pointsReflected.size();
+            Point[] pointsReflected = Blackboard.mapCircle(reflectedRay,
+                    gp.point.add(reflectedRay.getDirection().scale(material.gloss)), RADIUS, 9,
+                    material.sampler, sampleSet(gp.point, 2 * level));
+            int pointsSizeReflected = pointsReflected.length;
             //1 for loop for reflected rays
             for (Point p : pointsReflected) {
                 Ray reflectedRay2 = new Ray(gp.point, p.subtract(gp.point), n);
@@ -220,8 +184,10 @@ public class SimpleRayTracer extends RayTracerBase {
             refractedColor = calcGlobalEffect(refractedRay, level, k, material.kT);
         }
         else{
-            LinkedList<Point> pointsRefracted = Blackboard.generatePointsCircle(refractedRay, gp.point.add(refractedRay.getDirection().scale(material.diff)), RADIUS, 64);
-            int pointsSizeRefracted = pointsRefracted.size();
+            Point[] pointsRefracted = Blackboard.mapCircle(refractedRay,
+                    gp.point.add(refractedRay.getDirection().scale(material.diff)), RADIUS, 64,
+                    material.sampler, sampleSet(gp.point, 2 * level + 1));
+            int pointsSizeRefracted = pointsRefracted.length;
             //1 for loop for refracted rays
             for (Point q : pointsRefracted) {
                 Ray refractedRay2 = new Ray(gp.point, q.subtract(gp.point), n.scale(-1));
@@ -242,6 +208,21 @@ public class SimpleRayTracer extends RayTracerBase {
 
     }
 
+    /**
+     * Identifies the sample set of a bounce, so bounces at different points place their rays differently.
+     *
+     * @param point The point of the bounce.
+     * @param kind  Tells apart the bounces at the same point, e.g. by recursion level and reflection or refraction.
+     * @return The identifier of the sample set.
+     */
+    private static long sampleSet(Point point, int kind) {
+        Double3 xyz = point.getXyz();
+        long set = Double.doubleToLongBits(xyz.getD1());
+        set = set * 31 + Double.doubleToLongBits(xyz.getD2());
+        set = set * 31 + Double.doubleToLongBits(xyz.getD3());
+        return set * 31 + kind;
+    }
+
     /**
      * Calculates the global effect of a ray.
      *
@@ -297,15 +278,6 @@ public class SimpleRayTracer extends RayTracerBase {
     private Double3 transparency(GeoPoint gp, LightSource ls, Vector l, Vector n) {
         Vector lightDirection = l.scale(-1); // from point to light source
         Ray ray = new Ray(gp.point, lightDirection, n);
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections(ray);
-        if (intersections == null) return Double3.ONE;
-
-        Double3 ktr = Double3.ONE;
-        double lightDistance = ls.getDistance(gp.point);
-        for (GeoPoint gpoint : intersections)
-            if (alignZero(gpoint.point.distance(gp.point) - lightDistance) <= 0)
-                ktr = ktr.product(gpoint.geometry.getMaterial().kT);
-
-        return ktr;
+        return scene.geometries.findTransparency(ray, ls.getDistance(ray.getHead()));
     }
 }
@@ -0,0 +1,306 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits an image into square tiles and renders them on a work-stealing pool.
+ * Tiles are ordered along a space filling curve, so tiles rendered one after the other are near each other
+ * in the image and touch the same parts of the scene. The pool splits the ordered tiles in halves,
+ * so every thread works through a run of neighbouring tiles and idle threads steal the largest runs left;
+ * expensive regions of the image are shared between the threads instead of falling on one of them.
+ */
+public class TileScheduler {
+    /**
+     * The order in which the tiles are rendered.
+     */
+    public enum Order {
+        /**
+         * Row by row, left to right.
+         */
+        SCANLINE,
+        /**
+         * Along the Z-order (Morton) curve, which interleaves the bits of the tile column and row.
+         */
+        MORTON,
+        /**
+         * Along the Hilbert curve, where every tile touches the one before it.
+         */
+        HILBERT
+    }
+
+    /**
+     * A rectangle of pixels, clipped to the image.
+     *
+     * @param x      The first column of the tile.
+     * @param y      The first row of the tile.
+     * @param width  The amount of columns in the tile.
+     * @param height The amount of rows in the tile.
+     */
+    public record Tile(int x, int y, int width, int height) {
+        /**
+         * Checks whether a pixel is in the tile.
+         *
+         * @param j The column of the pixel.
+         * @param i The row of the pixel.
+         * @return Whether the pixel is in the tile.
+         */
+        public boolean contains(int j, int i) {
+            return j >= x && j < x + width && i >= y && i < y + height;
+        }
+    }
+
+    /**
+     * The time a tile took to render.
+     *
+     * @param tile  The tile.
+     * @param nanos The rendering time in nanoseconds.
+     */
+    public record TileTime(Tile tile, long nanos) {
+    }
+
+    private final List<Tile> tiles; // The tiles in rendering order
+
+    /**
+     * Splits an image into tiles.
+     *
+     * @param nX       The width of the image in pixels.
+     * @param nY       The height of the image in pixels.
+     * @param tileSize The side of a tile in pixels; tiles on the right and bottom edges may be smaller.
+     * @param order    The rendering order of the tiles.
+     * @throws IllegalArgumentException if the image is empty or the tile size is not positive.
+     */
+    public TileScheduler(int nX, int nY, int tileSize, Order order) {
+        this(0, 0, nX, nY, tileSize, order);
+    }
+
+    /**
+     * Splits a rectangle of an image into tiles.
+     *
+     * @param x        The first column of the rectangle.
+     * @param y        The first row of the rectangle.
+     * @param width    The amount of columns in the rectangle.
+     * @param height   The amount of rows in the rectangle.
+     * @param tileSize The side of a tile in pixels; tiles on the right and bottom edges may be smaller.
+     * @param order    The rendering order of the tiles.
+     * @throws IllegalArgumentException if the rectangle is empty or the tile size is not positive.
+     */
+    public TileScheduler(int x, int y, int width, int height, int tileSize, Order order) {
+        if (width < 1 || height < 1) throw new IllegalArgumentException("The image must have pixels");
+        if (tileSize < 1) throw new IllegalArgumentException("Tile size must be positive");
+
+        int columns = (width + tileSize - 1) / tileSize;
+        int rows = (height + tileSize - 1) / tileSize;
+        int side = Integer.highestOneBit(Math.max(columns, rows) - 1) << 1; // the curve covers a power of 2 square
+        if (side == 0) side = 1;
+
+        record Keyed(Tile tile, long key) {
+        }
+        List<Keyed> keyed = new ArrayList<>(columns * rows);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                Tile tile = new Tile(x + col * tileSize, y + row * tileSize,
+                        Math.min(tileSize, width - col * tileSize), Math.min(tileSize, height - row * tileSize));
+                long key = switch (order) {
+                    case SCANLINE -> (long) row * columns + col;
+                    case MORTON -> morton(col, row);
+                    case HILBERT -> hilbert(side, col, row);
+                };
+                keyed.add(new Keyed(tile, key));
+            }
+        }
+        keyed.sort(Comparator.comparingLong(Keyed::key));
+        tiles = keyed.stream().map(Keyed::tile).toList();
+    }
+
+    /**
+     * Calculates the position of a cell along the Morton curve.
+     *
+     * @param x The column of the cell.
+     * @param y The row of the cell.
+     * @return The bits of the column and row, interleaved.
+     */
+    static long morton(int x, int y) {
+        return spread(x) | spread(y) << 1;
+    }
+
+    /**
+     * Spreads the bits of a number apart, with a zero bit between every two bits.
+     *
+     * @param v The number.
+     * @return The spread bits.
+     */
+    private static long spread(int v) {
+        long x = v & 0xFFFFFFFFL;
+        x = (x | x << 16) & 0x0000FFFF0000FFFFL;
+        x = (x | x << 8) & 0x00FF00FF00FF00FFL;
+        x = (x | x << 4) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | x << 2) & 0x3333333333333333L;
+        x = (x | x << 1) & 0x5555555555555555L;
+        return x;
+    }
+
+    /**
+     * Calculates the position of a cell along the Hilbert curve.
+     *
+     * @param side The side of the square the curve covers, a power of 2.
+     * @param x    The column of the cell.
+     * @param y    The row of the cell.
+     * @return The distance of the cell along the curve.
+     */
+    static long hilbert(int side, int x, int y) {
+        long d = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // rotate the quadrant, so the curve inside it starts where the previous quadrant ended
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Gets the tiles of the image.
+     *
+     * @return The tiles in rendering order.
+     */
+    public List<Tile> getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Renders all the tiles.
+     * A single thread renders the tiles in order on the calling thread;
+     * more threads render them on a pool of exactly that many workers, which is shut down afterwards.
+     *
+     * @param threads The amount of rendering threads.
+     * @param work    Renders one tile.
+     * @return The rendering time of every tile, in rendering order.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    public List<TileTime> run(int threads, Consumer<Tile> work) {
+        return run(threads, tiles, work);
+    }
+
+    /**
+     * Renders some of the tiles, in a given order, like {@link #run(int, Consumer)}.
+     *
+     * @param threads The amount of rendering threads.
+     * @param tiles   The tiles to render, in rendering order.
+     * @param work    Renders one tile.
+     * @return The rendering time of every tile, in rendering order.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    public static List<TileTime> run(int threads, List<Tile> tiles, Consumer<Tile> work) {
+        return runIndexed(threads, tiles, i -> work.accept(tiles.get(i)));
+    }
+
+    /**
+     * Renders some of the tiles, in a given order, like {@link #run(int, Consumer)},
+     * giving the work the position of every tile instead of the tile, e.g. to find other data kept by position.
+     *
+     * @param threads The amount of rendering threads.
+     * @param tiles   The tiles to render, in rendering order.
+     * @param work    Renders the tile at a position of the list.
+     * @return The rendering time of every tile, in rendering order.
+     * @throws IllegalArgumentException if the amount of threads is not positive.
+     */
+    static List<TileTime> runIndexed(int threads, List<Tile> tiles, IntConsumer work) {
+        if (threads < 1) throw new IllegalArgumentException("There must be at least one rendering thread");
+        if (threads == 1) return runIndexed(null, tiles, work);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return runIndexed(pool, tiles, work);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Renders some of the tiles, in a given order, on a given pool.
+     * The pool is left running, so several renderings may share it.
+     *
+     * @param pool  The rendering threads, or null to render on the calling thread.
+     * @param tiles The tiles to render, in rendering order.
+     * @param work  Renders one tile.
+     * @return The rendering time of every tile, in rendering order.
+     */
+    public static List<TileTime> run(ForkJoinPool pool, List<Tile> tiles, Consumer<Tile> work) {
+        return runIndexed(pool, tiles, i -> work.accept(tiles.get(i)));
+    }
+
+    /**
+     * Renders some of the tiles on a given pool, like {@link #run(ForkJoinPool, List, Consumer)},
+     * giving the work the position of every tile instead of the tile.
+     *
+     * @param pool  The rendering threads, or null to render on the calling thread.
+     * @param tiles The tiles to render, in rendering order.
+     * @param work  Renders the tile at a position of the list.
+     * @return The rendering time of every tile, in rendering order.
+     */
+    static List<TileTime> runIndexed(ForkJoinPool pool, List<Tile> tiles, IntConsumer work) {
+        long[] nanos = new long[tiles.size()];
+        TileTask task = new TileTask(work, nanos, 0, tiles.size());
+        if (pool == null) task.compute();
+        else pool.invoke(task);
+
+        List<TileTime> times = new ArrayList<>(tiles.size());
+        for (int i = 0; i < nanos.length; i++) times.add(new TileTime(tiles.get(i), nanos[i]));
+        return times;
+    }
+
+    /**
+     * Renders a run of tiles, splitting it in halves so idle threads can steal them.
+     */
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient IntConsumer work; // Renders the tile at a position; never serialized
+        private final long[] nanos;               // The rendering times, by tile position
+        private final int from;                   // The first tile of the run
+        private final int to;                     // After the last tile of the run
+
+        /**
+         * Constructs a task for a run of tiles.
+         *
+         * @param work  Renders the tile at a position.
+         * @param nanos The rendering times to fill, by tile position.
+         * @param from  The first tile of the run.
+         * @param to    After the last tile of the run.
+         */
+        TileTask(IntConsumer work, long[] nanos, int from, int to) {
+            this.work = work;
+            this.nanos = nanos;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && getPool() != null) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(work, nanos, from, middle), new TileTask(work, nanos, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                long start = System.nanoTime();
+                work.accept(i);
+                nanos[i] = System.nanoTime() - start;
+            }
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package scene;
 
 import geometries.Geometries;
+import geometries.Instance;
 import lighting.AmbientLight;
 import lighting.LightSource;
 import primitives.Color;
+import primitives.Transform;
 
+import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Represents a scene in a ray tracing environment.
  */
-public class Scene {
+public class Scene implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /** The name of the scene. */
     public String name;
@@ -27,6 +32,7 @@ public class Scene {
     /**
      * The lights present in the scene.
      */
+    @SuppressWarnings("serial") // a LinkedList of serializable lights
     public List<LightSource> lights = new LinkedList<LightSource>();
 
     /**
@@ -57,6 +63,47 @@ public class Scene {
         return this;
     }
 
+    /**
+     * Sets the way the geometries of the scene answer ray queries, e.g. a uniform grid for dense,
+     * evenly spread scenes. It applies to the geometries the scene holds when it is called.
+     * @param acceleration The acceleration to use.
+     * @return The updated Scene object.
+     */
+    public Scene setAcceleration(Geometries.Acceleration acceleration) {
+        this.geometries.setAcceleration(acceleration);
+        return this;
+    }
+
+    /**
+     * Sets a directory to keep the spatial index of the scene geometries in between runs,
+     * so re-rendering a static scene does not index it again.
+     * It applies to the geometries the scene holds when it is called.
+     * @param cacheDirectory The cache directory, or {@code null} to always build the index.
+     * @return The updated Scene object.
+     */
+    public Scene setAccelerationCache(Path cacheDirectory) {
+        this.geometries.setCacheDirectory(cacheDirectory);
+        return this;
+    }
+
+    /**
+     * Moves an instance of the scene to a new placement, e.g. between the frames of an animation.
+     * The spatial index of the scene is refitted around the moved instance instead of being built again.
+     * @param instance  The instance to move.
+     * @param transform The new placement of the instance.
+     * @return The updated Scene object.
+     * @throws IllegalArgumentException if the instance is not in the scene; the instance is then left in place.
+     */
+    public Scene move(Instance instance, Transform transform) {
+        Transform old = instance.getTransform();
+        instance.setTransform(transform);
+        if (!geometries.markMoved(instance)) {
+            instance.setTransform(old);
+            throw new IllegalArgumentException("The instance is not in the scene");
+        }
+        return this;
+    }
+
     /**
      * Sets the ambient light of the scene.
      * @param ambientLight The ambient light to be set.
@@ -0,0 +1,76 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundingBoxTests {
+
+    /**
+     * Test method for {@link BoundingBox#intersects(Ray, double)}.
+     */
+    @Test
+    void testIntersects() {
+        BoundingBox box = new BoundingBox(-1, -1, -1, 1, 1, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Ray starts outside the box and crosses it
+        assertTrue(box.intersects(new Ray(new Point(-3, 0, 0), new Vector(1, 0.2, 0.1)), Double.POSITIVE_INFINITY),
+                "ERROR: ray crosses the box");
+
+        //TC02: Ray starts outside the box and misses it
+        assertFalse(box.intersects(new Ray(new Point(-3, 0, 0), new Vector(1, 2, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: ray misses the box");
+
+        //TC03: Ray starts outside the box and points away from it
+        assertFalse(box.intersects(new Ray(new Point(-3, 0, 0), new Vector(-1, 0, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: box is behind the ray");
+
+        //TC04: Ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0, 0, 0), new Vector(1, 1, 1)), Double.POSITIVE_INFINITY),
+                "ERROR: ray starts inside the box");
+
+        //TC05: The box is beyond the maximal distance
+        assertFalse(box.intersects(new Ray(new Point(-3, 0, 0), new Vector(1, 0, 0)), 1),
+                "ERROR: box is beyond the maximal distance");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Ray parallel to a face and outside the box
+        assertFalse(box.intersects(new Ray(new Point(-3, 2, 0), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: ray is parallel to the box and outside it");
+
+        //TC11: Unbounded box is hit by every ray
+        assertTrue(BoundingBox.UNBOUNDED.intersects(new Ray(new Point(5, 5, 5), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                "ERROR: unbounded box must be hit by every ray");
+
+        //TC12: Empty box is never hit
+        assertFalse(BoundingBox.EMPTY.intersects(new Ray(new Point(0, 0, 0), new Vector(0, 0, 1)), Double.POSITIVE_INFINITY),
+                "ERROR: empty box must never be hit");
+    }
+
+    /**
+     * Test method for {@link BoundingBox#union(BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        BoundingBox a = new BoundingBox(0, 0, 0, 1, 1, 1);
+        BoundingBox b = new BoundingBox(-1, 2, 0.5, 0, 3, 0.7);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Union of two boxes
+        BoundingBox u = a.union(b);
+        for (int axis = 0; axis < 3; axis++) {
+            assertEquals(Math.min(a.getMin(axis), b.getMin(axis)), u.getMin(axis), "ERROR: wrong minimum of union");
+            assertEquals(Math.max(a.getMax(axis), b.getMax(axis)), u.getMax(axis), "ERROR: wrong maximum of union");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Union with the empty box
+        assertEquals(a.getMax(0), a.union(BoundingBox.EMPTY).getMax(0), "ERROR: empty box must not change the union");
+        assertFalse(BoundingBox.EMPTY.union(a).isEmpty(), "ERROR: union with a box is not empty");
+
+        //TC11: Union with the unbounded box
+        assertTrue(a.union(BoundingBox.UNBOUNDED).isUnbounded(), "ERROR: union with unbounded box must be unbounded");
+    }
+}
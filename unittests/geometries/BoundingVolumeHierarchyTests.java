@@ -0,0 +1,49 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundingVolumeHierarchyTests {
+
+    /**
+     * Builds a row of unit boxes along x.
+     *
+     * @param count The amount of boxes.
+     * @return 6 coordinates per box.
+     */
+    private static double[] row(int count) {
+        double[] boxes = new double[6 * count];
+        for (int i = 0; i < count; i++) {
+            double[] box = {2 * i, 0, 0, 2 * i + 1, 1, 1};
+            System.arraycopy(box, 0, boxes, 6 * i, 6);
+        }
+        return boxes;
+    }
+
+    /**
+     * Test method for {@link BoundingVolumeHierarchy#refit()}.
+     */
+    @Test
+    void testRefit() {
+        double[] boxes = row(64);
+        BoundingVolumeHierarchy bvh = new BoundingVolumeHierarchy(boxes);
+        double cost = bvh.cost();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A small move is refitted, and the root grows around the moved box
+        boxes[6 * 10 + 1] += 0.5;
+        boxes[6 * 10 + 4] += 3;
+        assertFalse(bvh.refit(), "ERROR: A small move must not rebuild the tree");
+        assertEquals(4, bvh.getBoundingBox().getMax(1), "ERROR: The refitted root does not contain the moved box");
+
+        //TC02: Shuffling the boxes along the row degrades the tree, which is then rebuilt
+        for (int i = 0; i < 64; i++) {
+            int j = (i * 37) % 64;
+            boxes[6 * i] = 2 * j;
+            boxes[6 * i + 3] = 2 * j + 1;
+        }
+        assertTrue(bvh.refit(), "ERROR: A degraded tree must be rebuilt");
+        assertTrue(bvh.cost() <= 1.5 * cost, "ERROR: The rebuilt tree is still degraded");
+    }
+}
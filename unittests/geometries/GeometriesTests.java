@@ -3,13 +3,69 @@ package geometries;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GeometriesTests {
 
+    /**
+     * Sorts intersection points by their distance from the head of a ray.
+     *
+     * @param points The points, or null.
+     * @param ray    The ray.
+     * @return The sorted points, empty if there are none.
+     */
+    private static List<Point> byDistance(List<Point> points, Ray ray) {
+        List<Point> sorted = points == null ? new ArrayList<>() : new ArrayList<>(points);
+        sorted.sort(Comparator.comparingDouble(p -> p.distance(ray.getHead())));
+        return sorted;
+    }
+
+    /**
+     * Test method for {@link Geometries.Acceleration#BVH}.
+     */
+    @Test
+    void testBoundingVolumeHierarchy() {
+        // A random scene of spheres and triangles, with a plane the hierarchy cannot bound
+        Geometries none = new Geometries().setAcceleration(Geometries.Acceleration.NONE);
+        Geometries bvh = new Geometries().setAcceleration(Geometries.Acceleration.BVH);
+        Random random = new Random(1);
+        Plane plane = new Plane(new Point(0, 0, -5), new Vector(0, 0, 1));
+        none.add(plane);
+        bvh.add(plane);
+        for (int k = 0; k < 200; k++) {
+            Point center = new Point(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20,
+                    random.nextDouble() * 8 - 4);
+            Intersectable geometry = k % 2 == 0
+                    ? new Sphere(0.2 + random.nextDouble(), center)
+                    : new Triangle(center, center.add(new Vector(random.nextDouble() + 0.5, 0, random.nextDouble())),
+                    center.add(new Vector(0, random.nextDouble() + 0.5, random.nextDouble())));
+            none.add(geometry);
+            bvh.add(geometry);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The hierarchy finds the same intersections as testing every geometry
+        for (int k = 0; k < 500; k++) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 50 - 25, random.nextDouble() * 50 - 25, 10),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            assertEquals(byDistance(none.findIntersections(ray), ray), byDistance(bvh.findIntersections(ray), ray),
+                    "ERROR: The hierarchy found other intersections");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A geometry added after the first query is found
+        Ray ray = new Ray(new Point(100, 100, 10), new Vector(0, 0, -1));
+        bvh.findIntersections(ray);
+        bvh.add(new Sphere(1, new Point(100, 100, 0)));
+        assertEquals(3, bvh.findIntersections(ray).size(), "ERROR: The hierarchy was not rebuilt");
+    }
+
     /**
      * Test method for {@link Geometries#findIntersections(Ray)}.
      */
@@ -57,4 +113,134 @@ public class GeometriesTests {
         assertEquals(res3, geometries.findIntersections(ray), "ERROR: Only 1 geometry intersects");
 
     }
+
+    /**
+     * Test method for {@link Geometries#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        Sphere sphere = new Sphere(1, new Point(3, 0, 0));
+        Triangle tri = new Triangle(new Point(-2, -2, 0), new Point(-2, -4, 1), new Point(-4, -2, -3));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The box of a collection is the union of the boxes of its geometries
+        BoundingBox box = new Geometries(sphere, tri).getBoundingBox();
+        assertEquals(-4, box.getMin(0), "ERROR: wrong minimal x of collection");
+        assertEquals(-4, box.getMin(1), "ERROR: wrong minimal y of collection");
+        assertEquals(-3, box.getMin(2), "ERROR: wrong minimal z of collection");
+        assertEquals(4, box.getMax(0), "ERROR: wrong maximal x of collection");
+        assertEquals(1, box.getMax(1), "ERROR: wrong maximal y of collection");
+        assertEquals(1, box.getMax(2), "ERROR: wrong maximal z of collection");
+
+        //TC02: A ray that misses the box of a nested collection finds nothing
+        Geometries nested = new Geometries(new Geometries(sphere, tri));
+        assertNull(nested.findIntersections(new Ray(new Point(0, 10, 0), new Vector(1, 0, 0))),
+                "ERROR: ray passes far from the nested collection");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Empty collection
+        assertTrue(new Geometries().getBoundingBox().isEmpty(), "ERROR: box of empty collection must be empty");
+
+        //TC11: Collection with an unbounded geometry
+        Plane plane = new Plane(new Point(1, 1, 0), new Point(1, 3, 0), new Point(3, 2, 1));
+        assertTrue(new Geometries(sphere, plane).getBoundingBox().isUnbounded(),
+                "ERROR: box of collection with a plane must be unbounded");
+    }
+
+    /**
+     * Test method for {@link Geometries#setAcceleration(Geometries.Acceleration)}.
+     */
+    @Test
+    void testAcceleration() {
+        // A field of spheres on a plane, some of them spanning several grid cells
+        Geometries none = new Geometries().setAcceleration(Geometries.Acceleration.NONE);
+        Geometries bvh = new Geometries().setAcceleration(Geometries.Acceleration.BVH);
+        Geometries grid = new Geometries().setAcceleration(Geometries.Acceleration.GRID);
+        Plane plane = new Plane(new Point(0, 0, -1), new Vector(0, 0, 1));
+        for (Geometries geometries : new Geometries[]{none, bvh, grid}) geometries.add(plane);
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                Sphere sphere = new Sphere((i + j) % 4 == 0 ? 1.5 : 0.4, new Point(2 * i, 2 * j, 0));
+                for (Geometries geometries : new Geometries[]{none, bvh, grid}) geometries.add(sphere);
+            }
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Every acceleration finds the same closest hits and intersection counts as testing every geometry
+        for (int k = 0; k < 200; k++) {
+            Point head = new Point(Util.random(-5, 25), Util.random(-5, 25), Util.random(2, 6));
+            Vector direction = new Vector(Util.random(-1, 1), Util.random(-1, 1), Util.random(-1, -0.1));
+            Ray ray = new Ray(head, direction);
+            Point expected = none.findClosestGeoIntersection(ray).point;
+            assertEquals(expected, bvh.findClosestGeoIntersection(ray).point, "ERROR: BVH closest hit differs");
+            assertEquals(expected, grid.findClosestGeoIntersection(ray).point, "ERROR: grid closest hit differs");
+            int count = none.findIntersections(ray).size();
+            assertEquals(count, grid.findIntersections(ray).size(), "ERROR: grid tested a geometry twice or missed one");
+            assertEquals(none.findTransparency(ray, 100), grid.findTransparency(ray, 100),
+                    "ERROR: grid transparency differs");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Ray parallel to the grid axes, through a row of spheres
+        Ray ray = new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0));
+        assertEquals(20, grid.findIntersections(ray).size(), "ERROR: grid missed spheres along an axis");
+        assertEquals(new Point(-1.5, 0, 0), grid.findClosestGeoIntersection(ray).point, "ERROR: bad grid closest hit");
+    }
+
+    /**
+     * Test method for {@link Geometries#markMoved(Intersectable)}.
+     */
+    @Test
+    void testMarkMoved() {
+        Sphere unit = new Sphere(1, Point.ZERO);
+        Geometries geometries = new Geometries();
+        Instance[] instances = new Instance[20];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new Instance(unit, Transform.translation(new Vector(3 * i + 3, 0, 0)));
+            geometries.add(instances[i]);
+        }
+        Geometries scene = new Geometries(geometries, new Plane(new Point(0, 0, -5), new Vector(0, 0, 1)));
+        Ray down = new Ray(new Point(6, 10, 0), new Vector(0, -1, 0));
+        assertEquals(new Point(6, 1, 0), scene.findClosestGeoIntersection(down).point, "ERROR: Bad hit before the move");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A moved instance inside a nested collection is found at its new place
+        instances[1].setTransform(Transform.translation(new Vector(6, 20, 0)));
+        assertTrue(scene.markMoved(instances[1]), "ERROR: The moved instance was not found");
+        assertNull(scene.findClosestGeoIntersection(down), "ERROR: The moved instance is still at its old place");
+        assertEquals(new Point(6, 21, 0), scene.findClosestGeoIntersection(new Ray(new Point(6, 30, 0),
+                new Vector(0, -1, 0))).point, "ERROR: Bad hit after the move");
+
+        //TC02: A geometry that is not in the collection
+        assertFalse(scene.markMoved(unit), "ERROR: Found a geometry that is not in the collection");
+    }
+
+    /**
+     * Test method for {@link Geometries#add(Intersectable...)} on a collection nested in others.
+     */
+    @Test
+    void testAddNested() {
+        Sphere sphereA = new Sphere(1, new Point(0, 0, 0));
+        Sphere sphereB = new Sphere(1, new Point(10, 0, 0));
+        Ray rayA = new Ray(new Point(0, 0, 5), new Vector(0, 0, -1));
+        Ray rayB = new Ray(new Point(10, 0, 5), new Vector(0, 0, -1));
+        for (Geometries.Acceleration acceleration : Geometries.Acceleration.values()) {
+            Geometries inner = new Geometries(new Sphere(1, new Point(0, 5, 0)));
+            Geometries outer = new Geometries(inner, sphereA).setAcceleration(acceleration);
+            Geometries top = new Geometries(outer);
+            assertEquals(2, top.findIntersections(rayA).size(), "ERROR: Bad hits before the change");
+            assertNull(top.findIntersections(rayB), "ERROR: Bad hits before the change");
+
+            // ============ Equivalence Partitions Tests ==============
+            //TC01: A geometry added to a nested collection after a query is found through all its parents
+            inner.add(sphereB);
+            assertEquals(2, inner.findIntersections(rayB).size(), "ERROR: The nested collection misses its geometry");
+            assertEquals(2, outer.findIntersections(rayB).size(), "ERROR: The parent misses the new geometry "
+                    + acceleration);
+            assertEquals(2, top.findIntersections(rayB).size(), "ERROR: The grandparent misses the new geometry");
+            assertEquals(new Point(10, 0, 1), top.findClosestGeoIntersection(rayB).point,
+                    "ERROR: Bad closest hit of the new geometry");
+            assertEquals(11, top.getBoundingBox().getMax(0), 1e-10, "ERROR: The box of the grandparent was not updated");
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchyCacheTests {
+
+    /**
+     * Builds a flat grid of triangle boxes.
+     *
+     * @param size The amount of triangles along each side.
+     * @return 6 coordinates per triangle.
+     */
+    private static double[] boxes(int size) {
+        double[] boxes = new double[6 * size * size];
+        for (int i = 0; i < size * size; i++) {
+            double x = i % size, y = (double) (i / size);
+            double[] box = {x, y, 0, x + 1, y + 1, 0.5};
+            System.arraycopy(box, 0, boxes, 6 * i, 6);
+        }
+        return boxes;
+    }
+
+    /**
+     * Lists the cache files in a directory.
+     *
+     * @param directory The cache directory.
+     * @return The cache files.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    /**
+     * Test method for {@link HierarchyCache#load(Path, double[])}.
+     */
+    @Test
+    void testLoad() throws IOException {
+        Path directory = Files.createTempDirectory("bvh");
+        double[] boxes = boxes(20);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The first load builds the hierarchy and saves it
+        BoundingVolumeHierarchy built = HierarchyCache.load(directory, boxes);
+        List<Path> files = files(directory);
+        assertEquals(1, files.size(), "ERROR: the hierarchy was not saved");
+        byte[] saved = Files.readAllBytes(files.getFirst());
+
+        //TC02: A second load reads the same hierarchy back, without rewriting the file
+        BoundingVolumeHierarchy loaded = HierarchyCache.load(directory, boxes);
+        assertEquals(built.getNodeCount(), loaded.getNodeCount(), "ERROR: the loaded hierarchy differs");
+        assertEquals(built.getBoundingBox().toString(), loaded.getBoundingBox().toString(),
+                "ERROR: the loaded hierarchy differs");
+        assertArrayEquals(saved, Files.readAllBytes(files.getFirst()), "ERROR: the cache file was rewritten");
+
+        //TC03: Other geometry gets its own file
+        HierarchyCache.load(directory, boxes(21));
+        assertEquals(2, files(directory).size(), "ERROR: other geometry must not reuse the cache file");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A corrupt file is detected and rebuilt
+        byte[] corrupt = saved.clone();
+        corrupt[corrupt.length / 2] ^= 0x55;
+        Files.write(files.getFirst(), corrupt);
+        loaded = HierarchyCache.load(directory, boxes);
+        assertEquals(built.getNodeCount(), loaded.getNodeCount(), "ERROR: the corrupt cache was not rebuilt");
+        assertArrayEquals(saved, Files.readAllBytes(files.getFirst()), "ERROR: the corrupt cache was not replaced");
+
+        //TC11: A truncated file is detected and rebuilt
+        Files.write(files.getFirst(), Arrays.copyOf(saved, 10));
+        assertEquals(built.getNodeCount(), HierarchyCache.load(directory, boxes).getNodeCount(),
+                "ERROR: the truncated cache was not rebuilt");
+        assertArrayEquals(saved, Files.readAllBytes(files.getFirst()), "ERROR: the truncated cache was not replaced");
+    }
+
+    /**
+     * Test method for {@link Geometries#setCacheDirectory(Path)}.
+     */
+    @Test
+    void testCachedGeometries() throws IOException {
+        Path directory = Files.createTempDirectory("bvh");
+        Geometries plain = new Geometries();
+        Geometries cached = new Geometries().setCacheDirectory(directory);
+        Geometries reloaded = new Geometries().setCacheDirectory(directory);
+        for (int i = 0; i < 50; i++) {
+            Sphere sphere = new Sphere(0.4, new Point(i % 10, i / 10, 0));
+            plain.add(sphere);
+            cached.add(sphere);
+            reloaded.add(sphere);
+        }
+        Ray ray = new Ray(new Point(-1, 0.1, 0.1), new Vector(1, 0.2, 0));
+
+        //TC01: The collection that builds and saves the hierarchy finds the same hits
+        assertEquals(plain.findIntersections(ray), cached.findIntersections(ray), "ERROR: a saved hierarchy gives other hits");
+        assertEquals(1, files(directory).size(), "ERROR: the hierarchy was not saved");
+
+        //TC02: Another collection over the same geometry reads the saved hierarchy back
+        assertEquals(plain.findIntersections(ray), reloaded.findIntersections(ray), "ERROR: a loaded hierarchy gives other hits");
+        assertEquals(1, files(directory).size(), "ERROR: the same geometry must reuse the cache file");
+    }
+}
@@ -0,0 +1,137 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceTests {
+
+    /**
+     * Test method for {@link Instance#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Sphere unit = new Sphere(1, Point.ZERO);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A moved copy is hit like the same sphere placed there
+        Instance moved = new Instance(unit, Transform.translation(new Vector(5, 0, 0)));
+        Ray ray = new Ray(new Point(5, 0, -3), new Vector(0, 0, 1));
+        assertEquals(List.of(new Point(5, 0, -1), new Point(5, 0, 1)), moved.findIntersections(ray),
+                "ERROR: Bad intersections with a moved copy");
+
+        //TC02: A scaled copy is hit at the scaled surface
+        Instance scaled = new Instance(unit, Transform.scaling(2, 1, 1));
+        ray = new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0));
+        assertEquals(new Point(-2, 0, 0), scaled.findClosestGeoIntersection(ray).point,
+                "ERROR: Bad closest intersection with a scaled copy");
+
+        //TC03: The hit is beyond the maximal distance, which is measured in world space
+        assertNull(scaled.findClosestGeoIntersection(ray, 2.5), "ERROR: Found a hit beyond the distance");
+        assertNotNull(scaled.findClosestGeoIntersection(ray, 3.5), "ERROR: Missed a hit before the distance");
+
+        //TC04: A ray that misses the copy
+        ray = new Ray(new Point(0, 0, -3), new Vector(0, 0, 1));
+        assertNull(moved.findIntersections(ray), "ERROR: ray misses the moved copy");
+    }
+
+    /**
+     * Test method for {@link Instance#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        Sphere unit = new Sphere(1, Point.ZERO);
+        Instance scaled = new Instance(unit, Transform.scaling(2, 1, 1));
+        Ray ray = new Ray(new Point(1, 0, 5), new Vector(0, 0, -1));
+        Intersectable.GeoPoint gp = scaled.findClosestGeoIntersection(ray);
+
+        //TC01: Normals of a stretched sphere follow the inverse transpose, not the object normal
+        Point p = gp.point;
+        Vector expected = new Vector(p.getXyz().getD1() / 4, p.getXyz().getD2(), p.getXyz().getD3()).normalize();
+        assertEquals(expected, gp.geometry.getNormal(p), "ERROR: Bad normal of a stretched copy");
+
+        //TC02: The normal of an instance of a single geometry
+        assertEquals(expected, scaled.getNormal(p), "ERROR: Bad normal of a stretched copy");
+    }
+
+    /**
+     * Test method for {@link Instance#setMaterial(Material)}.
+     */
+    @Test
+    void testMaterialOverride() {
+        Material shared = new Material().setKd(0.5);
+        Sphere sphere = (Sphere) new Sphere(1, Point.ZERO).setMaterial(shared);
+        Ray ray = new Ray(new Point(0, 0, -3), new Vector(0, 0, 1));
+
+        //TC01: Without an override a copy keeps the material of the shared geometry
+        Instance plain = new Instance(sphere, Transform.IDENTITY);
+        assertSame(shared, plain.findClosestGeoIntersection(ray).geometry.getMaterial(),
+                "ERROR: A copy must keep the shared material");
+
+        //TC02: An override replaces the material of the shared geometry for this copy only
+        Material glass = new Material().setKt(0.5);
+        Instance glassy = new Instance(sphere, Transform.IDENTITY).setMaterial(glass);
+        assertSame(glass, glassy.findClosestGeoIntersection(ray).geometry.getMaterial(),
+                "ERROR: The override material was not used");
+        assertSame(shared, sphere.getMaterial(), "ERROR: The override changed the shared geometry");
+
+        //TC03: Shadow rays go through both crossings of the overridden material
+        assertEquals(new Double3(0.25), glassy.findTransparency(ray, 10), "ERROR: Bad transparency of the copy");
+        assertEquals(Double3.ZERO, plain.findTransparency(ray, 10), "ERROR: Bad transparency of the copy");
+    }
+
+    /**
+     * Test method for {@link Instance#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        TriangleMesh mesh = new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 2});
+        Transform transform = Transform.rotation(new Vector(0, 0, 1), 90).then(Transform.translation(new Vector(0, 0, 3)));
+        BoundingBox box = new Instance(mesh, transform).getBoundingBox();
+
+        //TC01: The box of a rotated and moved copy
+        assertEquals(-1, box.getMin(0), 1e-10, "ERROR: Bad box of a rotated copy");
+        assertEquals(0, box.getMax(0), 1e-10, "ERROR: Bad box of a rotated copy");
+        assertEquals(1, box.getMax(1), 1e-10, "ERROR: Bad box of a rotated copy");
+        assertEquals(3, box.getMin(2), 1e-10, "ERROR: Bad box of a moved copy");
+
+        //TC02: Many copies of one mesh in a collection are found through the two level index
+        Geometries copies = new Geometries();
+        for (int i = 1; i <= 100; i++)
+            copies.add(new Instance(mesh, Transform.translation(new Vector(2 * i, 0, 0))));
+        Ray ray = new Ray(new Point(40.25, 0.25, 5), new Vector(0, 0, -1));
+        assertEquals(new Point(40.25, 0.25, 0), copies.findClosestGeoIntersection(ray).point,
+                "ERROR: Bad hit on a copy in a collection");
+    }
+
+    /**
+     * Test method for {@link Instance#getBoundingBox()} after the shared geometry changed.
+     */
+    @Test
+    void testPrototypeChanged() {
+        Transform moved = Transform.translation(new Vector(10, 0, 0));
+        Ray ray = new Ray(new Point(10, 0, -5), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A geometry added to the shared collection before the copy is placed
+        Geometries shared = new Geometries();
+        Instance copy = new Instance(shared, moved);
+        shared.add(new Sphere(1, Point.ZERO));
+        Geometries scene = new Geometries(copy, new Sphere(1, new Point(-10, 0, 0)));
+        assertEquals(9, copy.getBoundingBox().getMin(0), 1e-10, "ERROR: The box did not follow the shared geometry");
+        assertEquals(new Point(10, 0, -1), scene.findClosestGeoIntersection(ray).point,
+                "ERROR: Missed a geometry added to the shared collection");
+
+        //TC02: A geometry added to the shared collection after the index of the placed copy was built
+        Ray side = new Ray(new Point(10, 5, -5), new Vector(0, 0, 1));
+        assertNull(scene.findClosestGeoIntersection(side), "ERROR: Hit a geometry that is not there yet");
+        shared.add(new Sphere(1, new Point(0, 5, 0)));
+        assertEquals(new Point(10, 5, -1), scene.findClosestGeoIntersection(side).point,
+                "ERROR: The index of the placed copy did not follow the shared collection");
+        assertEquals(new Point(10, 0, -1), scene.findClosestGeoIntersection(ray).point,
+                "ERROR: Lost the first geometry of the shared collection");
+    }
+}
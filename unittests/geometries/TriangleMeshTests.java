@@ -0,0 +1,129 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriangleMeshTests {
+
+    /**
+     * A square in the plane z=0, split into two triangles along its diagonal
+     */
+    private final TriangleMesh square = new TriangleMesh(
+            new double[]{0, 0, 0, 2, 0, 0, 2, 2, 0, 0, 2, 0},
+            new int[]{0, 1, 2, 0, 2, 3});
+
+    /**
+     * Test method for {@link TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Correct mesh
+        assertDoesNotThrow(() -> new TriangleMesh(new float[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 2}),
+                "ERROR: Failed constructing a correct mesh");
+
+        //TC02: Coordinates that are not triads
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1}, new int[]{0, 1, 2}),
+                "ERROR: Constructed a mesh with a partial vertex");
+
+        //TC03: Indices that are not triads
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1}),
+                "ERROR: Constructed a mesh with a partial triangle");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Index beyond the last vertex
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 3}),
+                "ERROR: Constructed a mesh with an index out of range");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#getNormal(Point)}.
+     */
+    @Test
+    void testGetNormal() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Point inside one of the triangles
+        assertEquals(new Vector(0, 0, 1), square.getNormal(new Point(1.5, 0.5, 0)),
+                "ERROR: Bad normal to the mesh");
+
+        //TC02: Point off the mesh
+        assertThrows(IllegalArgumentException.class, () -> square.getNormal(new Point(3, 3, 0)),
+                "ERROR: Found a normal at a point off the mesh");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        BoundingBox box = square.getBoundingBox();
+        assertEquals(0, box.getMin(0), "ERROR: Bad mesh box");
+        assertEquals(2, box.getMax(1), "ERROR: Bad mesh box");
+        assertEquals(0, box.getMax(2), "ERROR: Bad mesh box");
+        assertTrue(new TriangleMesh(new double[0], new int[0]).getBoundingBox().isEmpty(),
+                "ERROR: An empty mesh must have an empty box");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        // The triangle of TriangleTests, as a mesh of one triangle
+        Point a = new Point(1, 1, 0), b = new Point(1, 3, 0), c = new Point(3, 2, 1);
+        TriangleMesh mesh = new TriangleMesh(new Point[]{a, b, c}, new int[]{0, 1, 2});
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Ray starts before the triangle and intersects with it
+        Ray ray = new Ray(new Point(1.5, 2, 1), new Vector(2, 0, -4));
+        assertEquals(List.of(new Point(1.8, 2, 0.4)), mesh.findIntersections(ray),
+                "ERROR: Ray intersects with the triangle once");
+
+        //TC02: Ray starts before the triangle and does not intersect
+        ray = new Ray(new Point(2, 1, 1), new Vector(0, 0, -1));
+        assertNull(mesh.findIntersections(ray), "ERROR: ray does not intersect with the triangle");
+
+        //TC03: Ray crosses the square through one of its triangles
+        ray = new Ray(new Point(0.5, 1.5, 1), new Vector(0, 0, -1));
+        List<Intersectable.GeoPoint> hits = square.findGeoIntersections(ray);
+        assertEquals(1, hits.size(), "ERROR: Ray crosses the square once");
+        assertEquals(new Point(0.5, 1.5, 0), hits.getFirst().point, "ERROR: Bad intersection point");
+        assertEquals(new Vector(0, 0, 1), hits.getFirst().geometry.getNormal(hits.getFirst().point),
+                "ERROR: Bad normal at the intersection");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Ray intersects on an edge of the triangle
+        ray = new Ray(new Point(1, 2, 1), new Vector(0, 0, -1));
+        assertNull(mesh.findIntersections(ray), "ERROR: ray intersects with edge of the triangle");
+
+        //TC11: Ray intersects on a vertex of the triangle
+        ray = new Ray(new Point(1, 3, 1), new Vector(0, 0, -1));
+        assertNull(mesh.findIntersections(ray), "ERROR: ray intersects with vertex of the triangle");
+    }
+
+    /**
+     * Test method for {@link TriangleMesh#findClosestGeoIntersection(Ray, double)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        // Two parallel squares, at z=0 and z=1
+        TriangleMesh mesh = new TriangleMesh(
+                new double[]{0, 0, 0, 2, 0, 0, 2, 2, 0, 0, 2, 0, 0, 0, 1, 2, 0, 1, 2, 2, 1, 0, 2, 1},
+                new int[]{0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7});
+        Ray ray = new Ray(new Point(0.5, 1.5, 2), new Vector(0, 0, -1));
+
+        //TC01: The closest of the two squares
+        assertEquals(new Point(0.5, 1.5, 1), mesh.findClosestGeoIntersection(ray).point,
+                "ERROR: Bad closest intersection");
+
+        //TC02: Both squares are beyond the maximal distance
+        assertNull(mesh.findClosestGeoIntersection(ray, 0.5), "ERROR: Found an intersection beyond the distance");
+    }
+}
@@ -74,4 +74,39 @@ class TriangleTests {
 
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link Triangle#findHit(Ray)}.
+     */
+    @Test
+    void testFindHit() {
+        tri = new Triangle(new Point(0, 0, 0), new Point(4, 0, 0), new Point(0, 4, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Ray hits the triangle, the barycentric coordinates give back the hit point
+        Triangle.Hit hit = tri.findHit(new Ray(new Point(1, 2, 3), new Vector(0, 0, -1)));
+        assertNotNull(hit, "ERROR: ray hits the triangle");
+        assertEquals(3, hit.distance, 1e-10, "ERROR: bad distance to the hit");
+        assertEquals(0.25, hit.u, 1e-10, "ERROR: bad weight of the second vertex");
+        assertEquals(0.5, hit.v, 1e-10, "ERROR: bad weight of the third vertex");
+
+        //TC02: Ray misses the triangle
+        assertNull(tri.findHit(new Ray(new Point(3, 3, 3), new Vector(0, 0, -1))), "ERROR: ray misses the triangle");
+
+        //TC03: Triangle is behind the ray
+        assertNull(tri.findHit(new Ray(new Point(1, 1, 3), new Vector(0, 0, 1))), "ERROR: triangle is behind the ray");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: Ray is parallel to the triangle
+        assertNull(tri.findHit(new Ray(new Point(-1, 1, 0), new Vector(1, 0, 0))), "ERROR: ray is parallel to the triangle");
+
+        //TC11: Ray just inside an edge hits the triangle, however close to the edge it is
+        tri = new Triangle(new Point(0, 0, 0), new Point(1, 0, 0), new Point(0, 1, 0));
+        hit = tri.findHit(new Ray(new Point(1e-12, 0.3, 1), new Vector(0, 0, -1)));
+        assertNotNull(hit, "ERROR: ray just inside the edge hits the triangle");
+        assertEquals(1e-12, hit.u, 1e-24, "ERROR: bad weight of the second vertex near the edge");
+
+        //TC12: Ray exactly on an edge misses the triangle
+        assertNull(tri.findHit(new Ray(new Point(0, 0.3, 1), new Vector(0, 0, -1))), "ERROR: ray on the edge misses");
+    }
+}
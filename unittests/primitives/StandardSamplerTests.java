@@ -0,0 +1,112 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link StandardSampler}.
+ */
+class StandardSamplerTests {
+    /**
+     * Counts the samples in every cell of a grid over the unit square.
+     *
+     * @param samples The samples.
+     * @param cells   The amount of cells on every side of the grid.
+     * @return The amount of samples in every cell, by row and then column.
+     */
+    private static int[] cellCounts(double[] samples, int cells) {
+        int[] counts = new int[cells * cells];
+        for (int k = 0; k < samples.length; k += 2)
+            counts[(int) (samples[k + 1] * cells) * cells + (int) (samples[k] * cells)]++;
+        return counts;
+    }
+
+    /**
+     * Measures the mean error of a sampler estimating the part of a pixel covered by random edges.
+     *
+     * @param sampler The sampler.
+     * @param count   The amount of samples in a pixel.
+     * @return The mean absolute error of the covered part.
+     */
+    private static double edgeError(Sampler sampler, int count) {
+        Random random = new Random(1);
+        double total = 0;
+        int trials = 300;
+        int resolution = 200;
+        for (int t = 0; t < trials; t++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double nx = Math.cos(angle);
+            double ny = Math.sin(angle);
+            double c = random.nextDouble() - 0.5;
+            double[] samples = sampler.generate(count, t);
+            int inside = 0;
+            for (int k = 0; k < samples.length; k += 2)
+                if ((samples[k] - 0.5) * nx + (samples[k + 1] - 0.5) * ny < c) inside++;
+            int covered = 0;
+            for (int x = 0; x < resolution; x++)
+                for (int y = 0; y < resolution; y++)
+                    if (((x + 0.5) / resolution - 0.5) * nx + ((y + 0.5) / resolution - 0.5) * ny < c) covered++;
+            total += Math.abs(2d * inside / samples.length - (double) covered / (resolution * resolution));
+        }
+        return total / trials;
+    }
+
+    /**
+     * Test method for {@link StandardSampler#generate(int, long)}.
+     */
+    @Test
+    void testGenerate() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The grid goes row by row from the top left corner to the bottom right one, in every set
+        double[] grid = StandardSampler.GRID.generate(9, 5);
+        assertArrayEquals(new double[]{0, 0, 0.5, 0, 1, 0, 0, 0.5, 0.5, 0.5, 1, 0.5, 0, 1, 0.5, 1, 1, 1}, grid,
+                1e-12, "ERROR: Wrong grid samples");
+        assertArrayEquals(grid, StandardSampler.GRID.generate(9, 6), "ERROR: The grid changed between sets");
+
+        //TC02: Every sampler gives samples in the unit square, the same for the same set, and others for another set
+        for (StandardSampler sampler : new StandardSampler[]{StandardSampler.JITTERED, StandardSampler.HALTON,
+                StandardSampler.SOBOL}) {
+            double[] samples = sampler.generate(16, 3);
+            assertEquals(32, samples.length, "ERROR: Wrong amount of samples of " + sampler);
+            for (double d : samples) assertTrue(d >= 0 && d < 1, "ERROR: A sample of " + sampler + " is outside");
+            assertArrayEquals(samples, sampler.generate(16, 3), "ERROR: " + sampler + " is not reproducible");
+            assertFalse(Arrays.equals(samples, sampler.generate(16, 4)),
+                    "ERROR: " + sampler + " repeats its samples in another set");
+        }
+
+        //TC03: The jittered and Sobol samples are stratified, one in every cell of a 4x4 grid
+        for (StandardSampler sampler : new StandardSampler[]{StandardSampler.JITTERED, StandardSampler.SOBOL})
+            for (int count : cellCounts(sampler.generate(16, 7), 4))
+                assertEquals(1, count, "ERROR: " + sampler + " is not stratified");
+
+        //TC04: The Halton samples are the Halton sequence, shifted around the square
+        double[] halton = StandardSampler.HALTON.generate(8, 2);
+        for (int k = 1; k < 8; k++) {
+            double dx = halton[2 * k] - halton[0];
+            double dy = halton[2 * k + 1] - halton[1];
+            assertEquals(StandardSampler.radicalInverse(2, k), dx < 0 ? dx + 1 : dx, 1e-12, "ERROR: Wrong Halton x");
+            assertEquals(StandardSampler.radicalInverse(3, k), dy < 0 ? dy + 1 : dy, 1e-12, "ERROR: Wrong Halton y");
+        }
+
+        //TC05: The other samplers estimate the coverage of edges better than the grid, and Sobol matches
+        // the grid of 81 samples with 32
+        double gridError = edgeError(StandardSampler.GRID, 16);
+        for (StandardSampler sampler : new StandardSampler[]{StandardSampler.JITTERED, StandardSampler.HALTON,
+                StandardSampler.SOBOL})
+            assertTrue(edgeError(sampler, 16) < 0.8 * gridError, "ERROR: " + sampler + " is not better than the grid");
+        assertTrue(edgeError(StandardSampler.SOBOL, 32) < edgeError(StandardSampler.GRID, 81),
+                "ERROR: Sobol with 32 samples is worse than the grid with 81");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: The grid and jittered samplers round the amount down to a square number
+        assertEquals(8, StandardSampler.GRID.generate(5, 0).length, "ERROR: Wrong rounding of the grid");
+        assertEquals(8, StandardSampler.JITTERED.generate(5, 0).length, "ERROR: Wrong rounding of the jitter");
+
+        //TC11: A single grid sample is at the top left corner
+        assertArrayEquals(new double[]{0, 0}, StandardSampler.GRID.generate(1, 0), "ERROR: Wrong single grid sample");
+    }
+}
@@ -0,0 +1,71 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransformTests {
+
+    /**
+     * Test method for {@link Transform#transform(Point)}.
+     */
+    @Test
+    void testTransform() {
+        Point p = new Point(1, 2, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Translation
+        assertEquals(new Point(2, 2, 3), Transform.translation(new Vector(1, 0, 0)).transform(p),
+                "ERROR: Bad translation");
+
+        //TC02: Scaling
+        assertEquals(new Point(2, 6, -3), Transform.scaling(2, 3, -1).transform(p), "ERROR: Bad scaling");
+
+        //TC03: Rotation by the right-hand rule
+        assertEquals(new Point(-2, 1, 3), Transform.rotation(new Vector(0, 0, 1), 90).transform(p),
+                "ERROR: Bad rotation");
+
+        //TC04: Composition applies the first transformation first
+        Transform t = Transform.scaling(2).then(Transform.translation(new Vector(1, 1, 1)));
+        assertEquals(new Point(3, 5, 7), t.transform(p), "ERROR: Bad composition");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A scaling that flattens space
+        assertThrows(IllegalArgumentException.class, () -> Transform.scaling(1, 0, 1),
+                "ERROR: Created a singular transformation");
+    }
+
+    /**
+     * Test method for {@link Transform#inverseTransform(Point)}.
+     */
+    @Test
+    void testInverseTransform() {
+        Transform t = Transform.rotation(new Vector(1, 1, 0), 30)
+                .then(Transform.scaling(2, 3, 4))
+                .then(Transform.translation(new Vector(-1, 5, 2)));
+        Point p = new Point(1, -2, 3);
+
+        //TC01: The inverse takes a transformed point back
+        assertEquals(p, t.inverseTransform(t.transform(p)), "ERROR: Bad inverse transformation");
+
+        //TC02: The inverse transformation is the same as the inverse
+        assertEquals(t.inverseTransform(p), t.inverse().transform(p), "ERROR: Bad inverse");
+    }
+
+    /**
+     * Test method for {@link Transform#transformNormal(Vector)}.
+     */
+    @Test
+    void testTransformNormal() {
+        // The plane x + y = 0 stretched along x: its normal is no longer the stretched normal
+        Transform t = Transform.scaling(2, 1, 1);
+        Vector tangent = t.transformDirection(new Vector(1, -1, 0));
+        Vector normal = t.transformNormal(new Vector(1, 1, 0));
+
+        //TC01: The transformed normal stays orthogonal to the transformed surface
+        assertEquals(0, normal.dotProduct(tangent), 1e-10, "ERROR: Normal is not orthogonal to the surface");
+
+        //TC02: The transformed normal is a unit vector
+        assertEquals(1, normal.length(), 1e-10, "ERROR: Normal is not a unit vector");
+    }
+}
@@ -0,0 +1,104 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccumulationBufferTests {
+
+    /**
+     * Test method for {@link AccumulationBuffer#getColor(int, int)}.
+     */
+    @Test
+    void testGetColor() {
+        AccumulationBuffer buffer = new AccumulationBuffer(3, 2);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The mean of the samples of a pixel
+        buffer.add(2, 1, new Color(10, 20, 30));
+        buffer.add(2, 1, new Color(30, 40, 50));
+        assertEquals(new Color(20, 30, 40).getRgb(), buffer.getColor(2, 1).getRgb(), "ERROR: Bad mean color");
+        assertEquals(2, buffer.getCount(2, 1), "ERROR: Bad sample count");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A pixel without samples
+        assertEquals(Color.BLACK.getRgb(), buffer.getColor(0, 0).getRgb(), "ERROR: An empty pixel must be black");
+        assertEquals(0, buffer.getCount(0, 0), "ERROR: Bad sample count");
+    }
+
+    /**
+     * Test method for {@link AccumulationBuffer#getError(int, int)}.
+     */
+    @Test
+    void testGetError() {
+        AccumulationBuffer buffer = new AccumulationBuffer(1, 2);
+        buffer.add(0, 0, new Color(100, 100, 100));
+        buffer.add(0, 1, new Color(100, 100, 100));
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A single sample has no error estimate
+        assertTrue(Double.isInfinite(buffer.getError(0, 0)), "ERROR: A single sample must have an unknown error");
+        assertTrue(Double.isInfinite(buffer.getError()), "ERROR: The image error must be unknown");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Equal samples have no error
+        buffer.add(0, 0, new Color(100, 100, 100));
+        assertEquals(0, buffer.getError(0, 0), 1e-9, "ERROR: Equal samples must have no error");
+
+        //TC02: The standard error of two gray samples 0 and 100 is 50
+        buffer.add(0, 1, Color.BLACK);
+        assertEquals(50, buffer.getError(0, 1), 1e-9, "ERROR: Bad standard error");
+        assertEquals(Math.sqrt(50 * 50 / 2d), buffer.getError(), 1e-9, "ERROR: Bad image error");
+    }
+
+    /**
+     * Test method for {@link AccumulationBuffer#getPriority(int, int)}.
+     */
+    @Test
+    void testGetPriority() {
+        AccumulationBuffer buffer = new AccumulationBuffer(3, 1);
+        buffer.add(0, 0, Color.BLACK);
+        buffer.add(1, 0, Color.BLACK);
+        buffer.add(2, 0, new Color(100, 100, 100));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A single sample is prioritized by the contrast to its neighbours
+        assertEquals(0, buffer.getPriority(0, 0), 1e-9, "ERROR: A flat pixel must not need samples");
+        assertEquals(100, buffer.getPriority(1, 0), 1e-9, "ERROR: Bad contrast priority");
+
+        //TC02: More samples are prioritized by their standard error
+        buffer.add(1, 0, new Color(100, 100, 100));
+        assertEquals(50, buffer.getPriority(1, 0), 1e-9, "ERROR: Bad error priority");
+    }
+
+    /**
+     * Test method for {@link AccumulationBuffer#getAdaptiveError(int, int)}.
+     */
+    @Test
+    void testGetAdaptiveError() {
+        AccumulationBuffer buffer = new AccumulationBuffer(3, 1);
+        for (int k = 0; k < 4; k++) {
+            buffer.add(0, 0, Color.BLACK);
+            buffer.add(1, 0, Color.BLACK);
+            buffer.add(2, 0, new Color(100, 100, 100));
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A single sample has no error estimate
+        AccumulationBuffer single = new AccumulationBuffer(1, 1);
+        single.add(0, 0, Color.BLACK);
+        assertEquals(Double.POSITIVE_INFINITY, single.getAdaptiveError(0, 0), "ERROR: A single sample has an error");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Equal samples next to equal neighbours have no error
+        assertEquals(0, buffer.getAdaptiveError(0, 0), 1e-9, "ERROR: A flat pixel must have no error");
+
+        //TC02: Equal samples next to a different neighbour have its contrast over their amount as error
+        assertEquals(25, buffer.getAdaptiveError(1, 0), 1e-9, "ERROR: Bad contrast error");
+
+        //TC03: The standard error counts when it is larger
+        buffer.add(1, 0, new Color(100, 100, 100));
+        assertEquals(buffer.getError(1, 0), buffer.getAdaptiveError(1, 0), 1e-9, "ERROR: Bad standard error");
+    }
+}
@@ -13,6 +13,7 @@ import scene.Scene;
 
 import static java.awt.Color.BLUE;
 import static java.awt.Color.WHITE;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class BlackboardTests {
 
@@ -55,4 +56,44 @@ public class BlackboardTests {
                 .renderImage()
                 .writeToImage();
     }
+
+    /**
+     * Test method for {@link Blackboard#squarePattern(int)}.
+     */
+    @Test
+    void testSquarePattern() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A 3x3 grid from the top left corner to the bottom right one, placed on the square
+        Blackboard.Pattern pattern = Blackboard.squarePattern(9);
+        assertEquals(9, pattern.size(), "ERROR: Wrong amount of points in the pattern");
+        Point[] points = pattern.map(new Point(0, 0, -10), 2, Vector.Y, new Vector(1, 0, 0));
+        assertEquals(new Point(-1, 1, -10), points[0], "ERROR: Wrong top left point");
+        assertEquals(new Point(0, 1, -10), points[1], "ERROR: Wrong second point of the first row");
+        assertEquals(new Point(0, 0, -10), points[4], "ERROR: Wrong center point");
+        assertEquals(new Point(1, -1, -10), points[8], "ERROR: Wrong bottom right point");
+
+        //TC02: The patterns are generated once and shared
+        assertSame(pattern, Blackboard.squarePattern(9), "ERROR: The pattern was generated again");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: An amount of rays that is not a square is rounded down
+        assertEquals(4, Blackboard.squarePattern(8).size(), "ERROR: Wrong rounding of the amount of rays");
+    }
+
+    /**
+     * Test method for {@link Blackboard#mapCircle(Ray, Point, double, int)}.
+     */
+    @Test
+    void testMapCircle() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: The points are on the plane of the circle, normal to the ray, and within its radius
+        Point center = new Point(0, 0, -5);
+        Ray ray = new Ray(Point.ZERO, new Vector(0, 0, -1));
+        Point[] points = Blackboard.mapCircle(ray, center, 2, 16);
+        assertEquals(Blackboard.circlePattern(16).size(), points.length, "ERROR: Wrong amount of points");
+        for (Point p : points) {
+            assertEquals(-5, p.getXyz().getD3(), 1e-10, "ERROR: A point is not on the plane of the circle");
+            assertTrue(p.distance(center) <= 2 + 1e-10, "ERROR: A point is outside of the circle");
+        }
+    }
 }
@@ -1,12 +1,25 @@
 package renderer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
+import geometries.Sphere;
 import org.junit.jupiter.api.Test;
 
 import primitives.*;
 import scene.Scene;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 
 /**
  * Testing Camera Class
@@ -65,4 +78,418 @@ class CameraTest {
                 camera2.constructRay(3, 3, 0, 0), badRay);
 
     }
+
+    /**
+     * Builds a camera on a red sphere in front of a blue background, for the rendering tests.
+     *
+     * @return The camera.
+     */
+    private static Camera sphereCamera() {
+        return sphereCamera(8, 1);
+    }
+
+    /**
+     * Builds a camera on a red sphere in front of a blue background, for the rendering tests.
+     *
+     * @param size      The width and height of the image in pixels.
+     * @param totalRays The amount of rays per pixel.
+     * @return The camera.
+     */
+    private static Camera sphereCamera(int size, int totalRays) {
+        return sphereBuilder(size, totalRays).build();
+    }
+
+    /**
+     * Prepares a camera on a red sphere in front of a blue background, for the rendering tests.
+     *
+     * @param size      The width and height of the image in pixels.
+     * @param totalRays The amount of rays per pixel.
+     * @return The camera builder.
+     */
+    private static Camera.Builder sphereBuilder(int size, int totalRays) {
+        Scene scene = new Scene("Sphere").setBackground(new Color(0, 0, 255));
+        scene.geometries.add(new Sphere(3, new Point(0, 0, -20)).setEmission(new Color(255, 0, 0)));
+        return Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(new ImageWriter("Sphere", size, size))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0))
+                .setVpDistance(10).setVpSize(8, 8)
+                .setMultiThreading(2)
+                .setTotalRays(totalRays);
+    }
+
+    /**
+     * Test method for
+     * {@link Camera#renderProgressive(int, Camera.PassListener)}.
+     */
+    @Test
+    void testRenderProgressive() {
+        Camera camera = sphereCamera();
+        List<Double> errors = new ArrayList<>();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: The listener stops the rendering after the third pass
+        camera.renderProgressive(10, (pass, image, error) -> {
+            errors.add(error);
+            return pass < 3;
+        });
+        assertEquals(3, errors.size(), "Bad amount of passes");
+        assertTrue(Double.isInfinite(errors.getFirst()), "A single sample has no error estimate");
+        assertTrue(errors.get(2) >= 0 && errors.get(2) < Double.POSITIVE_INFINITY, "Bad error estimate");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: No passes
+        assertThrows(IllegalArgumentException.class, () -> camera.renderProgressive(0, null),
+                "Rendered without passes");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera#renderImage(Duration)}.
+     */
+    @Test
+    void testRenderImageBudget() {
+        Camera camera = sphereCamera();
+
+        // =============== Boundary Values Tests ==================
+        // BV01: No time at all still renders the primary pass
+        camera.renderImage(Duration.ZERO);
+        for (int[] row : camera.getSampleCounts())
+            for (int count : row) assertEquals(1, count, "The primary pass must always finish");
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: A generous budget refines the edge of the sphere and stops once it converges
+        long start = System.nanoTime();
+        camera.renderImage(Duration.ofSeconds(30));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(30).toNanos(), "Did not stop on convergence");
+        int[][] counts = camera.getSampleCounts();
+        assertEquals(1, counts[0][0], "A flat background pixel needs no more samples");
+        assertTrue(Arrays.stream(counts).flatMapToInt(Arrays::stream).max().getAsInt() > 1,
+                "The edge of the sphere was not refined");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera#renderAsync()}.
+     */
+    @Test
+    void testRenderAsync() throws InterruptedException {
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: A job that runs to the end
+        RenderJob job = sphereCamera().renderAsync();
+        assertNotNull(job.getResult().join(), "No rendered image");
+        assertEquals(1, job.getProgress().getFraction(), "The progress must be full");
+        assertTrue(job.awaitTermination(1, TimeUnit.SECONDS), "The threads were not freed");
+
+        // EP02: A cancelled job frees its threads at once
+        job = sphereCamera(200, 81).renderAsync();
+        while (job.getProgress().getDone() == 0) Thread.onSpinWait();
+        assertTrue(job.cancel(), "Could not cancel a running job");
+        assertTrue(job.awaitTermination(200, TimeUnit.MILLISECONDS), "The threads were not freed");
+        assertTrue(job.getProgress().getFraction() < 1, "The cancelled job ran to the end");
+        RenderJob cancelled = job;
+        assertThrows(CancellationException.class, () -> cancelled.getResult().join(), "The job was not cancelled");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera.Builder#setCheckpoint(Path, Duration)}.
+     */
+    @Test
+    void testCheckpoint() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("checkpoint").resolve("sphere.ckpt");
+        Camera camera = sphereBuilder(16, 1).setTileSize(4).setCheckpoint(file, Duration.ZERO).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: An interrupted rendering leaves its checkpoint
+        assertThrows(IllegalStateException.class, () -> camera.renderProgressive(4, (pass, image, error) -> {
+            if (pass == 2) throw new IllegalStateException("Interrupted");
+            return true;
+        }), "The rendering was not interrupted");
+        for (int i = 0; i < 500 && !Files.exists(file); i++) Thread.sleep(10);
+        assertTrue(Files.exists(file), "No checkpoint was saved");
+
+        // EP02: The restarted rendering resumes and samples every pixel exactly once per pass
+        List<Integer> passes = new ArrayList<>();
+        camera.renderProgressive(4, (pass, image, error) -> passes.add(pass));
+        assertEquals(4, passes.getLast().intValue(), "The resumed rendering did not complete");
+        for (int[] row : camera.getSampleCounts())
+            for (int count : row) assertEquals(4, count, "A pixel was sampled twice in a pass");
+        assertFalse(Files.exists(file), "The checkpoint of a completed rendering was kept");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera.Builder#setRegion(int, int, int, int)}.
+     */
+    @Test
+    void testRegion() {
+        Camera full = sphereCamera(16, 1);
+        full.renderImage();
+        ImageWriter image = new ImageWriter("Region", 16, 16);
+        Color green = new Color(0, 255, 0);
+        for (int i = 0; i < 16; i++)
+            for (int j = 0; j < 16; j++) image.writePixel(j, i, green);
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: Only the region is traced, and the rest of the image is left as it was
+        Camera region = sphereBuilder(16, 1).setImageWriter(image).setRegion(4, 6, 8, 5).setTileSize(4).build();
+        region.renderImage();
+        int traced = region.getTileTimes().stream().mapToInt(t -> t.tile().width() * t.tile().height()).sum();
+        assertEquals(8 * 5, traced, "Traced pixels outside the region");
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                boolean inside = j >= 4 && j < 12 && i >= 6 && i < 11;
+                Color expected = inside ? full.getRayTracer().traceRay(full.constructRay(16, 16, j, i)) : green;
+                assertEquals(expected.getColor(), image.getPixel(j, i).getColor(), "Bad pixel " + j + "," + i);
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // BV01: A region beyond the image
+        assertThrows(MissingResourceException.class,
+                () -> sphereBuilder(16, 1).setRegion(10, 0, 8, 4).build(), "Built a region outside the image");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera#renderImages(List, int)}.
+     */
+    @Test
+    void testRenderImages() {
+        Camera first = sphereCamera(12, 1);
+        ImageWriter left = new ImageWriter("Left", 12, 12);
+        ImageWriter right = new ImageWriter("Right", 9, 9);
+        Camera leftView = sphereBuilder(12, 1).setRayTracer(first.getRayTracer()).setImageWriter(left)
+                .setLocation(new Point(-0.5, 0, 0)).setTileSize(4).build();
+        Camera rightView = sphereBuilder(9, 1).setRayTracer(first.getRayTracer()).setImageWriter(right)
+                .setLocation(new Point(0.5, 0, 0)).setTileSize(4).build();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: Every view of a shared scene is rendered into its own image, as it is alone
+        Camera.renderImages(List.of(leftView, rightView), 2);
+        for (Camera view : List.of(leftView, rightView)) {
+            ImageWriter image = view == leftView ? left : right;
+            for (int i = 0; i < image.getNy(); i++)
+                for (int j = 0; j < image.getNx(); j++)
+                    assertEquals(view.getRayTracer().traceRay(view.constructRay(image.getNx(), image.getNy(), j, i))
+                            .getColor(), image.getPixel(j, i).getColor(), "Bad pixel " + j + "," + i);
+        }
+        assertEquals(9, leftView.getTileTimes().size(), "The view does not have the times of its own tiles");
+        assertEquals(9, rightView.getTileTimes().size(), "The view does not have the times of its own tiles");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: No threads
+        assertThrows(IllegalArgumentException.class, () -> Camera.renderImages(List.of(leftView), 0),
+                "Rendered without threads");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera.Builder#setSampler(Sampler)}.
+     */
+    @Test
+    void testSetSampler() {
+        Camera reference = sphereBuilder(16, 1024).setSampler(StandardSampler.SOBOL).build().renderImage();
+        Camera grid = sphereCamera(16, 16).renderImage();
+        Camera sobol = sphereBuilder(16, 16).setSampler(StandardSampler.SOBOL).build().renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: Sobol samples find the edge of the sphere better than the grid, with as many rays
+        double gridError = 0;
+        double sobolError = 0;
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                int red = reference.getImageWriter().getPixel(j, i).getColor().getRed();
+                gridError += Math.abs(grid.getImageWriter().getPixel(j, i).getColor().getRed() - red);
+                sobolError += Math.abs(sobol.getImageWriter().getPixel(j, i).getColor().getRed() - red);
+            }
+        }
+        assertTrue(sobolError < gridError, "Sobol sampling is not better than the grid");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: No sampler
+        assertThrows(MissingResourceException.class, () -> sphereBuilder(4, 4).setSampler(null).build(),
+                "Built a camera without a sampler");
+    }
+
+    /**
+     * A ray tracer that counts the rays it traces from the camera.
+     */
+    private static class CountingRayTracer extends SimpleRayTracer {
+        /**
+         * The amount of traced rays
+         */
+        private final AtomicLong rays = new AtomicLong();
+
+        /**
+         * Constructs the ray tracer.
+         *
+         * @param scene The scene.
+         */
+        CountingRayTracer(Scene scene) {
+            super(scene);
+        }
+
+        @Override
+        public Color traceRay(Ray ray) {
+            rays.incrementAndGet();
+            return super.traceRay(ray);
+        }
+    }
+
+    /**
+     * Sums the differences of the red components of two images of the sphere.
+     *
+     * @param image     The image.
+     * @param reference The reference image.
+     * @return The sum of the differences.
+     */
+    private static double redError(ImageWriter image, ImageWriter reference) {
+        double error = 0;
+        for (int i = 0; i < image.getNy(); i++)
+            for (int j = 0; j < image.getNx(); j++)
+                error += Math.abs(image.getPixel(j, i).getColor().getRed()
+                        - reference.getPixel(j, i).getColor().getRed());
+        return error;
+    }
+
+    /**
+     * Test method for
+     * {@link Camera.Builder#setAdaptiveDepth(int)}.
+     */
+    @Test
+    void testSetAdaptiveDepth() {
+        Scene scene = sphereCamera().getRayTracer().scene;
+        CountingRayTracer sharedTracer = new CountingRayTracer(scene);
+        Camera shared = sphereBuilder(16, 1).setRayTracer(sharedTracer).setAdaptiveDepth(3).setTileSize(16)
+                .build().renderImage();
+        CountingRayTracer aloneTracer = new CountingRayTracer(scene);
+        Camera alone = sphereBuilder(16, 1).setRayTracer(aloneTracer).setAdaptiveDepth(3).build();
+        long sharedRays = sharedTracer.rays.get();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: Every pixel gets the color of the recursive subdivision of its own square
+        double size = 8d / 16;
+        for (int i = 0; i < 16; i++) {
+            for (int j = 0; j < 16; j++) {
+                Ray ray = shared.constructRay(16, 16, j, i);
+                Point center = ray.getPoint(10 / ray.getDirection().dotProduct(shared.getVTo()));
+                Color expected = Blackboard.adaptiveSuperSampling(
+                        Blackboard.generatePointsSquare(center, size, shared.getVUp(), shared.getVRight(), 4), center,
+                        shared.getRayTracer().traceRay(ray), size, shared.getVUp(), shared.getVRight(), shared, 3);
+                java.awt.Color actual = shared.getImageWriter().getPixel(j, i).getColor();
+                assertEquals(expected.getColor(), actual, "Wrong color of pixel " + j + "," + i);
+                assertEquals(alone.renderPixel(j, i).getColor(), actual, "A pixel alone got another color");
+            }
+        }
+
+        // EP02: The corners shared by the pixels of a tile are traced once
+        assertTrue(sharedRays < aloneTracer.rays.get(), "Shared corners were traced again");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: A depth beyond the lattice
+        assertThrows(MissingResourceException.class,
+                () -> sphereBuilder(4, 1).setAdaptiveDepth(Camera.MAX_ADAPTIVE_DEPTH + 1).build(),
+                "Built a camera with a depth beyond the lattice");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera.Builder#setEdgeAntialiasing(double)}.
+     */
+    @Test
+    void testSetEdgeAntialiasing() throws IOException {
+        Camera full = sphereCamera(16, 16).renderImage();
+        Scene scene = full.getRayTracer().scene;
+        CountingRayTracer smallTracer = new CountingRayTracer(scene);
+        Camera small = sphereBuilder(16, 16).setRayTracer(smallTracer).setEdgeAntialiasing(1).build().renderImage();
+        CountingRayTracer largeTracer = new CountingRayTracer(scene);
+        sphereBuilder(32, 16).setRayTracer(largeTracer).setEdgeAntialiasing(1).build().renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: The edges are supersampled like a full supersampling, and the flat regions are not
+        assertEquals(0, redError(small.getImageWriter(), full.getImageWriter()), 1e-9,
+                "The edges were not supersampled");
+        assertTrue(smallTracer.rays.get() < 16 * 16 * 16 / 2, "The flat regions were supersampled");
+
+        // EP02: The supersampling grows with the length of the edges rather than with the amount of pixels
+        assertTrue(largeTracer.rays.get() < 3 * smallTracer.rays.get(), "The supersampling grew with the pixels");
+
+        // EP03: The tiles of the other renderings find the same edges, also across their borders
+        Path file = Files.createTempDirectory("checkpoint").resolve("edges.ckpt");
+        Camera async = sphereBuilder(16, 16).setRayTracer(new CountingRayTracer(scene)).setEdgeAntialiasing(1)
+                .setTileSize(4).build();
+        async.renderAsync().getResult().join();
+        Camera together = sphereBuilder(16, 16).setRayTracer(new CountingRayTracer(scene)).setEdgeAntialiasing(1)
+                .setTileSize(4).build();
+        Camera.renderImages(List.of(together), 2);
+        Camera resumable = sphereBuilder(16, 16).setRayTracer(new CountingRayTracer(scene)).setEdgeAntialiasing(1)
+                .setTileSize(4).setCheckpoint(file, Duration.ZERO).build().renderImage();
+        for (Camera camera : List.of(async, together, resumable)) {
+            assertEquals(0, redError(camera.getImageWriter(), full.getImageWriter()), 1e-9,
+                    "A tiled rendering did not supersample the edges");
+            assertTrue(((CountingRayTracer) camera.getRayTracer()).rays.get() < 16 * 16 * 16 / 2,
+                    "A tiled rendering supersampled the flat regions");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // BV01: A negative contrast
+        assertThrows(MissingResourceException.class, () -> sphereBuilder(4, 4).setEdgeAntialiasing(-1).build(),
+                "Built a camera with a negative edge contrast");
+    }
+
+    /**
+     * Test method for
+     * {@link Camera.Builder#setAdaptiveSampling(double, int)}.
+     */
+    @Test
+    void testSetAdaptiveSampling() throws IOException {
+        Camera reference = sphereBuilder(16, 1024).setSampler(StandardSampler.SOBOL).build().renderImage();
+        Scene scene = reference.getRayTracer().scene;
+        Camera depth = sphereBuilder(16, 1).setAdaptiveDepth(4).build().renderImage();
+        CountingRayTracer adaptiveTracer = new CountingRayTracer(scene);
+        Camera adaptive = sphereBuilder(16, 64).setRayTracer(adaptiveTracer)
+                .setAdaptiveSampling(1, 4).build().renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: A quarter of the rays of a full sampling, for a closer image than an adaptive depth of 4
+        assertTrue(adaptiveTracer.rays.get() < 16 * 16 * 64 / 4, "Adaptive sampling traced too many rays");
+        assertTrue(redError(adaptive.getImageWriter(), reference.getImageWriter())
+                        < redError(depth.getImageWriter(), reference.getImageWriter()),
+                "Adaptive sampling is further from the reference");
+
+        // EP02: Flat pixels stop at the minimal amount of rays, and edge pixels take more
+        int[][] counts = adaptive.getSampleCounts();
+        assertEquals(4, counts[0][0], "A flat pixel took more rays than it needed");
+        assertEquals(4, counts[8][8], "A flat pixel took more rays than it needed");
+        assertTrue(counts[5][6] > 4, "An edge pixel stopped at the minimal amount of rays");
+
+        // EP03: A background rendering takes the same rounds over the whole image
+        Camera async = sphereBuilder(16, 64).setAdaptiveSampling(1, 4).build();
+        async.renderAsync().getResult().join();
+        assertEquals(0, redError(async.getImageWriter(), adaptive.getImageWriter()), 1e-9,
+                "The background rendering sampled other rays");
+        assertArrayEquals(counts, async.getSampleCounts(), "The background rendering sampled other pixels");
+
+        // EP04: A rendering of tiles apart takes the rounds over every tile, rather than all the rays of every pixel
+        Path file = Files.createTempDirectory("checkpoint").resolve("adaptive.ckpt");
+        CountingRayTracer tiledTracer = new CountingRayTracer(scene);
+        Camera tiled = sphereBuilder(16, 64).setRayTracer(tiledTracer).setAdaptiveSampling(1, 4).setTileSize(4)
+                .setCheckpoint(file, Duration.ZERO).build().renderImage();
+        assertTrue(tiledTracer.rays.get() < 16 * 16 * 64 / 4, "The tiles traced too many rays");
+        assertTrue(redError(tiled.getImageWriter(), reference.getImageWriter())
+                        < redError(depth.getImageWriter(), reference.getImageWriter()),
+                "The tiles are further from the reference");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: A negative error
+        assertThrows(MissingResourceException.class, () -> sphereBuilder(4, 4).setAdaptiveSampling(-1, 4).build(),
+                "Built a camera with a negative adaptive error");
+
+        // BV02: Less than two rays before the error is checked
+        assertThrows(MissingResourceException.class, () -> sphereBuilder(4, 4).setAdaptiveSampling(1, 1).build(),
+                "Built a camera that checks the error of a single ray");
+    }
 }
@@ -0,0 +1,94 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointTests {
+    /**
+     * The key of the rendering in the tests
+     */
+    private final byte[] key = new byte[32];
+
+    /**
+     * Waits until the writer thread saved a checkpoint file.
+     *
+     * @param file The checkpoint file.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    private static void awaitFile(Path file) throws InterruptedException {
+        for (int i = 0; i < 500 && !Files.exists(file); i++) Thread.sleep(10);
+        assertTrue(Files.exists(file), "ERROR: The checkpoint was not saved");
+    }
+
+    /**
+     * Test method for {@link Checkpoint#open(Path, Duration, byte[], int, int, int)}.
+     */
+    @Test
+    void testOpen() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("checkpoint").resolve("render.ckpt");
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Without a file the rendering starts over
+        Checkpoint checkpoint = Checkpoint.open(file, Duration.ZERO, key, 4, 2, 2);
+        assertEquals(0, checkpoint.getPass(), "ERROR: A new rendering must start at the first pass");
+        assertFalse(checkpoint.isFinished(0), "ERROR: A new rendering has no finished tiles");
+
+        //TC02: A committed tile is saved and resumed
+        AccumulationBuffer buffer = checkpoint.getBuffer();
+        checkpoint.commit(1, () -> buffer.add(3, 1, new Color(10, 20, 30)));
+        awaitFile(file);
+        Checkpoint resumed = Checkpoint.open(file, Duration.ZERO, key, 4, 2, 2);
+        assertTrue(resumed.isFinished(1), "ERROR: The finished tile was not resumed");
+        assertFalse(resumed.isFinished(0), "ERROR: An unfinished tile was resumed");
+        assertEquals(1, resumed.getBuffer().getCount(3, 1), "ERROR: The samples were not resumed");
+        assertEquals(new Color(10, 20, 30).getRgb(), resumed.getBuffer().getColor(3, 1).getRgb(),
+                "ERROR: Bad resumed color");
+
+        //TC03: A file of another rendering is ignored
+        byte[] other = key.clone();
+        other[0] = 1;
+        assertFalse(Checkpoint.open(file, Duration.ZERO, other, 4, 2, 2).isFinished(1),
+                "ERROR: Resumed the checkpoint of another rendering");
+        assertFalse(Checkpoint.open(file, Duration.ZERO, key, 4, 3, 2).isFinished(1),
+                "ERROR: Resumed the checkpoint of another image size");
+
+        //TC04: A corrupt file is ignored
+        byte[] saved = Files.readAllBytes(file);
+        saved[saved.length / 2] ^= 1;
+        Files.write(file, saved);
+        assertFalse(Checkpoint.open(file, Duration.ZERO, key, 4, 2, 2).isFinished(1),
+                "ERROR: Resumed a corrupt checkpoint");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A completed rendering deletes its checkpoint
+        resumed.close();
+        assertFalse(Files.exists(file), "ERROR: The checkpoint of a completed rendering was kept");
+    }
+
+    /**
+     * Test method for {@link Checkpoint#nextPass()}.
+     */
+    @Test
+    void testNextPass() throws IOException, InterruptedException {
+        Path file = Files.createTempDirectory("checkpoint").resolve("render.ckpt");
+        Checkpoint checkpoint = Checkpoint.open(file, Duration.ofHours(1), key, 2, 2, 1);
+        checkpoint.commit(0, () -> Arrays.asList(0, 1).forEach(j -> checkpoint.getBuffer().add(j, 0, Color.BLACK)));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A new pass has no finished tiles, and a save is only due after the interval
+        checkpoint.nextPass();
+        assertEquals(1, checkpoint.getPass(), "ERROR: Bad pass");
+        assertFalse(checkpoint.isFinished(0), "ERROR: A new pass has no finished tiles");
+        Thread.sleep(50);
+        assertFalse(Files.exists(file), "ERROR: Saved before the interval");
+        checkpoint.close();
+    }
+}
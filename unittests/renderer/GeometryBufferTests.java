@@ -0,0 +1,91 @@
+package renderer;
+
+import geometries.Geometry;
+import geometries.Intersectable.GeoPoint;
+import geometries.Plane;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeometryBufferTests {
+    /**
+     * The ray of the tests, looking down from above the planes
+     */
+    private final Ray ray = new Ray(new Point(0, 0, 10), new Vector(0, 0, -1));
+
+    /**
+     * Builds a buffer of two pixels side by side, with the given hits and colors.
+     *
+     * @param left       The hit of the left pixel, or null for a miss.
+     * @param right      The hit of the right pixel, or null for a miss.
+     * @param leftColor  The color of the left pixel.
+     * @param rightColor The color of the right pixel.
+     * @return The buffer.
+     */
+    private GeometryBuffer pair(GeoPoint left, GeoPoint right, Color leftColor, Color rightColor) {
+        GeometryBuffer buffer = new GeometryBuffer(2, 1);
+        buffer.set(0, 0, left, ray, leftColor);
+        buffer.set(1, 0, right, ray, rightColor);
+        return buffer;
+    }
+
+    /**
+     * Test method for {@link GeometryBuffer#isEdge(int, int, double)}.
+     */
+    @Test
+    void testIsEdge() {
+        Material material = new Material();
+        Geometry floor = new Plane(Point.ZERO, new Vector(0, 0, 1)).setMaterial(material);
+        Geometry tile = new Plane(Point.ZERO, new Vector(0, 0, 1)).setMaterial(material);
+        Geometry other = new Plane(Point.ZERO, new Vector(0, 0, 1));
+        Geometry raised = new Plane(new Point(0, 0, 5), new Vector(0, 0, 1)).setMaterial(material);
+        Geometry slope = new Plane(Point.ZERO, new Vector(1, 0, 1)).setMaterial(material);
+        Color gray = new Color(100, 100, 100);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Two hits of one surface with the same color are not an edge
+        assertFalse(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(floor, new Point(0.1, 0, 0)), gray, gray)
+                .isEdge(0, 0, 10), "ERROR: A flat surface is not an edge");
+
+        //TC02: Geometries of one material, like the triangles of a mesh, are one surface
+        assertFalse(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(tile, Point.ZERO), gray, gray)
+                .isEdge(0, 0, 10), "ERROR: Geometries of one material are not an edge");
+
+        //TC03: A silhouette, a hit next to a miss
+        assertTrue(pair(new GeoPoint(floor, Point.ZERO), null, gray, gray).isEdge(0, 0, 10),
+                "ERROR: A silhouette is an edge");
+
+        //TC04: A material border
+        assertTrue(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(other, Point.ZERO), gray, gray)
+                .isEdge(1, 0, 10), "ERROR: A material border is an edge");
+
+        //TC05: A depth jump
+        assertTrue(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(raised, new Point(0, 0, 5)), gray, gray)
+                .isEdge(0, 0, 10), "ERROR: A depth jump is an edge");
+
+        //TC06: A crease
+        assertTrue(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(slope, Point.ZERO), gray, gray)
+                .isEdge(0, 0, 10), "ERROR: A crease is an edge");
+
+        //TC07: A shadow edge, a luminance difference over the contrast on one surface
+        assertTrue(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(floor, Point.ZERO), gray, new Color(50, 50, 50))
+                .isEdge(0, 0, 10), "ERROR: A shadow edge is an edge");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A luminance difference up to the contrast is not an edge
+        assertFalse(pair(new GeoPoint(floor, Point.ZERO), new GeoPoint(floor, Point.ZERO), gray, new Color(95, 95, 95))
+                .isEdge(0, 0, 10), "ERROR: A small luminance difference is not an edge");
+
+        //TC11: Two misses are not an edge, and pixels that were not set have no edges
+        assertFalse(pair(null, null, gray, gray).isEdge(0, 0, 10), "ERROR: Two misses are not an edge");
+        GeometryBuffer buffer = new GeometryBuffer(2, 1);
+        buffer.set(0, 0, new GeoPoint(floor, Point.ZERO), ray, gray);
+        assertFalse(buffer.isEdge(0, 0, 10), "ERROR: A pixel next to an unset pixel is not an edge");
+        assertFalse(buffer.isEdge(1, 0, 10), "ERROR: An unset pixel is not an edge");
+    }
+}
@@ -3,6 +3,8 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class ImageWriterTest {
 
     /**
@@ -26,4 +28,20 @@ public class ImageWriterTest {
         }
         iw.writeToImage();
     }
+
+    /**
+     * Testing reading back a written image
+     */
+    @Test
+    void readImageTest() {
+        Color color = new Color(10, 200, 30);
+        ImageWriter written = new ImageWriter("Read test", 4, 3);
+        written.writePixel(2, 1, color);
+        written.writeToImage();
+
+        ImageWriter read = new ImageWriter("Read test", 4, 3).readImage();
+        assertEquals(color.getColor(), read.getPixel(2, 1).getColor(), "Bad pixel read back");
+        assertThrows(IllegalArgumentException.class, () -> new ImageWriter("Read test", 5, 3).readImage(),
+                "Read an image of another size");
+    }
 }
@@ -0,0 +1,189 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderCoordinatorTests {
+    /**
+     * Builds a camera on a lit sphere over a floor, for the distributed rendering tests.
+     *
+     * @param image The image to render into.
+     * @return The camera.
+     */
+    private static Camera camera(ImageWriter image) {
+        return builder(image).build();
+    }
+
+    /**
+     * Builds a camera on a lit sphere over a floor, for the distributed rendering tests, to be set further.
+     *
+     * @param image The image to render into.
+     * @return The builder of the camera.
+     */
+    private static Camera.Builder builder(ImageWriter image) {
+        Scene scene = new Scene("Distributed").setBackground(new Color(0, 0, 60));
+        scene.geometries.add(
+                new Sphere(3, new Point(0, 0, -20)).setEmission(new Color(80, 0, 0))
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)),
+                new Plane(new Point(0, -3, 0), new Vector(0, 1, 0)).setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKd(0.6)));
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(10, 10, 0)).setKl(0.01));
+        return Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(image)
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setVpDistance(10).setVpSize(8, 8)
+                .setTileSize(5);
+    }
+
+    /**
+     * Checks that an image is the same as the image rendered locally.
+     *
+     * @param image    The image.
+     * @param expected The locally rendered image.
+     */
+    private static void assertSameImage(ImageWriter image, ImageWriter expected) {
+        for (int i = 0; i < expected.getNy(); i++)
+            for (int j = 0; j < expected.getNx(); j++)
+                assertEquals(expected.getPixel(j, i).getRgb(), image.getPixel(j, i).getRgb(),
+                        "ERROR: Pixel " + j + "," + i + " differs from the local rendering");
+    }
+
+    /**
+     * Builds a classpath from the locations the given classes were loaded from.
+     * The property java.class.path does not hold them when the tests run under a custom class loader.
+     *
+     * @param classes The classes the classpath must reach.
+     * @return The classpath.
+     */
+    private static String classPath(Class<?>... classes) {
+        Set<String> entries = new LinkedHashSet<>();
+        for (Class<?> c : classes) {
+            try {
+                entries.add(Path.of(c.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException("Bad location of " + c.getName(), e);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /**
+     * Launches a worker process on this host.
+     *
+     * @param port The port of the coordinator.
+     * @return The process.
+     * @throws IOException          if the process cannot be started.
+     * @throws InterruptedException if interrupted while checking the process started.
+     */
+    private static Process launchWorker(int port) throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, "-cp", classPath(RenderWorker.class, RenderCoordinatorTests.class),
+                "renderer.RenderWorker", String.valueOf(port), "1").inheritIO().start();
+        if (process.waitFor(500, TimeUnit.MILLISECONDS))
+            fail("ERROR: A worker exited at once with code " + process.exitValue());
+        return process;
+    }
+
+    /**
+     * Test method for {@link Camera#renderDistributed(RenderCoordinator)}.
+     */
+    @Test
+    void testRenderDistributed() throws IOException, InterruptedException {
+        ImageWriter expected = new ImageWriter("Distributed", 24, 24);
+        camera(expected).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Several worker processes render the same image as a local rendering
+        List<Process> workers = new ArrayList<>();
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, Duration.ofSeconds(30))) {
+            for (int w = 0; w < 3; w++) workers.add(launchWorker(coordinator.getPort()));
+            ImageWriter image = new ImageWriter("Distributed", 24, 24);
+            camera(image).renderDistributed(coordinator);
+            assertSameImage(image, expected);
+        }
+        for (Process worker : workers)
+            assertTrue(worker.waitFor(10, TimeUnit.SECONDS), "ERROR: A worker did not exit with the coordinator");
+
+        //TC02: The tiles of a worker that dies are reassigned to the other workers
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, Duration.ofSeconds(30))) {
+            CountDownLatch tookTile = new CountDownLatch(1);
+            Thread dying = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), coordinator.getPort())) {
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    in.readFully(new byte[in.readInt()]);
+                    new DataOutputStream(socket.getOutputStream()).writeInt(1);
+                    for (int k = 0; k < 5; k++) in.readInt(); // a tile, which is never returned
+                } catch (IOException e) {
+                    fail("ERROR: The dying worker could not connect");
+                }
+                tookTile.countDown();
+            });
+            Thread worker = new Thread(() -> {
+                try {
+                    tookTile.await();
+                    RenderWorker.run(coordinator.getPort(), 2);
+                } catch (IOException | InterruptedException e) {
+                    // the test fails on the image
+                }
+            });
+            dying.setDaemon(true);
+            worker.setDaemon(true);
+            dying.start();
+            worker.start();
+            ImageWriter image = new ImageWriter("Distributed", 24, 24);
+            camera(image).renderDistributed(coordinator);
+            assertSameImage(image, expected);
+            assertEquals(0, tookTile.getCount(), "ERROR: The dying worker did not take a tile");
+        }
+
+        //TC03: A worker supersamples only the edges of an edge antialiased image, like a local rendering
+        ImageWriter edges = new ImageWriter("Distributed", 24, 24);
+        builder(edges).setTotalRays(9).setEdgeAntialiasing(4).build().renderImage();
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, Duration.ofSeconds(30))) {
+            Thread worker = new Thread(() -> {
+                try {
+                    RenderWorker.run(coordinator.getPort(), 2);
+                } catch (IOException e) {
+                    // the test fails on the image
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+            ImageWriter image = new ImageWriter("Distributed", 24, 24);
+            builder(image).setTotalRays(9).setEdgeAntialiasing(4).build().renderDistributed(coordinator);
+            assertSameImage(image, edges);
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: No worker connects
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, Duration.ofMillis(200))) {
+            Camera camera = camera(new ImageWriter("Distributed", 24, 24));
+            assertThrows(IllegalStateException.class, () -> camera.renderDistributed(coordinator),
+                    "ERROR: Rendered without workers");
+        }
+    }
+}
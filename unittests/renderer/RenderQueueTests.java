@@ -0,0 +1,84 @@
+package renderer;
+
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderQueueTests {
+    /**
+     * Builds a scene with a red sphere in front of a blue background.
+     *
+     * @param z The distance of the sphere along the view direction.
+     * @return The scene.
+     */
+    private static Scene scene(double z) {
+        Scene scene = new Scene("Queue").setBackground(new Color(0, 0, 255));
+        scene.geometries.add(new Sphere(3, new Point(0, 0, -z)).setEmission(new Color(255, 0, 0)));
+        return scene;
+    }
+
+    /**
+     * Builds a camera for the queue tests.
+     *
+     * @param scene The scene.
+     * @param image The image to render into.
+     * @return The camera.
+     */
+    private static Camera camera(Scene scene, ImageWriter image) {
+        return Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(image)
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0))
+                .setVpDistance(10).setVpSize(8, 8)
+                .setTileSize(4)
+                .build();
+    }
+
+    /**
+     * Test method for {@link RenderQueue#submit(Camera, int)}.
+     */
+    @Test
+    void testSubmit() throws InterruptedException, ExecutionException {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Images of shared and separate scenes render as they do alone
+        Scene shared = scene(20);
+        List<Scene> scenes = List.of(shared, shared, scene(15), shared);
+        List<RenderJob> jobs = new ArrayList<>();
+        try (RenderQueue queue = new RenderQueue(3)) {
+            for (Scene scene : scenes) jobs.add(queue.submit(camera(scene, new ImageWriter("Queue", 10, 10)), 0));
+            for (int k = 0; k < scenes.size(); k++) {
+                ImageWriter expected = new ImageWriter("Queue", 10, 10);
+                camera(scenes.get(k), expected).renderImage();
+                ImageWriter image = jobs.get(k).getResult().get();
+                for (int i = 0; i < 10; i++)
+                    for (int j = 0; j < 10; j++)
+                        assertEquals(expected.getPixel(j, i).getRgb(), image.getPixel(j, i).getRgb(),
+                                "ERROR: Bad pixel in a queued image");
+            }
+        }
+
+        //TC02: An image of a higher priority overtakes the images submitted before it
+        try (RenderQueue queue = new RenderQueue(1)) {
+            RenderJob low = queue.submit(camera(shared, new ImageWriter("Queue", 120, 120)), 0);
+            RenderJob high = queue.submit(camera(shared, new ImageWriter("Queue", 8, 8)), 5);
+            high.getResult().get();
+            assertFalse(low.getResult().isDone(), "ERROR: The image of a higher priority waited for an earlier one");
+            low.cancel();
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A closed queue takes no more images
+        RenderQueue queue = new RenderQueue(1);
+        queue.close();
+        Camera camera = camera(shared, new ImageWriter("Queue", 4, 4));
+        assertThrows(IllegalStateException.class, () -> queue.submit(camera, 0), "ERROR: A closed queue took an image");
+    }
+}
@@ -0,0 +1,123 @@
+package renderer;
+
+import geometries.Instance;
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceRendererTests {
+    /**
+     * Builds a camera for the sequence tests, looking down at the floor of the scene.
+     *
+     * @param scene    The scene.
+     * @param location The place of the camera.
+     * @param image    The image to render into.
+     * @return The camera.
+     */
+    private static Camera camera(Scene scene, Point location, ImageWriter image) {
+        return camera(scene, location, image, 1);
+    }
+
+    /**
+     * Builds a camera for the sequence tests, looking down at the floor of the scene.
+     *
+     * @param scene     The scene.
+     * @param location  The place of the camera.
+     * @param image     The image to render into.
+     * @param totalRays The amount of rays per pixel.
+     * @return The camera.
+     */
+    private static Camera camera(Scene scene, Point location, ImageWriter image, int totalRays) {
+        return Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(image)
+                .setLocation(location)
+                .setDirection(new Vector(0, 0, -1), new Vector(0, -1, 0))
+                .setVpDistance(10).setVpSize(8, 8)
+                .setTileSize(8)
+                .setTotalRays(totalRays)
+                .build();
+    }
+
+    /**
+     * Renders a frame of a sequence and checks that it is the same as a full rendering of its camera.
+     *
+     * @param sequence The sequence.
+     * @param scene    The scene.
+     * @param location The place of the camera.
+     * @param moves    The moves of the frame.
+     * @return The amount of pixels shaded in the frame.
+     */
+    private static long renderFrame(SequenceRenderer sequence, Scene scene, Point location,
+                                    Map<Instance, Transform> moves) {
+        ImageWriter image = new ImageWriter("Sequence", 20, 20);
+        sequence.renderFrame(camera(scene, location, image), moves).join();
+        ImageWriter expected = new ImageWriter("Sequence", 20, 20);
+        camera(scene, location, expected).renderImage();
+        for (int i = 0; i < 20; i++)
+            for (int j = 0; j < 20; j++)
+                assertEquals(expected.getPixel(j, i).getRgb(), image.getPixel(j, i).getRgb(),
+                        "ERROR: Bad pixel in a frame");
+        return sequence.getShadedPixels();
+    }
+
+    /**
+     * Test method for {@link SequenceRenderer#renderFrame(Camera, Map)}.
+     */
+    @Test
+    void testRenderFrame() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: A moving instance shades again only the pixels it covers or shadows, before or after
+        Scene scene = new Scene("Sequence").setBackground(new Color(0, 0, 40));
+        scene.geometries.add(new Plane(new Point(0, 0, -30), new Vector(0, 0, 1))
+                .setEmission(new Color(20, 20, 20)).setMaterial(new Material().setKd(0.6)));
+        Instance ball = new Instance(new Sphere(1, Point.ZERO),
+                Transform.translation(new Vector(-8, -8, -20)))
+                .setEmission(new Color(100, 0, 0)).setMaterial(new Material().setKd(0.5));
+        scene.geometries.add(ball);
+        scene.lights.add(new PointLight(new Color(300, 300, 300), new Point(0, 0, 10)).setKl(0.001));
+        try (SequenceRenderer sequence = new SequenceRenderer(scene)) {
+            assertEquals(400, renderFrame(sequence, scene, Point.ZERO, Map.of()),
+                    "ERROR: The first frame was not shaded in full");
+            long shaded = renderFrame(sequence, scene, Point.ZERO,
+                    Map.of(ball, Transform.translation(new Vector(-7, -8, -20))));
+            assertTrue(shaded > 0 && shaded < 100, "ERROR: Wrong amount of pixels shaded again: " + shaded);
+
+            //TC02: A camera moving over an emitting surface reuses the colors it saw in the previous frame
+            Scene flat = new Scene("Flat").setBackground(new Color(0, 0, 40));
+            flat.geometries.add(new Plane(new Point(0, 0, -30), new Vector(0, 0, 1))
+                    .setEmission(new Color(20, 60, 20)));
+            try (SequenceRenderer panning = new SequenceRenderer(flat)) {
+                renderFrame(panning, flat, Point.ZERO, Map.of());
+                assertTrue(renderFrame(panning, flat, new Point(0.4, 0, 0), Map.of()) < 200,
+                        "ERROR: A moving camera reused too few pixels");
+            }
+
+            // =============== Boundary Values Tests ==================
+            //TC10: A frame where nothing changed shades no pixel
+            assertEquals(0, renderFrame(sequence, scene, Point.ZERO, Map.of()),
+                    "ERROR: An unchanged frame was shaded again");
+
+            //TC11: A frame after a super sampled one is shaded in full, since the super sampled frame kept no hits
+            sequence.renderFrame(camera(scene, Point.ZERO, new ImageWriter("Sequence", 20, 20), 4), Map.of())
+                    .join();
+            assertEquals(400, renderFrame(sequence, scene, Point.ZERO,
+                            Map.of(ball, Transform.translation(new Vector(-7, -6, -20)))),
+                    "ERROR: A frame after a super sampled one reused pixels");
+        }
+
+        //TC12: A camera of another scene is refused
+        try (SequenceRenderer sequence = new SequenceRenderer(new Scene("Other"))) {
+            Camera camera = camera(scene, Point.ZERO, new ImageWriter("Sequence", 20, 20));
+            assertThrows(IllegalArgumentException.class, () -> sequence.renderFrame(camera, Map.of()),
+                    "ERROR: A camera of another scene was taken");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileSchedulerTests {
+
+    /**
+     * Test method for {@link TileScheduler#getTiles()}.
+     */
+    @Test
+    void testGetTiles() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Every order covers every pixel exactly once, with the edge tiles clipped to the image
+        for (TileScheduler.Order order : TileScheduler.Order.values()) {
+            int[] covered = new int[37 * 21];
+            for (TileScheduler.Tile tile : new TileScheduler(37, 21, 8, order).getTiles())
+                for (int i = tile.y(); i < tile.y() + tile.height(); i++)
+                    for (int j = tile.x(); j < tile.x() + tile.width(); j++)
+                        covered[i * 37 + j]++;
+            for (int count : covered) assertEquals(1, count, "ERROR: " + order + " tiles do not cover the image");
+        }
+
+        //TC02: Consecutive tiles along the Hilbert curve touch each other
+        List<TileScheduler.Tile> tiles = new TileScheduler(64, 64, 8, TileScheduler.Order.HILBERT).getTiles();
+        for (int k = 1; k < tiles.size(); k++) {
+            TileScheduler.Tile a = tiles.get(k - 1), b = tiles.get(k);
+            assertEquals(8, Math.abs(a.x() - b.x()) + Math.abs(a.y() - b.y()),
+                    "ERROR: Consecutive Hilbert tiles are not neighbours");
+        }
+
+        //TC03: The Morton curve walks the 2x2 blocks of tiles one after the other
+        tiles = new TileScheduler(4, 4, 1, TileScheduler.Order.MORTON).getTiles();
+        assertEquals(new TileScheduler.Tile(1, 1, 1, 1), tiles.get(3), "ERROR: Bad Morton order");
+        assertEquals(new TileScheduler.Tile(2, 0, 1, 1), tiles.get(4), "ERROR: Bad Morton order");
+
+        //TC04: The tiles of a region of the image start at the region and are clipped to it
+        tiles = new TileScheduler(3, 5, 10, 4, 4, TileScheduler.Order.SCANLINE).getTiles();
+        assertEquals(List.of(new TileScheduler.Tile(3, 5, 4, 4), new TileScheduler.Tile(7, 5, 4, 4),
+                new TileScheduler.Tile(11, 5, 2, 4)), tiles, "ERROR: Bad region tiles");
+
+        // =============== Boundary Values Tests ==================
+        //TC10: A tile larger than the image
+        assertEquals(List.of(new TileScheduler.Tile(0, 0, 5, 3)),
+                new TileScheduler(5, 3, 16, TileScheduler.Order.HILBERT).getTiles(), "ERROR: Bad single tile");
+
+        //TC11: Tile size zero
+        assertThrows(IllegalArgumentException.class,
+                () -> new TileScheduler(5, 3, 0, TileScheduler.Order.SCANLINE), "ERROR: Accepted an empty tile");
+    }
+
+    /**
+     * Test method for {@link TileScheduler#run(int, java.util.function.Consumer)}.
+     */
+    @Test
+    void testRun() {
+        TileScheduler scheduler = new TileScheduler(50, 50, 5, TileScheduler.Order.HILBERT);
+        int count = scheduler.getTiles().size();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: Several threads render every tile once, on no more threads than requested
+        AtomicIntegerArray done = new AtomicIntegerArray(count);
+        Set<Thread> workers = ConcurrentHashMap.newKeySet();
+        List<TileScheduler.TileTime> times = scheduler.run(3, tile -> {
+            workers.add(Thread.currentThread());
+            done.incrementAndGet(scheduler.getTiles().indexOf(tile));
+        });
+        for (int i = 0; i < count; i++) assertEquals(1, done.get(i), "ERROR: A tile was not rendered once");
+        assertTrue(workers.size() <= 3, "ERROR: Rendered on more threads than requested");
+        assertFalse(workers.contains(Thread.currentThread()), "ERROR: Rendered on the calling thread");
+        assertEquals(count, times.size(), "ERROR: Missing tile times");
+        assertEquals(scheduler.getTiles().get(7), times.get(7).tile(), "ERROR: Tile times are not in rendering order");
+
+        //TC02: A single thread renders on the calling thread
+        workers.clear();
+        scheduler.run(1, tile -> workers.add(Thread.currentThread()));
+        assertEquals(Set.of(Thread.currentThread()), workers, "ERROR: A single thread must be the calling thread");
+    }
+}